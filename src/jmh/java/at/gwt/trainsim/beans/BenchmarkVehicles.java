@@ -0,0 +1,40 @@
+package at.gwt.trainsim.beans;
+
+/**
+ * Creates vehicles with unique serial numbers for the benchmarks.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+final class BenchmarkVehicles {
+	static final RailroadCompany COMPANY = new RailroadCompany("OEBB");
+	static final Manufacturer MANUFACTURER = new Manufacturer("Siemens");
+
+	private static final String PREFIX = "Benchmark-" + System.nanoTime() + "-";
+
+	private static long counter;
+
+	private BenchmarkVehicles() {
+		// factory
+	}
+
+	static synchronized SerialNumber nextSerialNumber() {
+		return new SerialNumber(PREFIX + counter++);
+	}
+
+	static Locomotive newLocomotive() {
+		return new Locomotive(new Weight(80_000), new Weight(2_000_000), new Length(20), 0, new Weight(0),
+				new Classification("Taurus"), MANUFACTURER, new YearOfManufacturing(2005), nextSerialNumber(),
+				Drive.ELECTRICITY);
+	}
+
+	static PassengerCar newPassengerCar() {
+		return new PassengerCar(new Weight(40_000), new Length(26), 80, new Weight(1_000),
+				new Classification("Railjet"), MANUFACTURER, new YearOfManufacturing(2010), nextSerialNumber());
+	}
+
+	static FreightWagon newFreightWagon() {
+		return new FreightWagon(new Weight(20_000), new Length(15), 0, new Weight(60_000),
+				new Classification("Flat wagon"), MANUFACTURER, new YearOfManufacturing(1995), nextSerialNumber());
+	}
+}
@@ -0,0 +1,106 @@
+package at.gwt.trainsim.beans;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the aggregate getters of a {@link Train} with the given number of
+ * wagons, booking single passengers and reading and replacing snapshots.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TrainAggregateBenchmark {
+
+	@Param({ "1", "10", "100", "500" })
+	private int wagons;
+
+	private Train train;
+	private List<Wagon> passengerCars;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.train = Train.Service.newTrain(BenchmarkVehicles.COMPANY, BenchmarkVehicles.newLocomotive());
+
+		this.passengerCars = new ArrayList<>();
+		for (int i = 0; i < this.wagons; i++) {
+			Wagon wagon = i % 2 == 0 ? BenchmarkVehicles.newPassengerCar() : BenchmarkVehicles.newFreightWagon();
+			this.train.addWagon(wagon);
+			if (i % 2 == 0) {
+				this.passengerCars.add(wagon);
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		Train.Service.decommission(this.train);
+	}
+
+	@Benchmark
+	public Weight getWeight() {
+		return this.train.getWeight();
+	}
+
+	@Benchmark
+	public double getWeightInKilogram() {
+		return this.train.getWeightInKilogram();
+	}
+
+	@Benchmark
+	public boolean isDrivable() {
+		return this.train.isDrivable();
+	}
+
+	@Benchmark
+	public int getRequiredGuards() {
+		return this.train.getRequiredGuards();
+	}
+
+	@Benchmark
+	public double bookPassenger() {
+		Wagon wagon = this.passengerCars.get(this.next++ % this.passengerCars.size());
+		if (this.train.getPassengers(wagon) < wagon.getMaxPassengers()) {
+			this.train.addPassengers(wagon, 1);
+		} else {
+			this.train.setLoad(wagon, 0, 0);
+		}
+
+		return this.train.getCurrentWeightInKilogram();
+	}
+
+	@Benchmark
+	public double sumSnapshotWagons() {
+		double weight = 0d;
+		for (Wagon wagon : this.train.getSnapshot().getWagons()) {
+			weight += wagon.getEmptyWeightInKilogram();
+		}
+
+		return weight;
+	}
+
+	@Benchmark
+	public long removeAndAddWagon() {
+		Wagon wagon = this.passengerCars.get(this.next++ % this.passengerCars.size());
+		this.train.removeWagon(wagon);
+		this.train.addWagon(wagon);
+
+		return this.train.getSnapshot().getVersion();
+	}
+}
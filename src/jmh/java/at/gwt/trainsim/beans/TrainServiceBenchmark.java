@@ -0,0 +1,100 @@
+package at.gwt.trainsim.beans;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures {@link Train.Service#newTrain(RailroadCompany, Locomotive)} and
+ * {@link Train#addWagon(Wagon)} as well as {@link Train#addWagons(Collection)}
+ * while the service already manages a fleet of the given size.
+ * 
+ * All benchmarks undo their change within the same invocation, so the fleet
+ * size stays constant during the measurement.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TrainServiceBenchmark {
+	private static final int WAGONS_PER_TRAIN = 49;
+	private static final int WAGONS_PER_BATCH = 40;
+
+	@Param({ "10", "100", "1000", "10000", "100000" })
+	private int fleetSize;
+
+	private List<Train> fleet;
+	private Train train;
+	private Locomotive locomotive;
+	private Wagon wagon;
+	private List<Wagon> batch;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.fleet = new ArrayList<>();
+
+		int vehicles = 0;
+		while (vehicles < this.fleetSize) {
+			Train fleetTrain = Train.Service.newTrain(BenchmarkVehicles.COMPANY, BenchmarkVehicles.newLocomotive());
+			vehicles++;
+
+			for (int i = 0; i < WAGONS_PER_TRAIN && vehicles < this.fleetSize; i++, vehicles++) {
+				fleetTrain.addWagon(BenchmarkVehicles.newFreightWagon());
+			}
+
+			this.fleet.add(fleetTrain);
+		}
+
+		this.train = this.fleet.get(0);
+		this.locomotive = BenchmarkVehicles.newLocomotive();
+		this.wagon = BenchmarkVehicles.newFreightWagon();
+
+		this.batch = new ArrayList<>();
+		for (int i = 0; i < WAGONS_PER_BATCH; i++) {
+			this.batch.add(BenchmarkVehicles.newFreightWagon());
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.fleet.forEach(Train.Service::decommission);
+	}
+
+	@Benchmark
+	public Train newTrain() {
+		Train newTrain = Train.Service.newTrain(BenchmarkVehicles.COMPANY, this.locomotive);
+		Train.Service.decommission(newTrain);
+
+		return newTrain;
+	}
+
+	@Benchmark
+	public boolean addWagon() {
+		boolean added = this.train.addWagon(this.wagon);
+		this.train.removeWagon(this.wagon);
+
+		return added;
+	}
+
+	@Benchmark
+	public boolean addWagons() {
+		boolean added = this.train.addWagons(this.batch);
+		this.train.removeWagons(this.batch);
+
+		return added;
+	}
+}
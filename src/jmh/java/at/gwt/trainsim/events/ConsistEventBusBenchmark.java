@@ -0,0 +1,87 @@
+package at.gwt.trainsim.events;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+/**
+ * Measures adding and removing a wagon while the changes are published to the
+ * given number of subscribers, one of which is slow and drops events.
+ *
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConsistEventBusBenchmark {
+
+	@Param({ "0", "1", "4" })
+	private int subscribers;
+
+	private ConsistEventBus bus;
+	private Train train;
+	private PassengerCar wagon;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		String prefix = "EventBusBenchmark-" + System.nanoTime() + "-";
+		this.train = Train.Service.newTrain(RailroadCompany.of("OEBB"),
+				new Locomotive(new Weight(80_000), new Weight(300_000), new Length(20), Classification.of("Taurus"),
+						Manufacturer.of("Siemens"), new YearOfManufacturing(2005), new SerialNumber(prefix + "L"),
+						Drive.ELECTRICITY));
+		this.wagon = new PassengerCar(new Weight(40_000), new Length(26), 80, new Weight(1_000), null, null, null,
+				new SerialNumber(prefix + "P"));
+
+		this.bus = ConsistEventBus.create();
+		for (int i = 0; i < this.subscribers; i++) {
+			if (i == 0) {
+				this.bus.subscribe("slow", 1_024, events -> sleep());
+			} else {
+				this.bus.subscribe("fast-" + i, events -> {
+				});
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.bus.close();
+		Train.Service.decommission(this.train);
+	}
+
+	@Benchmark
+	public boolean addAndRemoveWagon() {
+		this.train.addWagon(this.wagon);
+		return this.train.removeWagon(this.wagon);
+	}
+
+	private static void sleep() {
+		try {
+			Thread.sleep(1);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
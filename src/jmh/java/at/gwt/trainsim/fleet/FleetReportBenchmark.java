@@ -0,0 +1,113 @@
+package at.gwt.trainsim.fleet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.FreightWagon;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Wagon;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+/**
+ * Compares the serial planning loop over all trains with a serial and a
+ * parallel {@link FleetReport}.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FleetReportBenchmark {
+	private static final RailroadCompany[] COMPANIES = { new RailroadCompany("OEBB"), new RailroadCompany("Westbahn"),
+			new RailroadCompany("DB"), new RailroadCompany("SBB") };
+	private static final Manufacturer MANUFACTURER = new Manufacturer("Siemens");
+	private static final int WAGONS_PER_TRAIN = 12;
+
+	@Param({ "1000", "100000" })
+	private int trains;
+
+	private List<Train> fleet;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		String prefix = "FleetReportBenchmark-" + System.nanoTime() + "-";
+
+		this.fleet = new ArrayList<>(this.trains);
+		for (int i = 0; i < this.trains; i++) {
+			Train train = Train.Service.newTrain(COMPANIES[i % COMPANIES.length],
+					new Locomotive(new Weight(80_000), new Weight(2_000_000), new Length(20),
+							new Classification("Taurus"), MANUFACTURER, new YearOfManufacturing(2005),
+							new SerialNumber(prefix + i + "-L"), Drive.ELECTRICITY));
+
+			List<Wagon> wagons = new ArrayList<>(WAGONS_PER_TRAIN);
+			for (int j = 0; j < WAGONS_PER_TRAIN; j++) {
+				SerialNumber serialNumber = new SerialNumber(prefix + i + "-" + j);
+				wagons.add(j % 2 == 0
+						? new PassengerCar(new Weight(40_000), new Length(26), 80, new Weight(1_000), null,
+								MANUFACTURER, null, serialNumber)
+						: new FreightWagon(new Weight(20_000), new Length(15), 0, new Weight(60_000), null,
+								MANUFACTURER, null, serialNumber));
+			}
+			train.addWagons(wagons);
+
+			this.fleet.add(train);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.fleet.forEach(Train.Service::decommission);
+	}
+
+	/**
+	 * The planning run as it has been done before: one train after the other.
+	 */
+	@Benchmark
+	public Map<RailroadCompany, double[]> serialLoop() {
+		Map<RailroadCompany, double[]> figures = new HashMap<>();
+
+		for (Train train : this.fleet) {
+			double[] company = figures.computeIfAbsent(train.getCompany(), key -> new double[4]);
+			company[0] += train.isDrivable() ? 1 : 0;
+			company[1] += train.getRequiredGuards();
+			company[2] += train.getWeight().getValue();
+			company[3] += train.getLength().getValue();
+		}
+
+		return figures;
+	}
+
+	@Benchmark
+	public FleetReport serialReport() {
+		return FleetReport.create(this.fleet, false);
+	}
+
+	@Benchmark
+	public FleetReport parallelReport() {
+		return FleetReport.create(this.fleet, true);
+	}
+}
@@ -0,0 +1,98 @@
+package at.gwt.trainsim.fleet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.FreightWagon;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+/**
+ * Compares a {@link FleetRepository} query with a scan over all vehicles for
+ * "electric locomotives built after 2000 by Siemens, which are not part of a
+ * train".
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FleetRepositoryBenchmark {
+	private static final Manufacturer[] MANUFACTURERS = { Manufacturer.of("Siemens"), Manufacturer.of("Bombardier"),
+			Manufacturer.of("Alstom"), Manufacturer.of("Stadler") };
+	private static final Drive[] DRIVES = Drive.values();
+	private static final Manufacturer SIEMENS = MANUFACTURERS[0];
+
+	@Param({ "10000", "1000000" })
+	private int vehicles;
+
+	private List<RailVehicle> fleet;
+	private FleetRepository repository;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		String prefix = "FleetRepositoryBenchmark-" + System.nanoTime() + "-";
+
+		this.fleet = new ArrayList<>(this.vehicles);
+		for (int i = 0; i < this.vehicles; i++) {
+			Manufacturer manufacturer = MANUFACTURERS[i % MANUFACTURERS.length];
+			YearOfManufacturing year = new YearOfManufacturing(1960 + i % 60);
+			SerialNumber serialNumber = new SerialNumber(prefix + i);
+
+			this.fleet.add(i % 3 == 0
+					? new Locomotive(new Weight(80_000), new Weight(2_000_000), new Length(20),
+							Classification.of("Taurus"), manufacturer, year, serialNumber, DRIVES[i % DRIVES.length])
+					: new FreightWagon(new Weight(20_000), new Length(15), 0, new Weight(60_000),
+							Classification.of("Flat wagon"), manufacturer, year, serialNumber));
+		}
+
+		this.repository = FleetRepository.create();
+		this.repository.addAll(this.fleet);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.repository.close();
+	}
+
+	@Benchmark
+	public int scan() {
+		int count = 0;
+		for (RailVehicle vehicle : this.fleet) {
+			if (vehicle instanceof Locomotive && ((Locomotive) vehicle).getTypeOfDrive() == Drive.ELECTRICITY
+					&& SIEMENS.equals(vehicle.getManufacturer()) && vehicle.getYearOfManufacturing() != null
+					&& vehicle.getYearOfManufacturing().getYear() > 2000
+					&& !Train.Service.findTrain(vehicle).isPresent()) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	@Benchmark
+	public int query() {
+		return this.repository.query().drive(Drive.ELECTRICITY).manufacturer(SIEMENS).builtAfter(2000).free().count();
+	}
+}
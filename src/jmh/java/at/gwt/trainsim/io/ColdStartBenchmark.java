@@ -0,0 +1,111 @@
+package at.gwt.trainsim.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.gwt.trainsim.beans.Train;
+
+/**
+ * Compares the time to get all trains back into {@link Train.Service} after a
+ * restart: rebuilding them from the CSV export, restoring them from a
+ * {@link FleetSnapshot} and only opening a snapshot to restore a single train.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ColdStartBenchmark {
+	private static final int VEHICLES_PER_TRAIN = 20;
+
+	@Param({ "1000", "10000" })
+	private int trains;
+
+	private Path export;
+	private Path snapshot;
+	private long firstTrainId;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		StringBuilder builder = new StringBuilder("type,serialNumber,classification,manufacturer,"
+				+ "yearOfManufacturing,emptyWeight,length,maxPassengers,maxAdditionalLoad,tractiveForce,typeOfDrive,"
+				+ "company,train\n");
+
+		for (int train = 0; train < this.trains; train++) {
+			builder.append("locomotive,L").append(train).append(",Taurus,Siemens,2005,80000,20,0,0,2000000,")
+					.append("electricity,OEBB,T").append(train).append('\n');
+
+			for (int wagon = 1; wagon < VEHICLES_PER_TRAIN; wagon++) {
+				builder.append("freight_wagon,W").append(train).append('-').append(wagon)
+						.append(",Flat wagon,SteelWagon,1995,20000,15,0,60000,,,OEBB,T").append(train).append('\n');
+			}
+		}
+
+		this.export = Files.createTempFile("fleet", ".csv");
+		Files.write(this.export, builder.toString().getBytes(StandardCharsets.UTF_8));
+
+		try (Reader reader = Files.newBufferedReader(this.export)) {
+			new CsvFleetLoader().load(reader);
+		}
+
+		List<Train> allTrains = new ArrayList<>(Train.Service.getTrains());
+		this.firstTrainId = allTrains.stream().mapToLong(Train::getId).min().getAsLong();
+
+		this.snapshot = Files.createTempFile("fleet", ".snapshot");
+		FleetSnapshot.write(this.snapshot, Collections.emptyList(), allTrains);
+
+		this.decommissionTrains();
+	}
+
+	@TearDown(Level.Invocation)
+	public void decommissionTrains() {
+		new ArrayList<>(Train.Service.getTrains()).forEach(Train.Service::decommission);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.delete(this.export);
+		Files.delete(this.snapshot);
+	}
+
+	@Benchmark
+	public LoadReport rebuildFromExport() throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(this.export)) {
+			return new CsvFleetLoader().load(reader);
+		}
+	}
+
+	@Benchmark
+	public List<Train> restoreFromSnapshot() throws IOException {
+		return FleetSnapshot.open(this.snapshot).restoreTrains();
+	}
+
+	@Benchmark
+	public Train openSnapshotAndRestoreOneTrain() throws IOException {
+		return FleetSnapshot.open(this.snapshot).restoreTrain(this.firstTrainId).get();
+	}
+}
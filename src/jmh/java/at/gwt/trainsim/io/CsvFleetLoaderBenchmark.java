@@ -0,0 +1,74 @@
+package at.gwt.trainsim.io;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import at.gwt.trainsim.beans.Train;
+
+/**
+ * Measures the throughput of {@link CsvFleetLoader} in rows per second. Each
+ * invocation loads an export of {@value #ROWS} rows, where every train consists
+ * of one locomotive and {@value #WAGONS_PER_TRAIN} wagons.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CsvFleetLoaderBenchmark {
+	private static final int ROWS = 100_000;
+	private static final int WAGONS_PER_TRAIN = 19;
+
+	private String export;
+	private CsvFleetLoader loader;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		StringBuilder builder = new StringBuilder("type,serialNumber,classification,manufacturer,"
+				+ "yearOfManufacturing,emptyWeight,length,maxPassengers,maxAdditionalLoad,tractiveForce,typeOfDrive,"
+				+ "company,train\n");
+
+		for (int row = 0; row < ROWS; row++) {
+			int train = row / (WAGONS_PER_TRAIN + 1);
+
+			if (row % (WAGONS_PER_TRAIN + 1) == 0) {
+				builder.append("locomotive,L").append(row).append(",Taurus,Siemens,2005,80000,20,0,0,2000000,")
+						.append("electricity,OEBB,T").append(train).append('\n');
+			} else {
+				builder.append("freight_wagon,W").append(row).append(",Flat wagon,SteelWagon,1995,20000,15,0,60000,")
+						.append(",,OEBB,T").append(train).append('\n');
+			}
+		}
+
+		this.export = builder.toString();
+		this.loader = new CsvFleetLoader(vehicle -> {
+		}, row -> {
+			throw new IllegalStateException(row.toString());
+		}, CsvFleetLoader.DEFAULT_BUFFER_SIZE);
+	}
+
+	@TearDown(Level.Invocation)
+	public void decommissionTrains() {
+		new ArrayList<>(Train.Service.getTrains()).forEach(Train.Service::decommission);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public LoadReport load() throws IOException {
+		return this.loader.load(new StringReader(this.export));
+	}
+}
@@ -0,0 +1,82 @@
+package at.gwt.trainsim.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+/**
+ * Compares the instrumented operations of a {@link Train} with metrics enabled
+ * and disabled.
+ *
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsOverheadBenchmark {
+
+	@Param({ "false", "true" })
+	private boolean enabled;
+
+	private Train train;
+	private PassengerCar wagon;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		String prefix = "MetricsBenchmark-" + System.nanoTime() + "-";
+		this.train = Train.Service.newTrain(RailroadCompany.of("OEBB"),
+				new Locomotive(new Weight(80_000), new Weight(300_000), new Length(20), Classification.of("Taurus"),
+						Manufacturer.of("Siemens"), new YearOfManufacturing(2005), new SerialNumber(prefix + "L"),
+						Drive.ELECTRICITY));
+		this.wagon = new PassengerCar(new Weight(40_000), new Length(26), 80, new Weight(1_000), null, null, null,
+				new SerialNumber(prefix + "P"));
+
+		Metrics.setEnabled(this.enabled);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		Metrics.setEnabled(false);
+		Train.Service.decommission(this.train);
+	}
+
+	@Benchmark
+	public boolean addAndRemoveWagon() {
+		this.train.addWagon(this.wagon);
+		return this.train.removeWagon(this.wagon);
+	}
+
+	@Benchmark
+	public double getWeightInKilogram() {
+		return this.train.getWeightInKilogram();
+	}
+
+	@Benchmark
+	public long timer() {
+		long start = TrainMetrics.CLAIM.start();
+		TrainMetrics.CLAIM.stop(start);
+		return start;
+	}
+}
@@ -0,0 +1,90 @@
+package at.gwt.trainsim.planning;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+/**
+ * Measures the {@link LocomotiveOptimizer} for pools of free locomotives. The
+ * pool either consists of a few classes of identical locomotives or of
+ * locomotives which all differ slightly in weight.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LocomotiveOptimizerBenchmark {
+	private static final Manufacturer MANUFACTURER = Manufacturer.of("Siemens");
+	private static final Drive[] DRIVES = Drive.values();
+	private static final double LOAD_IN_KILOGRAM = 3_000_000d;
+
+	@Param({ "100", "1000", "10000" })
+	private int candidates;
+
+	@Param({ "true", "false" })
+	private boolean identicalClasses;
+
+	private List<Locomotive> pool;
+	private LocomotiveOptimizer byCount;
+	private LocomotiveOptimizer byEmptyWeight;
+	private LocomotiveOptimizer byDrive;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = new Random(42);
+
+		this.pool = new ArrayList<>(this.candidates);
+		for (int i = 0; i < this.candidates; i++) {
+			int locomotiveClass = random.nextInt(20);
+			double emptyWeight = 60_000 + locomotiveClass * 2_500 + (this.identicalClasses ? 0 : random.nextInt(1_000));
+
+			this.pool.add(new Locomotive(new Weight(emptyWeight), new Weight(150_000 + locomotiveClass * 25_000),
+					new Length(20), locomotiveClass % 4 * 50, new Weight(0),
+					Classification.of("Class " + locomotiveClass), MANUFACTURER,
+					new YearOfManufacturing(1980 + locomotiveClass), new SerialNumber("Optimizer-" + i),
+					DRIVES[locomotiveClass % DRIVES.length]));
+		}
+
+		this.byCount = new LocomotiveOptimizer(LocomotiveCost.COUNT);
+		this.byEmptyWeight = new LocomotiveOptimizer(LocomotiveCost.EMPTY_WEIGHT);
+		this.byDrive = new LocomotiveOptimizer(LocomotiveCost.preferring(Drive.ELECTRICITY, Drive.DIESEL));
+	}
+
+	@Benchmark
+	public Optional<LocomotivePlan> count() {
+		return this.byCount.optimize(LOAD_IN_KILOGRAM, this.pool);
+	}
+
+	@Benchmark
+	public Optional<LocomotivePlan> emptyWeight() {
+		return this.byEmptyWeight.optimize(LOAD_IN_KILOGRAM, this.pool);
+	}
+
+	@Benchmark
+	public Optional<LocomotivePlan> drivePreference() {
+		return this.byDrive.optimize(LOAD_IN_KILOGRAM, this.pool);
+	}
+}
@@ -0,0 +1,96 @@
+package at.gwt.trainsim.planning;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import at.gwt.trainsim.beans.DiningCar;
+import at.gwt.trainsim.beans.FreightWagon;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.SleepingCar;
+import at.gwt.trainsim.beans.Wagon;
+import at.gwt.trainsim.beans.Weight;
+
+/**
+ * Measures a nightly planning run: indexing the free fleet and planning the
+ * wagons of many trains one after the other.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WagonPlannerBenchmark {
+
+	@Param({ "100", "500" })
+	private int trains;
+
+	@Param({ "20000" })
+	private int wagons;
+
+	private List<Wagon> pool;
+	private List<WagonDemand> demands;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = new Random(42);
+
+		this.pool = new ArrayList<>(this.wagons);
+		for (int i = 0; i < this.wagons; i++) {
+			SerialNumber serialNumber = new SerialNumber("WagonPlanner-" + i);
+			int variant = random.nextInt(8);
+			Weight emptyWeight = new Weight(20_000 + variant * 2_500);
+			Length length = new Length(15 + variant);
+
+			switch (i % 4) {
+			case 0:
+				this.pool.add(new PassengerCar(emptyWeight, length, 60 + variant * 5, new Weight(1_000), null, null,
+						null, serialNumber));
+				break;
+			case 1:
+				this.pool.add(new SleepingCar(emptyWeight, length, 30 + variant * 2, new Weight(500), null, null,
+						null, serialNumber));
+				break;
+			case 2:
+				this.pool.add(new DiningCar(emptyWeight, length, 20 + variant, new Weight(0), null, null, null,
+						serialNumber));
+				break;
+			default:
+				this.pool.add(new FreightWagon(emptyWeight, length, 0, new Weight(40_000 + variant * 10_000), null,
+						null, null, serialNumber));
+			}
+		}
+
+		this.demands = new ArrayList<>(this.trains);
+		for (int i = 0; i < this.trains; i++) {
+			this.demands.add(new WagonDemand(random.nextInt(400), random.nextInt(600_000), 2_000_000));
+		}
+	}
+
+	@Benchmark
+	public List<Optional<WagonPlan>> planNight() {
+		WagonPlanner planner = new WagonPlanner(WagonCost.weighted(1d, 0.001d), this.pool);
+
+		List<Optional<WagonPlan>> plans = new ArrayList<>(this.demands.size());
+		for (WagonDemand demand : this.demands) {
+			plans.add(planner.plan(demand));
+		}
+
+		return plans;
+	}
+}
@@ -0,0 +1,93 @@
+package at.gwt.trainsim.reservation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Wagon;
+import at.gwt.trainsim.beans.Weight;
+
+/**
+ * Measures many threads booking and cancelling seats of the same train. Each
+ * thread keeps a number of bookings and cancels its oldest booking for every
+ * new one, so the train stays about half full.
+ *
+ * @author gotthardwitsch
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SeatBookingBenchmark {
+	private static final int WAGONS = 12;
+	private static final int SEATS_PER_WAGON = 80;
+	private static final int SEGMENTS = 16;
+	private static final int BOOKINGS_PER_THREAD = 32;
+
+	@State(Scope.Benchmark)
+	public static class Shared {
+		private TrainSeats seats;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			List<Wagon> wagons = new ArrayList<>();
+			for (int i = 0; i < WAGONS; i++) {
+				wagons.add(new PassengerCar(new Weight(40_000), new Length(26), SEATS_PER_WAGON, new Weight(1_000),
+						null, null, null, new SerialNumber("SeatBooking-" + i)));
+			}
+			this.seats = new TrainSeats(1L, wagons, SEGMENTS);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Booker {
+		private final ArrayDeque<SeatBooking> bookings = new ArrayDeque<>();
+		private final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean singleThread(Shared shared, Booker booker) {
+		return book(shared, booker);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public boolean eightThreads(Shared shared, Booker booker) {
+		return book(shared, booker);
+	}
+
+	@Benchmark
+	@Threads(32)
+	public boolean thirtyTwoThreads(Shared shared, Booker booker) {
+		return book(shared, booker);
+	}
+
+	private static boolean book(Shared shared, Booker booker) {
+		int from = booker.random.nextInt(SEGMENTS);
+		int to = from + 1 + booker.random.nextInt(SEGMENTS - from);
+		Optional<SeatBooking> booking = shared.seats.book(1 + booker.random.nextInt(4), from, to);
+
+		booking.ifPresent(booker.bookings::add);
+		if (booker.bookings.size() > BOOKINGS_PER_THREAD) {
+			shared.seats.cancel(booker.bookings.poll());
+		}
+
+		return booking.isPresent();
+	}
+}
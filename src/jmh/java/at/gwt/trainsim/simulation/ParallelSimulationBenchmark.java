@@ -0,0 +1,64 @@
+package at.gwt.trainsim.simulation;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import at.gwt.trainsim.beans.Drive;
+
+/**
+ * Measures simulation steps per second of a parallel step with 1 to 8 threads.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParallelSimulationBenchmark {
+	private static final Drive[] DRIVES = Drive.values();
+
+	@Param({ "1", "2", "4", "8" })
+	private int threads;
+
+	@Param({ "100000", "1000000" })
+	private int trains;
+
+	private Simulation simulation;
+	private ForkJoinPool pool;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = new Random(42);
+
+		// long enough for no train to arrive while measuring
+		this.simulation = new Simulation(Double.MAX_VALUE, 0.1, this.trains, 42L);
+		for (int i = 0; i < this.trains; i++) {
+			this.simulation.add(200_000 + random.nextInt(1_000_000), 20_000 + random.nextInt(200_000),
+					DRIVES[i % DRIVES.length]);
+		}
+
+		this.pool = new ForkJoinPool(this.threads);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.pool.shutdown();
+	}
+
+	@Benchmark
+	public void step() {
+		this.simulation.step(this.pool);
+	}
+}
@@ -0,0 +1,89 @@
+package at.gwt.trainsim.track;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures conflict checks of 20 block paths on a grid network, on which many
+ * trains have reserved their paths over a day.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReservationTableBenchmark {
+	private static final int GRID = 50;
+	private static final int PATH_LENGTH = 20;
+	private static final int PROBES = 1024;
+	private static final long DAY_IN_MILLIS = 24L * 60 * 60 * 1000;
+
+	@Param({ "1000", "10000" })
+	private int trains;
+
+	private ReservationTable table;
+	private List<List<Occupation>> probes;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = new Random(42);
+
+		TrackNetwork network = new TrackNetwork();
+		for (int x = 0; x < GRID; x++) {
+			for (int y = 0; y < GRID; y++) {
+				if (x + 1 < GRID) {
+					network.addBlock(x + "/" + y, (x + 1) + "/" + y, 2_000, true);
+				}
+				if (y + 1 < GRID) {
+					network.addBlock(x + "/" + y, x + "/" + (y + 1), 2_000, true);
+				}
+			}
+		}
+
+		this.table = new ReservationTable();
+		for (int i = 0; i < this.trains; i++) {
+			this.table.reserve(i, this.randomPath(network, random));
+		}
+
+		this.probes = new ArrayList<>(PROBES);
+		for (int i = 0; i < PROBES; i++) {
+			this.probes.add(this.randomPath(network, random));
+		}
+	}
+
+	@Benchmark
+	public boolean isFree() {
+		this.next = (this.next + 1) % PROBES;
+		return this.table.isFree(this.probes.get(this.next));
+	}
+
+	/**
+	 * A straight path along a row or column of the grid
+	 */
+	private List<Occupation> randomPath(TrackNetwork network, Random random) {
+		int line = random.nextInt(GRID);
+		int start = random.nextInt(GRID - PATH_LENGTH);
+		boolean row = random.nextBoolean();
+
+		String[] nodes = new String[PATH_LENGTH + 1];
+		for (int i = 0; i <= PATH_LENGTH; i++) {
+			nodes[i] = row ? (start + i) + "/" + line : line + "/" + (start + i);
+		}
+
+		return Occupation.along(network.path(nodes), 300, 30, (long) (random.nextDouble() * DAY_IN_MILLIS));
+	}
+}
@@ -0,0 +1,88 @@
+package at.gwt.trainsim.track;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures routing 10k trains between the stations of a grid network, with
+ * and without the route cache.
+ *
+ * @author gotthardwitsch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RouterBenchmark {
+	private static final int GRID = 50;
+	private static final int TRAINS = 10_000;
+	private static final int STATIONS = 100;
+
+	@Param({ "0", "10000" })
+	private int cacheSize;
+
+	private TrackNetwork network;
+	private String[] from;
+	private String[] to;
+	private TrainClass[] classes;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = new Random(42);
+
+		this.network = new TrackNetwork();
+		for (int x = 0; x < GRID; x++) {
+			for (int y = 0; y < GRID; y++) {
+				this.network.addNode(x + "/" + y, x * 2_000, y * 2_000);
+			}
+		}
+		for (int x = 0; x < GRID; x++) {
+			for (int y = 0; y < GRID; y++) {
+				if (x + 1 < GRID) {
+					this.network.addBlock(x + "/" + y, (x + 1) + "/" + y, 2_000 + random.nextInt(500),
+							random.nextInt(5) > 0);
+				}
+				if (y + 1 < GRID) {
+					this.network.addBlock(x + "/" + y, x + "/" + (y + 1), 2_000 + random.nextInt(500),
+							random.nextInt(5) > 0);
+				}
+			}
+		}
+
+		String[] stations = new String[STATIONS];
+		for (int i = 0; i < STATIONS; i++) {
+			stations[i] = random.nextInt(GRID) + "/" + random.nextInt(GRID);
+		}
+
+		this.from = new String[TRAINS];
+		this.to = new String[TRAINS];
+		this.classes = new TrainClass[TRAINS];
+		for (int i = 0; i < TRAINS; i++) {
+			this.from[i] = stations[random.nextInt(STATIONS)];
+			this.to[i] = stations[random.nextInt(STATIONS)];
+			this.classes[i] = new TrainClass(random.nextBoolean(), random.nextBoolean() ? 140 : 230,
+					200 + random.nextInt(1_800), 100 + random.nextInt(500));
+		}
+	}
+
+	@Benchmark
+	public long routeAll() {
+		Router router = new Router(this.network, this.cacheSize);
+		long length = 0L;
+		for (int i = 0; i < TRAINS; i++) {
+			length += router.route(this.from[i], this.to[i], this.classes[i]).map(Route::getLengthInMeters).orElse(0L);
+		}
+
+		return length;
+	}
+}
@@ -6,11 +6,27 @@ import lombok.Data;
 /**
  * Represents a vehicle's classification.
  * 
+ * Instances are immutable. {@link #of(String)} returns shared instances.
+ * 
  * @author gotthardwitsch
  *
  */
 @Data
 @AllArgsConstructor
 public class Classification {
-	private String description;
+	private static final Interner<Classification> INTERNER = new Interner<>(Classification::new);
+
+	private final String description;
+
+	/**
+	 * Returns the canonical instance for the given description. Prefer this
+	 * method over the constructor when creating many vehicles, so that equal
+	 * instances are shared.
+	 * 
+	 * @param description the description
+	 * @return the shared instance
+	 */
+	public static Classification of(String description) {
+		return INTERNER.intern(description);
+	}
 }
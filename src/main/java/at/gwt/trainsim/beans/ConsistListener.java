@@ -0,0 +1,56 @@
+package at.gwt.trainsim.beans;
+
+/**
+ * Is notified about every change of the trains managed by
+ * {@link Train.Service}. Listeners are registered by calling
+ * {@link Train.Service#addListener(ConsistListener)}.
+ * 
+ * Notifications are sent by the thread changing the train while it holds the
+ * train's lock, so all notifications for a single train arrive in order.
+ * Removals are sent before the vehicle is released, so a vehicle moved to
+ * another train is always reported as removed before it is reported as added.
+ * Listeners must return quickly and must not change trains.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public interface ConsistListener {
+
+	/**
+	 * @param train a new or restored train including all of its vehicles
+	 */
+	default void trainCreated(Train train) {
+	}
+
+	default void locomotiveAdded(Train train, Locomotive locomotive) {
+	}
+
+	default void locomotiveRemoved(Train train, Locomotive locomotive) {
+	}
+
+	default void wagonAdded(Train train, Wagon wagon) {
+	}
+
+	default void wagonRemoved(Train train, Wagon wagon) {
+	}
+
+	/**
+	 * @param train   the train
+	 * @param vehicle a vehicle of the train, whose passengers or freight have
+	 *                changed
+	 */
+	default void loadChanged(Train train, RailVehicle vehicle) {
+	}
+
+	/**
+	 * @param train a train, whose company has changed
+	 */
+	default void companyChanged(Train train) {
+	}
+
+	/**
+	 * @param train a train which is decommissioned. It still contains its vehicles.
+	 */
+	default void trainDecommissioned(Train train) {
+	}
+}
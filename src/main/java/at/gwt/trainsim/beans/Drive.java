@@ -7,5 +7,27 @@ package at.gwt.trainsim.beans;
  *
  */
 public enum Drive {
-	DIESEL, STEAM, ELECTRICITY;
+	DIESEL(140), STEAM(100), ELECTRICITY(230);
+
+	private final int topSpeedInKilometersPerHour;
+
+	private Drive(int topSpeedInKilometersPerHour) {
+		this.topSpeedInKilometersPerHour = topSpeedInKilometersPerHour;
+	}
+
+	/**
+	 * @return the top speed of a locomotive with this drive in km/h
+	 */
+	public int getTopSpeedInKilometersPerHour() {
+		return this.topSpeedInKilometersPerHour;
+	}
+
+	/**
+	 * @param drive a locomotive's drive, or null if unknown
+	 * @return the top speed of a locomotive with this drive in km/h. A locomotive
+	 *         with an unknown drive is assumed to be as slow as a steam engine.
+	 */
+	public static int topSpeedInKilometersPerHour(Drive drive) {
+		return (drive == null ? STEAM : drive).getTopSpeedInKilometersPerHour();
+	}
 }
@@ -0,0 +1,233 @@
+package at.gwt.trainsim.beans;
+
+import java.util.Objects;
+
+/**
+ * A persistent hash array mapped trie. Each level of the trie consumes 5 bits
+ * of the keys' hash codes, so looking up a key visits at most 7 nodes.
+ * Putting and removing return a new trie and share all unchanged nodes with
+ * the old trie, which stays unchanged.
+ *
+ * Keys with the same hash code are chained in a leaf. Values must not be null.
+ *
+ * @author gotthardwitsch
+ *
+ */
+final class HashTrie<K, V> {
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+	private static final HashTrie<?, ?> EMPTY = new HashTrie<>(Node.EMPTY, 0);
+
+	private final Node root;
+	private final int size;
+
+	private HashTrie(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <K, V> HashTrie<K, V> empty() {
+		return (HashTrie<K, V>) EMPTY;
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param key a key
+	 * @return the value of the key or null if this trie does not contain the key
+	 */
+	@SuppressWarnings("unchecked")
+	V get(Object key) {
+		return key == null ? null : (V) this.root.get(key, key.hashCode(), 0);
+	}
+
+	boolean containsKey(Object key) {
+		return this.get(key) != null;
+	}
+
+	/**
+	 * @param key   the key
+	 * @param value the value, which replaces the current value of the key
+	 * @return a trie which maps the key to the value
+	 */
+	HashTrie<K, V> put(K key, V value) {
+		Objects.requireNonNull(value, "Value is required");
+		boolean added = !this.containsKey(key);
+
+		return new HashTrie<>(this.root.put(key, value, key.hashCode(), 0), added ? this.size + 1 : this.size);
+	}
+
+	/**
+	 * @param key the key to remove
+	 * @return a trie without the key
+	 */
+	HashTrie<K, V> remove(Object key) {
+		if (!this.containsKey(key)) {
+			return this;
+		}
+
+		return new HashTrie<>(this.root.remove(key, key.hashCode(), 0), this.size - 1);
+	}
+
+	/**
+	 * A node with a slot for each 5 bit part of a hash code which is in use. The
+	 * bitmap tells which parts are in use, the slots are either nodes or leaves.
+	 */
+	private static final class Node {
+		private static final Node EMPTY = new Node(0, new Object[0]);
+
+		private final int bitmap;
+		private final Object[] slots;
+
+		private Node(int bitmap, Object[] slots) {
+			this.bitmap = bitmap;
+			this.slots = slots;
+		}
+
+		private Object get(Object key, int hash, int shift) {
+			int bit = bit(hash, shift);
+			if ((this.bitmap & bit) == 0) {
+				return null;
+			}
+
+			Object slot = this.slots[this.index(bit)];
+			return slot instanceof Node ? ((Node) slot).get(key, hash, shift + BITS) : ((Leaf) slot).get(key);
+		}
+
+		private Node put(Object key, Object value, int hash, int shift) {
+			int bit = bit(hash, shift);
+			int index = this.index(bit);
+			if ((this.bitmap & bit) == 0) {
+				Object[] slots = new Object[this.slots.length + 1];
+				System.arraycopy(this.slots, 0, slots, 0, index);
+				slots[index] = new Leaf(hash, key, value, null);
+				System.arraycopy(this.slots, index, slots, index + 1, this.slots.length - index);
+
+				return new Node(this.bitmap | bit, slots);
+			}
+
+			Object slot = this.slots[index];
+			if (slot instanceof Node) {
+				return this.with(index, ((Node) slot).put(key, value, hash, shift + BITS));
+			}
+
+			Leaf leaf = (Leaf) slot;
+			if (leaf.hash == hash) {
+				return this.with(index, leaf.put(key, value));
+			}
+
+			return this.with(index, merge(leaf, new Leaf(hash, key, value, null), shift + BITS));
+		}
+
+		/**
+		 * @return a node without the key, which must be part of this node
+		 */
+		private Node remove(Object key, int hash, int shift) {
+			int bit = bit(hash, shift);
+			int index = this.index(bit);
+
+			Object slot = this.slots[index];
+			Object replacement;
+			if (slot instanceof Node) {
+				Node node = ((Node) slot).remove(key, hash, shift + BITS);
+				replacement = node.bitmap == 0 ? null : node;
+			} else {
+				replacement = ((Leaf) slot).remove(key);
+			}
+
+			if (replacement != null) {
+				return this.with(index, replacement);
+			}
+			if (this.slots.length == 1) {
+				return EMPTY;
+			}
+
+			Object[] slots = new Object[this.slots.length - 1];
+			System.arraycopy(this.slots, 0, slots, 0, index);
+			System.arraycopy(this.slots, index + 1, slots, index, slots.length - index);
+
+			return new Node(this.bitmap & ~bit, slots);
+		}
+
+		private Node with(int index, Object slot) {
+			Object[] slots = this.slots.clone();
+			slots[index] = slot;
+
+			return new Node(this.bitmap, slots);
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(this.bitmap & (bit - 1));
+		}
+
+		/**
+		 * Creates the nodes needed to tell two leaves apart. Their hash codes
+		 * differ, so they differ in one of the parts at or below the shift.
+		 */
+		private static Node merge(Leaf a, Leaf b, int shift) {
+			int bitA = bit(a.hash, shift);
+			int bitB = bit(b.hash, shift);
+			if (bitA == bitB) {
+				return new Node(bitA, new Object[] { merge(a, b, shift + BITS) });
+			}
+
+			return new Node(bitA | bitB, Integer.compareUnsigned(bitA, bitB) < 0 ? new Object[] { a, b }
+					: new Object[] { b, a });
+		}
+
+		private static int bit(int hash, int shift) {
+			return 1 << ((hash >>> shift) & MASK);
+		}
+	}
+
+	/**
+	 * A key and its value, followed by the other keys with the same hash code.
+	 */
+	private static final class Leaf {
+		private final int hash;
+		private final Object key;
+		private final Object value;
+		private final Leaf next;
+
+		private Leaf(int hash, Object key, Object value, Leaf next) {
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+			this.next = next;
+		}
+
+		private Object get(Object key) {
+			for (Leaf leaf = this; leaf != null; leaf = leaf.next) {
+				if (leaf.key.equals(key)) {
+					return leaf.value;
+				}
+			}
+
+			return null;
+		}
+
+		private Leaf put(Object key, Object value) {
+			if (this.key.equals(key)) {
+				return new Leaf(this.hash, key, value, this.next);
+			}
+
+			return new Leaf(this.hash, this.key, this.value, this.next == null ? new Leaf(this.hash, key, value, null)
+					: this.next.put(key, value));
+		}
+
+		/**
+		 * @return the chain without the key, which must be part of it, or null if
+		 *         the chain is empty afterwards
+		 */
+		private Leaf remove(Object key) {
+			if (this.key.equals(key)) {
+				return this.next;
+			}
+
+			return new Leaf(this.hash, this.key, this.value, this.next.remove(key));
+		}
+	}
+}
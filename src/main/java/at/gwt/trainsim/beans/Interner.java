@@ -0,0 +1,48 @@
+package at.gwt.trainsim.beans;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Keeps one canonical instance per name. Instances are only weakly referenced,
+ * so names which are not used anymore are removed from the pool by the garbage
+ * collector.
+ * 
+ * @author gotthardwitsch
+ *
+ * @param <T> the type of the interned instances
+ */
+final class Interner<T> {
+	private final Function<String, T> factory;
+	private final Map<String, WeakReference<T>> pool;
+
+	/**
+	 * @param factory creates a new instance for a name. The instance must keep a
+	 *                reference to the name it has been created for.
+	 */
+	Interner(Function<String, T> factory) {
+		this.factory = factory;
+		this.pool = new WeakHashMap<>();
+	}
+
+	/**
+	 * @param name the name
+	 * @return the canonical instance for the given name
+	 */
+	synchronized T intern(String name) {
+		Objects.requireNonNull(name, "Name is required");
+
+		WeakReference<T> reference = this.pool.get(name);
+		T instance = reference == null ? null : reference.get();
+
+		if (instance == null) {
+			instance = this.factory.apply(name);
+			this.pool.put(name, new WeakReference<>(instance));
+		}
+
+		return instance;
+	}
+}
@@ -60,4 +60,11 @@ public class Locomotive extends RailVehicle {
 				serialNumber, typeOfDrive);
 	}
 
+	/**
+	 * @return the weight in kilogram that this locomotive can pull
+	 */
+	public double getTractiveForceInKilogram() {
+		return this.tractiveForce.getValue();
+	}
+
 }
@@ -6,11 +6,27 @@ import lombok.Data;
 /**
  * Represents a company producing rail vehicles.
  * 
+ * Instances are immutable. {@link #of(String)} returns shared instances.
+ * 
  * @author gotthardwitsch
  *
  */
 @Data
 @AllArgsConstructor
 public class Manufacturer {
-	private String name;
+	private static final Interner<Manufacturer> INTERNER = new Interner<>(Manufacturer::new);
+
+	private final String name;
+
+	/**
+	 * Returns the canonical instance for the given name. Prefer this method over
+	 * the constructor when creating many vehicles, so that equal instances are
+	 * shared.
+	 * 
+	 * @param name the name
+	 * @return the shared instance
+	 */
+	public static Manufacturer of(String name) {
+		return INTERNER.intern(name);
+	}
 }
@@ -0,0 +1,215 @@
+package at.gwt.trainsim.beans;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A persistent AVL tree, which orders values by the ordinal they were inserted
+ * with. Inserting and removing return a new tree in O(log n) and share all
+ * unchanged nodes with the old tree, which stays unchanged.
+ *
+ * @author gotthardwitsch
+ *
+ */
+final class OrdinalTree<V> {
+	private static final OrdinalTree<?> EMPTY = new OrdinalTree<>(null);
+
+	private final Node<V> root;
+
+	private OrdinalTree(Node<V> root) {
+		this.root = root;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <V> OrdinalTree<V> empty() {
+		return (OrdinalTree<V>) EMPTY;
+	}
+
+	int size() {
+		return size(this.root);
+	}
+
+	/**
+	 * @param ordinal an ordinal, which is not part of this tree yet
+	 * @param value   the value
+	 * @return a tree which also contains the value
+	 */
+	OrdinalTree<V> insert(long ordinal, V value) {
+		return new OrdinalTree<>(insert(this.root, ordinal, value));
+	}
+
+	/**
+	 * @param ordinal the ordinal of the value to remove
+	 * @return a tree without the value
+	 */
+	OrdinalTree<V> remove(long ordinal) {
+		Node<V> root = remove(this.root, ordinal);
+		return root == this.root ? this : new OrdinalTree<>(root);
+	}
+
+	/**
+	 * @return the values in the order of their ordinals. The collection cannot be
+	 *         changed. It is a set, as a value is never inserted twice, but
+	 *         {@link Collection#contains(Object)} has to look at every value.
+	 */
+	Collection<V> values() {
+		return new Values<>(this.root);
+	}
+
+	private static final class Node<V> {
+		private final long ordinal;
+		private final V value;
+		private final Node<V> left;
+		private final Node<V> right;
+		private final int height;
+		private final int size;
+
+		private Node(long ordinal, V value, Node<V> left, Node<V> right) {
+			this.ordinal = ordinal;
+			this.value = value;
+			this.left = left;
+			this.right = right;
+			this.height = Math.max(height(left), height(right)) + 1;
+			this.size = size(left) + size(right) + 1;
+		}
+
+		private Node<V> with(Node<V> left, Node<V> right) {
+			return left == this.left && right == this.right ? this : new Node<>(this.ordinal, this.value, left, right);
+		}
+	}
+
+	private static int height(Node<?> node) {
+		return node == null ? 0 : node.height;
+	}
+
+	private static int size(Node<?> node) {
+		return node == null ? 0 : node.size;
+	}
+
+	private static <V> Node<V> insert(Node<V> node, long ordinal, V value) {
+		if (node == null) {
+			return new Node<>(ordinal, value, null, null);
+		}
+		if (ordinal < node.ordinal) {
+			return balance(node.with(insert(node.left, ordinal, value), node.right));
+		}
+		if (ordinal > node.ordinal) {
+			return balance(node.with(node.left, insert(node.right, ordinal, value)));
+		}
+
+		throw new IllegalArgumentException("Ordinal " + ordinal + " is already used");
+	}
+
+	private static <V> Node<V> remove(Node<V> node, long ordinal) {
+		if (node == null) {
+			return null;
+		}
+		if (ordinal < node.ordinal) {
+			return balance(node.with(remove(node.left, ordinal), node.right));
+		}
+		if (ordinal > node.ordinal) {
+			return balance(node.with(node.left, remove(node.right, ordinal)));
+		}
+
+		if (node.left == null) {
+			return node.right;
+		}
+		if (node.right == null) {
+			return node.left;
+		}
+
+		Node<V> successor = node.right;
+		while (successor.left != null) {
+			successor = successor.left;
+		}
+		return balance(new Node<>(successor.ordinal, successor.value, node.left, removeFirst(node.right)));
+	}
+
+	private static <V> Node<V> removeFirst(Node<V> node) {
+		if (node.left == null) {
+			return node.right;
+		}
+
+		return balance(node.with(removeFirst(node.left), node.right));
+	}
+
+	private static <V> Node<V> balance(Node<V> node) {
+		int difference = height(node.left) - height(node.right);
+		if (difference > 1) {
+			Node<V> left = node.left;
+			if (height(left.left) < height(left.right)) {
+				left = rotateLeft(left);
+			}
+			return rotateRight(node.with(left, node.right));
+		}
+		if (difference < -1) {
+			Node<V> right = node.right;
+			if (height(right.right) < height(right.left)) {
+				right = rotateRight(right);
+			}
+			return rotateLeft(node.with(node.left, right));
+		}
+
+		return node;
+	}
+
+	private static <V> Node<V> rotateLeft(Node<V> node) {
+		Node<V> right = node.right;
+		return right.with(node.with(node.left, right.left), right.right);
+	}
+
+	private static <V> Node<V> rotateRight(Node<V> node) {
+		Node<V> left = node.left;
+		return left.with(left.left, node.with(left.right, node.right));
+	}
+
+	private static final class Values<V> extends AbstractSet<V> {
+		private final Node<V> root;
+
+		private Values(Node<V> root) {
+			this.root = root;
+		}
+
+		@Override
+		public int size() {
+			return OrdinalTree.size(this.root);
+		}
+
+		@Override
+		public Iterator<V> iterator() {
+			return new Iterator<V>() {
+				private final Deque<Node<V>> path = new ArrayDeque<>();
+
+				{
+					this.descend(Values.this.root);
+				}
+
+				@Override
+				public boolean hasNext() {
+					return !this.path.isEmpty();
+				}
+
+				@Override
+				public V next() {
+					if (this.path.isEmpty()) {
+						throw new NoSuchElementException();
+					}
+
+					Node<V> node = this.path.pop();
+					this.descend(node.right);
+					return node.value;
+				}
+
+				private void descend(Node<V> node) {
+					for (; node != null; node = node.left) {
+						this.path.push(node);
+					}
+				}
+			};
+		}
+	}
+}
@@ -39,4 +39,25 @@ public abstract class RailVehicle {
 		this.serialNumber = serialNumber;
 	}
 
+	/**
+	 * @return the empty weight in kilogram
+	 */
+	public double getEmptyWeightInKilogram() {
+		return this.emptyWeight.getValue();
+	}
+
+	/**
+	 * @return the length in meters
+	 */
+	public long getLengthInMeters() {
+		return this.length.getValue();
+	}
+
+	/**
+	 * @return the additional weight in kilogram that can be transported
+	 */
+	public double getMaxAdditionalLoadInKilogram() {
+		return this.maxAdditionalLoad.getValue();
+	}
+
 }
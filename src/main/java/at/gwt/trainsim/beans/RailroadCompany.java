@@ -6,11 +6,27 @@ import lombok.Data;
 /**
  * Represents a company acting in the railroad business.
  * 
+ * Instances are immutable. {@link #of(String)} returns shared instances.
+ * 
  * @author gotthardwitsch
  *
  */
 @Data
 @AllArgsConstructor
 public class RailroadCompany {
-	private String name;
+	private static final Interner<RailroadCompany> INTERNER = new Interner<>(RailroadCompany::new);
+
+	private final String name;
+
+	/**
+	 * Returns the canonical instance for the given name. Prefer this method over
+	 * the constructor when creating many trains, so that equal instances are
+	 * shared.
+	 * 
+	 * @param name the name
+	 * @return the shared instance
+	 */
+	public static RailroadCompany of(String name) {
+		return INTERNER.intern(name);
+	}
 }
@@ -1,42 +1,174 @@
 package at.gwt.trainsim.beans;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import at.gwt.trainsim.beans.TrainSnapshot.Member;
 import at.gwt.trainsim.exception.AlreadyInUseException;
+import at.gwt.trainsim.metrics.TrainMetrics;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 /**
  * Represents a train that at least has a {@link Locomotive} and belongs to a
  * {@link RailroadCompany}.
  * 
  * Instances can be created by calling
- * {@link Train.Service#newTrain(RailroadCompany, Locomotive)}.
+ * {@link Train.Service#newTrain(RailroadCompany, Locomotive)}. Each train gets
+ * a unique id, which is the only property used for equality, so that trains can
+ * safely be kept in hash based collections while their vehicles change.
+ * 
+ * Trains can be built concurrently. Changes to a train are synchronized on the
+ * train itself, claiming a vehicle for a train is atomic across all trains.
+ * 
+ * Weight, drivability and guards are calculated for the maximum load and for
+ * the passengers and freight currently booked. Both are kept as running
+ * totals, so changing the load of a vehicle does not look at the other
+ * vehicles.
+ * 
+ * Every change publishes a new {@link TrainSnapshot}. The vehicles, the totals
+ * and all calculations are read from the latest snapshot without locking, so
+ * readers never see a train in the middle of a change.
  * 
  * @author gotthardwitsch
  *
  */
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Train {
-	private static final Weight WEIGHT_PER_PASSENGER = new Weight(75);
+	public static final double WEIGHT_PER_PASSENGER_IN_KILOGRAM = 75d;
 
+	@EqualsAndHashCode.Include
+	private final long id;
 	private final Set<Locomotive> locomotives;
 	private final Set<Wagon> wagons;
+	@Getter(AccessLevel.NONE)
+	private final Totals totals;
+
+	/**
+	 * The ordinal of the next vehicle added. Ordinals keep the order in which the
+	 * vehicles have been added and are used as keys of the trees in the
+	 * snapshots.
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private long nextOrdinal;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	@ToString.Exclude
+	private volatile TrainSnapshot snapshot;
+	@Getter(AccessLevel.NONE)
 	private RailroadCompany company;
 	private Service service;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private boolean decommissioned;
+
+	/**
+	 * Running totals over the vehicles of a train. They are updated whenever a
+	 * vehicle is added or removed, so the calculations do not need to iterate over
+	 * the vehicles.
+	 */
+	@ToString
+	@EqualsAndHashCode
+	private static class Totals {
+		private double emptyWeight;
+		private long maxPassengers;
+		private double maxAdditionalFreight;
+		private long length;
+		private double tractiveForce;
+		private long passengers;
+		private long wagonPassengers;
+		private double freight;
+
+		private void add(Locomotive locomotive) {
+			this.addVehicle(locomotive);
+			this.tractiveForce += locomotive.getTractiveForceInKilogram();
+		}
+
+		private void add(Wagon wagon) {
+			this.addVehicle(wagon);
+			this.maxAdditionalFreight += wagon.getMaxAdditionalLoadInKilogram();
+		}
+
+		private void subtract(Locomotive locomotive) {
+			this.subtractVehicle(locomotive);
+			this.tractiveForce = Math.max(0d, this.tractiveForce - locomotive.getTractiveForceInKilogram());
+		}
+
+		private void subtract(Wagon wagon) {
+			this.subtractVehicle(wagon);
+			this.maxAdditionalFreight = Math.max(0d,
+					this.maxAdditionalFreight - wagon.getMaxAdditionalLoadInKilogram());
+		}
+
+		private void addVehicle(RailVehicle vehicle) {
+			this.emptyWeight += vehicle.getEmptyWeightInKilogram();
+			this.maxPassengers += vehicle.getMaxPassengers();
+			this.length += vehicle.getLengthInMeters();
+		}
 
-	static class Service {
+		private void subtractVehicle(RailVehicle vehicle) {
+			// clamp to avoid negative weights caused by floating point rounding
+			this.emptyWeight = Math.max(0d, this.emptyWeight - vehicle.getEmptyWeightInKilogram());
+			this.maxPassengers -= vehicle.getMaxPassengers();
+			this.length -= vehicle.getLengthInMeters();
+		}
+
+		private void clear() {
+			this.emptyWeight = 0d;
+			this.maxPassengers = 0L;
+			this.maxAdditionalFreight = 0d;
+			this.length = 0L;
+			this.tractiveForce = 0d;
+			this.passengers = 0L;
+			this.wagonPassengers = 0L;
+			this.freight = 0d;
+		}
+	}
+
+	public static class Service {
 		private static final Service instance = new Service();
 
-		private Collection<Train> allTrains;
+		/**
+		 * Maps each train's id to the train.
+		 */
+		private Map<Long, Train> allTrains;
+
+		/**
+		 * Maps each vehicle's serial number to the train it is part of. A vehicle is
+		 * claimed for a train by an atomic insert into this map.
+		 */
+		private Map<SerialNumber, Train> owners;
+
+		private AtomicLong nextId;
+
+		/**
+		 * Replaced as a whole when listeners change, so notifying does not allocate.
+		 */
+		private volatile ConsistListener[] listeners;
 
 		private Service() {
 			// singleton
-			this.allTrains = new HashSet<>();
+			this.allTrains = new ConcurrentHashMap<>();
+			this.owners = new ConcurrentHashMap<>();
+			this.nextId = new AtomicLong(1L);
+			this.listeners = new ConsistListener[0];
 		}
 
 		/**
@@ -48,104 +180,493 @@ public class Train {
 		 * @return a new train
 		 */
 		public static Train newTrain(RailroadCompany company, Locomotive locomotive) {
-			instance.validate(locomotive);
+			long start = TrainMetrics.NEW_TRAIN.start();
+			try {
+				Train train = new Train(instance.nextId.getAndIncrement(), company, locomotive, instance);
+
+				synchronized (train) {
+					instance.allTrains.put(train.getId(), train);
+					instance.fireTrainCreated(train);
+				}
+
+				return train;
+			} finally {
+				TrainMetrics.NEW_TRAIN.stop(start);
+			}
+		}
+
+		/**
+		 * Restores a train with a known id, for example from a snapshot. All
+		 * locomotives and wagons are added or none of them, if any is already in use.
+		 * Trains created afterwards get ids higher than the restored one.
+		 * 
+		 * @param id          the id of the train
+		 * @param company     the company managing the train
+		 * @param locomotives the locomotives of the train, at least one is required
+		 * @param wagons      the wagons of the train
+		 * @return the restored train
+		 */
+		public static Train restoreTrain(long id, RailroadCompany company,
+				Collection<? extends Locomotive> locomotives, Collection<? extends Wagon> wagons) {
+			if (locomotives.isEmpty()) {
+				throw new IllegalArgumentException("Locomotive is required for a train");
+			}
+			if (instance.allTrains.containsKey(id)) {
+				throw new IllegalStateException("Train " + id + " already exists");
+			}
 
-			Train train = new Train(company, locomotive, instance);
-			instance.allTrains.add(train);
+			List<Locomotive> additionalLocomotives = new ArrayList<>(locomotives);
+			Train train = new Train(id, company, additionalLocomotives.remove(0), instance);
+
+			synchronized (train) {
+				try {
+					train.attachLocomotives(additionalLocomotives);
+					train.attachWagons(wagons);
+				} catch (RuntimeException e) {
+					train.dissolve();
+					throw e;
+				}
+
+				if (instance.allTrains.putIfAbsent(id, train) != null) {
+					train.dissolve();
+					throw new IllegalStateException("Train " + id + " already exists");
+				}
+
+				instance.nextId.accumulateAndGet(id + 1, Math::max);
+				instance.fireTrainCreated(train);
+			}
 
 			return train;
 		}
 
 		/**
-		 * @param locomotive the locomotive to check
-		 * @return true if the given locomotive is already used in a train
+		 * @param id the id of the train
+		 * @return the train with the given id, if it has not been decommissioned
+		 */
+		public static Optional<Train> getTrain(long id) {
+			return Optional.ofNullable(instance.allTrains.get(id));
+		}
+
+		/**
+		 * @return all trains that have not been decommissioned
+		 */
+		public static Collection<Train> getTrains() {
+			return Collections.unmodifiableCollection(instance.allTrains.values());
+		}
+
+		/**
+		 * Decommissions a train. All of its locomotives and wagons are released and
+		 * can be added to other trains afterwards. A decommissioned train cannot be
+		 * changed anymore.
+		 * 
+		 * @param train the train to decommission
+		 * @return true if the train has been decommissioned, false if it already was
+		 */
+		public static boolean decommission(Train train) {
+			if (!instance.allTrains.remove(train.getId(), train)) {
+				return false;
+			}
+
+			synchronized (train) {
+				instance.fireTrainDecommissioned(train);
+				train.dissolve();
+			}
+
+			return true;
+		}
+
+		/**
+		 * Registers a listener, which is notified about all changes of trains from now
+		 * on.
+		 * 
+		 * @param listener the listener to add
 		 */
-		private boolean isUsed(Locomotive locomotive) {
-			return this.allTrains.stream().map(Train::getLocomotives).flatMap(Collection::stream)
-					.anyMatch(locomotive::equals);
+		public static synchronized void addListener(ConsistListener listener) {
+			Objects.requireNonNull(listener, "Listener is required");
+
+			ConsistListener[] listeners = Arrays.copyOf(instance.listeners, instance.listeners.length + 1);
+			listeners[listeners.length - 1] = listener;
+			instance.listeners = listeners;
 		}
 
 		/**
-		 * @param <T>   specific wagon
-		 * @param wagon the wagon to check
-		 * @return true if the given wagon is already used in a train
+		 * @param listener the listener to remove
 		 */
-		private <T extends Wagon> boolean isUsed(T wagon) {
-			return this.allTrains.stream().map(Train::getWagons).flatMap(Collection::stream).anyMatch(wagon::equals);
+		public static synchronized void removeListener(ConsistListener listener) {
+			instance.listeners = Arrays.stream(instance.listeners).filter(registered -> registered != listener)
+					.toArray(ConsistListener[]::new);
+		}
+
+		/**
+		 * @param vehicle the vehicle to look up
+		 * @return the train the given vehicle is part of, if any
+		 */
+		public static Optional<Train> findTrain(RailVehicle vehicle) {
+			return Optional.ofNullable(instance.owners.get(keyOf(vehicle)));
+		}
+
+		/**
+		 * Atomically marks the given vehicle as part of the given train.
+		 * 
+		 * @param vehicle the vehicle to claim
+		 * @param train   the train the vehicle is added to
+		 * @return true if the vehicle has been claimed, false if it is already used in
+		 *         a train
+		 */
+		private boolean tryClaim(RailVehicle vehicle, Train train) {
+			return this.owners.putIfAbsent(keyOf(vehicle), train) == null;
+		}
+
+		private void release(RailVehicle vehicle, Train train) {
+			this.owners.remove(keyOf(vehicle), train);
+		}
+
+		private void fireTrainCreated(Train train) {
+			for (ConsistListener listener : this.listeners) {
+				listener.trainCreated(train);
+			}
+		}
+
+		private void fireLocomotiveAdded(Train train, Locomotive locomotive) {
+			for (ConsistListener listener : this.listeners) {
+				listener.locomotiveAdded(train, locomotive);
+			}
+		}
+
+		private void fireLocomotiveRemoved(Train train, Locomotive locomotive) {
+			for (ConsistListener listener : this.listeners) {
+				listener.locomotiveRemoved(train, locomotive);
+			}
+		}
+
+		private void fireWagonAdded(Train train, Wagon wagon) {
+			for (ConsistListener listener : this.listeners) {
+				listener.wagonAdded(train, wagon);
+			}
+		}
+
+		private void fireWagonRemoved(Train train, Wagon wagon) {
+			for (ConsistListener listener : this.listeners) {
+				listener.wagonRemoved(train, wagon);
+			}
+		}
+
+		private void fireLoadChanged(Train train, RailVehicle vehicle) {
+			for (ConsistListener listener : this.listeners) {
+				listener.loadChanged(train, vehicle);
+			}
 		}
 
-		private void validate(Locomotive locomotive) {
-			if (this.isUsed(locomotive)) {
+		private void fireCompanyChanged(Train train) {
+			for (ConsistListener listener : this.listeners) {
+				listener.companyChanged(train);
+			}
+		}
+
+		private void fireTrainDecommissioned(Train train) {
+			for (ConsistListener listener : this.listeners) {
+				listener.trainDecommissioned(train);
+			}
+		}
+
+		private static SerialNumber keyOf(RailVehicle vehicle) {
+			return Objects.requireNonNull(vehicle.getSerialNumber(), "Serial number is required for a vehicle");
+		}
+
+		private void claim(Locomotive locomotive, Train train) {
+			long start = TrainMetrics.CLAIM.start();
+			boolean claimed = this.tryClaim(locomotive, train);
+			TrainMetrics.CLAIM.stop(start);
+
+			if (!claimed) {
 				throw new AlreadyInUseException("Locomotive cannot be added to train. It is already in use.");
 			}
 		}
 
-		private <T extends Wagon> void validate(T wagon) {
-			if (this.isUsed(wagon)) {
+		private <T extends Wagon> void claim(T wagon, Train train) {
+			long start = TrainMetrics.CLAIM.start();
+			boolean claimed = this.tryClaim(wagon, train);
+			TrainMetrics.CLAIM.stop(start);
+
+			if (!claimed) {
 				throw new AlreadyInUseException("Wagon cannot be added to train. It is already in use.");
 			}
 		}
+
+		/**
+		 * Claims all given vehicles for the given train or none of them.
+		 * 
+		 * @param vehicles the vehicles to claim
+		 * @param train    the train the vehicles are added to
+		 * @param kind     the kind of vehicles used in error messages
+		 */
+		private void claimAll(Collection<? extends RailVehicle> vehicles, Train train, String kind) {
+			long start = TrainMetrics.CLAIM.start();
+			Set<SerialNumber> serialNumbers = new HashSet<>();
+			List<RailVehicle> claimed = new ArrayList<>(vehicles.size());
+
+			try {
+				for (RailVehicle vehicle : vehicles) {
+					Objects.requireNonNull(vehicle, kind + " is required");
+					String error = null;
+
+					if (!serialNumbers.add(keyOf(vehicle))) {
+						error = " is contained more than once.";
+					} else if (!this.tryClaim(vehicle, train)) {
+						error = " is already in use.";
+					}
+
+					if (error != null) {
+						throw new AlreadyInUseException(kind + "s cannot be added to train. " + kind + " "
+								+ vehicle.getSerialNumber().getNumber() + error);
+					}
+
+					claimed.add(vehicle);
+				}
+			} catch (RuntimeException e) {
+				// release on any failure, so no vehicle stays claimed by a train without it
+				claimed.forEach(claimedVehicle -> this.release(claimedVehicle, train));
+				throw e;
+			} finally {
+				TrainMetrics.CLAIM.stop(start);
+			}
+		}
 	}
 
-	private Train(RailroadCompany company, Locomotive locomotive, Service service) {
+	private Train(long id, RailroadCompany company, Locomotive locomotive, Service service) {
+		this.id = id;
 		this.company = Objects.requireNonNull(company, "Railroad company is required for a train");
 		this.locomotives = new LinkedHashSet<>();
 		this.wagons = new LinkedHashSet<>();
+		this.totals = new Totals();
 		this.service = service;
+		this.snapshot = new TrainSnapshot(id, this.company, 0L, false, OrdinalTree.empty(), OrdinalTree.empty(),
+				HashTrie.empty(), 0d, 0L, 0d, 0L, 0d, 0L, 0L, 0d);
+
+		this.attach(Objects.requireNonNull(locomotive, "Locomotive is required for a train"));
+	}
+
+	public synchronized boolean addLocomotive(Locomotive locomotive) {
+		long start = TrainMetrics.ADD_LOCOMOTIVE.start();
+		try {
+			this.requireNotDecommissioned();
+
+			boolean added = this.attach(locomotive);
+			if (added) {
+				this.service.fireLocomotiveAdded(this, locomotive);
+			}
 
-		this.addLocomotive(Objects.requireNonNull(locomotive, "Locomotive is required for a train"));
+			return added;
+		} finally {
+			TrainMetrics.ADD_LOCOMOTIVE.stop(start);
+		}
 	}
 
-	public boolean addLocomotive(Locomotive locomotive) {
-		this.service.validate(locomotive);
-		return this.locomotives.add(locomotive);
+	public synchronized boolean addWagon(Wagon wagon) {
+		long start = TrainMetrics.ADD_WAGON.start();
+		try {
+			this.requireNotDecommissioned();
+
+			boolean added = this.attach(wagon);
+			if (added) {
+				this.service.fireWagonAdded(this, wagon);
+			}
+
+			return added;
+		} finally {
+			TrainMetrics.ADD_WAGON.stop(start);
+		}
+	}
+
+	/**
+	 * Adds all given locomotives or none of them, if any of the locomotives is
+	 * already in use.
+	 * 
+	 * @param locomotives the locomotives to add
+	 * @return true if this train has changed
+	 */
+	public synchronized boolean addLocomotives(Collection<? extends Locomotive> locomotives) {
+		long start = TrainMetrics.ADD_LOCOMOTIVE.start();
+		try {
+			this.requireNotDecommissioned();
+			this.attachLocomotives(locomotives);
+
+			for (Locomotive locomotive : locomotives) {
+				this.service.fireLocomotiveAdded(this, locomotive);
+			}
+
+			return !locomotives.isEmpty();
+		} finally {
+			TrainMetrics.ADD_LOCOMOTIVE.stop(start);
+		}
 	}
 
-	public boolean addWagon(Wagon wagon) {
-		this.service.validate(wagon);
-		return this.wagons.add(wagon);
+	/**
+	 * Adds all given wagons or none of them, if any of the wagons is already in
+	 * use.
+	 * 
+	 * @param wagons the wagons to add
+	 * @return true if this train has changed
+	 */
+	public synchronized boolean addWagons(Collection<? extends Wagon> wagons) {
+		long start = TrainMetrics.ADD_WAGON.start();
+		try {
+			this.requireNotDecommissioned();
+			this.attachWagons(wagons);
+
+			for (Wagon wagon : wagons) {
+				this.service.fireWagonAdded(this, wagon);
+			}
+
+			return !wagons.isEmpty();
+		} finally {
+			TrainMetrics.ADD_WAGON.stop(start);
+		}
 	}
 
+	/**
+	 * @return the locomotives of the latest snapshot in the order they were added.
+	 *         The collection does not change while this train is changed.
+	 */
 	public Collection<Locomotive> getLocomotives() {
-		return Collections.unmodifiableSet(this.locomotives);
+		return this.snapshot.getLocomotives();
 	}
 
+	/**
+	 * @return the wagons of the latest snapshot in the order they were added. The
+	 *         collection does not change while this train is changed.
+	 */
 	public Collection<Wagon> getWagons() {
-		return Collections.unmodifiableSet(this.wagons);
+		return this.snapshot.getWagons();
 	}
 
-	public boolean removeLocomotive(Locomotive locomotive) {
+	/**
+	 * @return the state of this train after its latest change
+	 */
+	public TrainSnapshot getSnapshot() {
+		return this.snapshot;
+	}
+
+	/**
+	 * @return the company of the latest snapshot, read without locking
+	 */
+	public RailroadCompany getCompany() {
+		return this.snapshot.getCompany();
+	}
+
+	/**
+	 * @return whether the latest snapshot is decommissioned, read without locking
+	 */
+	public boolean isDecommissioned() {
+		return this.snapshot.isDecommissioned();
+	}
+
+	public synchronized void setCompany(RailroadCompany company) {
+		this.company = Objects.requireNonNull(company, "Railroad company is required for a train");
+		this.publish(this.snapshot.getLocomotiveTree(), this.snapshot.getWagonTree(), this.snapshot.getMembers());
+		this.service.fireCompanyChanged(this);
+	}
+
+	public synchronized boolean removeLocomotive(Locomotive locomotive) {
 		if (this.locomotives.size() == 1) {
 			throw new IllegalStateException("Cannot remove last locomotive from train");
 		}
 
-		return this.locomotives.remove(locomotive);
+		boolean removed = this.locomotives.remove(locomotive);
+		if (removed) {
+			this.detach(locomotive);
+		}
+
+		return removed;
+	}
+
+	public synchronized boolean removeWagon(Wagon wagon) {
+		boolean removed = this.wagons.remove(wagon);
+		if (removed) {
+			this.detach(wagon);
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Removes all given locomotives. None of them is removed, if this would remove
+	 * the last locomotive.
+	 * 
+	 * @param locomotives the locomotives to remove
+	 * @return true if this train has changed
+	 */
+	public synchronized boolean removeLocomotives(Collection<? extends Locomotive> locomotives) {
+		Set<Locomotive> removable = new HashSet<>(locomotives);
+		removable.retainAll(this.locomotives);
+
+		if (removable.size() == this.locomotives.size()) {
+			throw new IllegalStateException("Cannot remove last locomotive from train");
+		}
+
+		for (Locomotive locomotive : removable) {
+			this.locomotives.remove(locomotive);
+			this.detach(locomotive);
+		}
+
+		return !removable.isEmpty();
 	}
 
-	public boolean removeWagon(Wagon wagon) {
-		return this.wagons.remove(wagon);
+	/**
+	 * Removes all given wagons that are part of this train.
+	 * 
+	 * @param wagons the wagons to remove
+	 * @return true if this train has changed
+	 */
+	public synchronized boolean removeWagons(Collection<? extends Wagon> wagons) {
+		boolean removed = false;
+
+		for (Wagon wagon : wagons) {
+			if (this.wagons.remove(wagon)) {
+				this.detach(wagon);
+				removed = true;
+			}
+		}
+
+		return removed;
 	}
 
 	/**
 	 * @return empty weight of this train
 	 */
 	public Weight getEmpyWeight() {
-		return new Weight(this.sumEmptyWeight(this.locomotives) + this.sumEmptyWeight(this.wagons));
+		return new Weight(this.getEmptyWeightInKilogram());
+	}
+
+	/**
+	 * @return empty weight of this train in kilogram
+	 */
+	public double getEmptyWeightInKilogram() {
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getEmptyWeightInKilogram();
 	}
 
 	/**
 	 * @return the maximum number of passengers that can be transported
 	 */
 	public long getMaxPassengers() {
-		return this.sumMaxPassengers(this.locomotives) + this.sumMaxPassengers(this.wagons);
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getMaxPassengers();
 	}
 
 	/**
 	 * @return the maximum additional freight that can be transported
 	 */
 	public Weight getMaxAdditionalFreight() {
-		return new Weight(this.wagons.stream().map(RailVehicle::getMaxAdditionalLoad).map(Weight::getValue)
-				.mapToDouble(Double::valueOf).sum());
+		return new Weight(this.getMaxAdditionalFreightInKilogram());
+	}
+
+	/**
+	 * @return the maximum additional freight in kilogram that can be transported
+	 */
+	public double getMaxAdditionalFreightInKilogram() {
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getMaxAdditionalFreightInKilogram();
 	}
 
 	/**
@@ -153,63 +674,359 @@ public class Train {
 	 *         transported
 	 */
 	public Weight getMaxAdditionalLoad() {
-		return new Weight(
-				this.getMaxPassengers() * WEIGHT_PER_PASSENGER.getValue() + this.getMaxAdditionalFreight().getValue());
+		return new Weight(this.getMaxAdditionalLoadInKilogram());
+	}
+
+	/**
+	 * @return the maximum additional load in kilogram for passengers and freight
+	 *         that can be transported
+	 */
+	public double getMaxAdditionalLoadInKilogram() {
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getMaxAdditionalLoadInKilogram();
 	}
 
 	/**
 	 * @return the total weight of this train
 	 */
 	public Weight getWeight() {
-		return new Weight(this.getEmpyWeight().getValue() + this.getMaxAdditionalLoad().getValue());
+		return new Weight(this.getWeightInKilogram());
+	}
+
+	/**
+	 * @return the total weight of this train in kilogram
+	 */
+	public double getWeightInKilogram() {
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getWeightInKilogram();
 	}
 
 	/**
 	 * @return the total length of this train
 	 */
 	public Length getLength() {
-		return new Length(this.sumLength(this.locomotives) + this.sumLength(this.wagons));
+		return new Length(this.getLengthInMeters());
+	}
+
+	/**
+	 * @return the total length of this train in meters
+	 */
+	public long getLengthInMeters() {
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getLengthInMeters();
 	}
 
 	/**
 	 * @return the total tractive force for this train
 	 */
 	public Weight getTractiveForce() {
-		return new Weight(this.locomotives.stream().map(Locomotive::getTractiveForce).map(Weight::getValue)
-				.mapToDouble(Double::valueOf).sum());
+		return new Weight(this.getTractiveForceInKilogram());
+	}
+
+	/**
+	 * @return the total tractive force for this train in kilogram
+	 */
+	public double getTractiveForceInKilogram() {
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getTractiveForceInKilogram();
 	}
 
 	/**
 	 * @return true if the locomotives are able to pull the maximum additional load
 	 */
 	public boolean isDrivable() {
-		return this.getTractiveForce().getValue() > this.getMaxAdditionalLoad().getValue();
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.isDrivable();
 	}
 
 	/**
 	 * @return true if there are more than 0 passengers allowed
 	 */
 	public boolean requiresGuard() {
-		return this.getMaxPassengers() > 0;
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.requiresGuard();
 	}
 
 	/**
 	 * @return the number of required guards. 1 guard is required per 50 passengers.
 	 */
 	public int getRequiredGuards() {
-		return Double.valueOf(Math.ceil(this.getMaxPassengers() / 50d)).intValue();
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getRequiredGuards();
+	}
+
+	/**
+	 * Changes the number of passengers in a vehicle, for example when seats are
+	 * booked or cancelled.
+	 * 
+	 * @param vehicle    a vehicle of this train
+	 * @param passengers the number of passengers boarding, negative if they leave
+	 * @return the number of passengers in the vehicle afterwards
+	 */
+	public synchronized long addPassengers(RailVehicle vehicle, long passengers) {
+		Member member = this.snapshot.member(vehicle);
+		this.changeLoad(vehicle, member, member.getPassengers() + passengers, member.getFreight());
+
+		return member.getPassengers() + passengers;
 	}
 
-	private double sumEmptyWeight(Collection<? extends RailVehicle> vehicles) {
-		return vehicles.stream().map(RailVehicle::getEmptyWeight).map(Weight::getValue).mapToDouble(Double::valueOf)
-				.sum();
+	/**
+	 * Changes the freight loaded into a wagon.
+	 * 
+	 * @param wagon             a wagon of this train
+	 * @param freightInKilogram the freight loaded, negative if it is unloaded
+	 * @return the freight in the wagon afterwards in kilogram
+	 */
+	public synchronized double addFreight(Wagon wagon, double freightInKilogram) {
+		Member member = this.snapshot.member(wagon);
+		this.changeLoad(wagon, member, member.getPassengers(), member.getFreight() + freightInKilogram);
+
+		return member.getFreight() + freightInKilogram;
+	}
+
+	/**
+	 * @param vehicle           a vehicle of this train
+	 * @param passengers        the number of passengers in the vehicle
+	 * @param freightInKilogram the freight in the vehicle, only wagons carry
+	 *                          freight
+	 */
+	public synchronized void setLoad(RailVehicle vehicle, long passengers, double freightInKilogram) {
+		this.changeLoad(vehicle, this.snapshot.member(vehicle), passengers, freightInKilogram);
 	}
 
-	private long sumMaxPassengers(Collection<? extends RailVehicle> vehicles) {
-		return vehicles.stream().map(RailVehicle::getMaxPassengers).mapToLong(Long::valueOf).sum();
+	/**
+	 * @param vehicle a vehicle of this train
+	 * @return the number of passengers currently in the vehicle
+	 */
+	public long getPassengers(RailVehicle vehicle) {
+		return this.snapshot.getPassengers(vehicle);
 	}
 
-	private long sumLength(Collection<? extends RailVehicle> vehicles) {
-		return vehicles.stream().map(RailVehicle::getLength).map(Length::getValue).mapToLong(Long::valueOf).sum();
+	/**
+	 * @param vehicle a vehicle of this train
+	 * @return the freight currently in the vehicle in kilogram
+	 */
+	public double getFreightInKilogram(RailVehicle vehicle) {
+		return this.snapshot.getFreightInKilogram(vehicle);
+	}
+
+	/**
+	 * @return the number of passengers currently on this train
+	 */
+	public long getPassengers() {
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getPassengers();
+	}
+
+	/**
+	 * @return the freight currently on this train in kilogram
+	 */
+	public double getFreightInKilogram() {
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getFreightInKilogram();
+	}
+
+	/**
+	 * @return the weight of the passengers and freight currently on this train
+	 */
+	public Weight getLoad() {
+		return new Weight(this.getLoadInKilogram());
+	}
+
+	/**
+	 * @return the weight of the passengers and freight currently on this train in
+	 *         kilogram
+	 */
+	public double getLoadInKilogram() {
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getLoadInKilogram();
+	}
+
+	/**
+	 * @return the weight of this train with its current load
+	 */
+	public Weight getCurrentWeight() {
+		return new Weight(this.getCurrentWeightInKilogram());
+	}
+
+	/**
+	 * @return the weight of this train with its current load in kilogram
+	 */
+	public double getCurrentWeightInKilogram() {
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getCurrentWeightInKilogram();
+	}
+
+	/**
+	 * @return true if the locomotives are able to pull the current load
+	 */
+	public boolean isDrivableWithCurrentLoad() {
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.isDrivableWithCurrentLoad();
+	}
+
+	/**
+	 * @return the number of guards required for the current passengers. 1 guard
+	 *         is required per 50 passengers.
+	 */
+	public int getCurrentRequiredGuards() {
+		TrainMetrics.AGGREGATE_READS.increment();
+		return this.snapshot.getCurrentRequiredGuards();
+	}
+
+	private boolean attach(Locomotive locomotive) {
+		this.service.claim(locomotive, this);
+
+		boolean added = this.locomotives.add(locomotive);
+		if (added) {
+			this.totals.add(locomotive);
+			long ordinal = this.nextOrdinal++;
+			this.publish(this.snapshot.getLocomotiveTree().insert(ordinal, locomotive), this.snapshot.getWagonTree(),
+					this.snapshot.getMembers().put(locomotive, new Member(ordinal, 0L, 0d)));
+		}
+
+		return added;
+	}
+
+	private boolean attach(Wagon wagon) {
+		this.service.claim(wagon, this);
+
+		boolean added = this.wagons.add(wagon);
+		if (added) {
+			this.totals.add(wagon);
+			long ordinal = this.nextOrdinal++;
+			this.publish(this.snapshot.getLocomotiveTree(), this.snapshot.getWagonTree().insert(ordinal, wagon),
+					this.snapshot.getMembers().put(wagon, new Member(ordinal, 0L, 0d)));
+		}
+
+		return added;
+	}
+
+	private void attachLocomotives(Collection<? extends Locomotive> locomotives) {
+		this.service.claimAll(locomotives, this, "Locomotive");
+
+		OrdinalTree<Locomotive> tree = this.snapshot.getLocomotiveTree();
+		HashTrie<RailVehicle, Member> members = this.snapshot.getMembers();
+		for (Locomotive locomotive : locomotives) {
+			this.locomotives.add(locomotive);
+			this.totals.add(locomotive);
+			long ordinal = this.nextOrdinal++;
+			tree = tree.insert(ordinal, locomotive);
+			members = members.put(locomotive, new Member(ordinal, 0L, 0d));
+		}
+
+		this.publish(tree, this.snapshot.getWagonTree(), members);
+	}
+
+	private void attachWagons(Collection<? extends Wagon> wagons) {
+		this.service.claimAll(wagons, this, "Wagon");
+
+		OrdinalTree<Wagon> tree = this.snapshot.getWagonTree();
+		HashTrie<RailVehicle, Member> members = this.snapshot.getMembers();
+		for (Wagon wagon : wagons) {
+			this.wagons.add(wagon);
+			this.totals.add(wagon);
+			long ordinal = this.nextOrdinal++;
+			tree = tree.insert(ordinal, wagon);
+			members = members.put(wagon, new Member(ordinal, 0L, 0d));
+		}
+
+		this.publish(this.snapshot.getLocomotiveTree(), tree, members);
+	}
+
+	/**
+	 * Completes the removal of a locomotive. Listeners are notified before the
+	 * locomotive is released.
+	 */
+	private void detach(Locomotive locomotive) {
+		Member member = this.snapshot.member(locomotive);
+		this.totals.subtract(locomotive);
+		this.unload(locomotive, member);
+		this.publish(this.snapshot.getLocomotiveTree().remove(member.getOrdinal()), this.snapshot.getWagonTree(),
+				this.snapshot.getMembers().remove(locomotive));
+		this.service.fireLocomotiveRemoved(this, locomotive);
+		this.service.release(locomotive, this);
+	}
+
+	/**
+	 * Completes the removal of a wagon. Listeners are notified before the wagon is
+	 * released.
+	 */
+	private void detach(Wagon wagon) {
+		Member member = this.snapshot.member(wagon);
+		this.totals.subtract(wagon);
+		this.unload(wagon, member);
+		this.publish(this.snapshot.getLocomotiveTree(), this.snapshot.getWagonTree().remove(member.getOrdinal()),
+				this.snapshot.getMembers().remove(wagon));
+		this.service.fireWagonRemoved(this, wagon);
+		this.service.release(wagon, this);
+	}
+
+	private void requireNotDecommissioned() {
+		if (this.decommissioned) {
+			throw new IllegalStateException("Train has been decommissioned");
+		}
+	}
+
+	private synchronized void dissolve() {
+		this.decommissioned = true;
+
+		this.locomotives.forEach(locomotive -> this.service.release(locomotive, this));
+		this.wagons.forEach(wagon -> this.service.release(wagon, this));
+		this.locomotives.clear();
+		this.wagons.clear();
+		this.totals.clear();
+		this.publish(OrdinalTree.empty(), OrdinalTree.empty(), HashTrie.empty());
+	}
+
+	private void changeLoad(RailVehicle vehicle, Member member, long passengers, double freight) {
+		this.requireNotDecommissioned();
+		if (passengers < 0 || passengers > vehicle.getMaxPassengers()) {
+			throw new IllegalArgumentException("Vehicle " + vehicle.getSerialNumber() + " can carry between 0 and "
+					+ vehicle.getMaxPassengers() + " passengers");
+		}
+		double maxFreight = vehicle instanceof Wagon ? vehicle.getMaxAdditionalLoadInKilogram() : 0d;
+		if (freight < 0d || freight > maxFreight) {
+			throw new IllegalArgumentException("Vehicle " + vehicle.getSerialNumber() + " can carry between 0 and "
+					+ maxFreight + " kg freight");
+		}
+
+		long oldPassengers = member.getPassengers();
+		double oldFreight = member.getFreight();
+		if (passengers == oldPassengers && freight == oldFreight) {
+			return;
+		}
+
+		this.totals.passengers += passengers - oldPassengers;
+		if (vehicle instanceof Wagon) {
+			this.totals.wagonPassengers += passengers - oldPassengers;
+		}
+		this.totals.freight = Math.max(0d, this.totals.freight + freight - oldFreight);
+		this.publish(this.snapshot.getLocomotiveTree(), this.snapshot.getWagonTree(),
+				this.snapshot.getMembers().put(vehicle, new Member(member.getOrdinal(), passengers, freight)));
+		this.service.fireLoadChanged(this, vehicle);
+	}
+
+	/**
+	 * Removes the load of a vehicle leaving this train from the totals.
+	 */
+	private void unload(RailVehicle vehicle, Member member) {
+		this.totals.passengers -= member.getPassengers();
+		if (vehicle instanceof Wagon) {
+			this.totals.wagonPassengers -= member.getPassengers();
+		}
+		this.totals.freight = Math.max(0d, this.totals.freight - member.getFreight());
+	}
+
+	/**
+	 * Replaces the snapshot with the given vehicles and the current totals. Called
+	 * while holding the lock of this train, before listeners are notified.
+	 */
+	private void publish(OrdinalTree<Locomotive> locomotives, OrdinalTree<Wagon> wagons,
+			HashTrie<RailVehicle, Member> members) {
+		this.snapshot = new TrainSnapshot(this.id, this.company, this.snapshot.getVersion() + 1L, this.decommissioned,
+				locomotives, wagons, members, this.totals.emptyWeight, this.totals.maxPassengers,
+				this.totals.maxAdditionalFreight, this.totals.length, this.totals.tractiveForce, this.totals.passengers,
+				this.totals.wagonPassengers, this.totals.freight);
 	}
 }
@@ -0,0 +1,253 @@
+package at.gwt.trainsim.beans;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
+
+/**
+ * The state of a {@link Train} after one of its changes. Snapshots never
+ * change, so they can be read without locking while the train is changed by
+ * other threads.
+ *
+ * The vehicles are kept in persistent trees, so a new snapshot shares
+ * everything but O(log n) nodes with the previous one. The trees keep the
+ * vehicles in order, a persistent hash trie maps each vehicle to its ordinal
+ * and its load, so looking up a vehicle takes constant time.
+ *
+ * @author gotthardwitsch
+ *
+ */
+@Getter
+public final class TrainSnapshot {
+	private final long trainId;
+	private final RailroadCompany company;
+
+	/**
+	 * Increases with every change of the train
+	 */
+	private final long version;
+	private final boolean decommissioned;
+	@Getter(AccessLevel.PACKAGE)
+	private final OrdinalTree<Locomotive> locomotiveTree;
+	@Getter(AccessLevel.PACKAGE)
+	private final OrdinalTree<Wagon> wagonTree;
+	@Getter(AccessLevel.PACKAGE)
+	private final HashTrie<RailVehicle, Member> members;
+	private final double emptyWeightInKilogram;
+	private final long maxPassengers;
+	private final double maxAdditionalFreightInKilogram;
+	private final long lengthInMeters;
+	private final double tractiveForceInKilogram;
+
+	/**
+	 * Passengers currently on the train
+	 */
+	private final long passengers;
+
+	/**
+	 * Passengers currently in the wagons of the train
+	 */
+	private final long wagonPassengers;
+
+	/**
+	 * Freight currently on the train
+	 */
+	private final double freightInKilogram;
+
+	TrainSnapshot(long trainId, RailroadCompany company, long version, boolean decommissioned,
+			OrdinalTree<Locomotive> locomotiveTree, OrdinalTree<Wagon> wagonTree,
+			HashTrie<RailVehicle, Member> members, double emptyWeightInKilogram,
+			long maxPassengers, double maxAdditionalFreightInKilogram, long lengthInMeters,
+			double tractiveForceInKilogram, long passengers, long wagonPassengers, double freightInKilogram) {
+		this.trainId = trainId;
+		this.company = company;
+		this.version = version;
+		this.decommissioned = decommissioned;
+		this.locomotiveTree = locomotiveTree;
+		this.wagonTree = wagonTree;
+		this.members = members;
+		this.emptyWeightInKilogram = emptyWeightInKilogram;
+		this.maxPassengers = maxPassengers;
+		this.maxAdditionalFreightInKilogram = maxAdditionalFreightInKilogram;
+		this.lengthInMeters = lengthInMeters;
+		this.tractiveForceInKilogram = tractiveForceInKilogram;
+		this.passengers = passengers;
+		this.wagonPassengers = wagonPassengers;
+		this.freightInKilogram = freightInKilogram;
+	}
+
+	/**
+	 * @return the locomotives in the order they were added. The collection cannot
+	 *         be changed, {@link Collection#contains(Object)} takes constant time.
+	 */
+	public Collection<Locomotive> getLocomotives() {
+		return new Vehicles<>(this.locomotiveTree, Locomotive.class, this.members);
+	}
+
+	/**
+	 * @return the wagons in the order they were added. The collection cannot be
+	 *         changed, {@link Collection#contains(Object)} takes constant time.
+	 */
+	public Collection<Wagon> getWagons() {
+		return new Vehicles<>(this.wagonTree, Wagon.class, this.members);
+	}
+
+	/**
+	 * @param vehicle a vehicle
+	 * @return true if the vehicle is part of the train
+	 */
+	public boolean contains(RailVehicle vehicle) {
+		return this.members.containsKey(vehicle);
+	}
+
+	// written out, as Lombok skips getters overloaded by the methods below
+	public long getPassengers() {
+		return this.passengers;
+	}
+
+	public double getFreightInKilogram() {
+		return this.freightInKilogram;
+	}
+
+	/**
+	 * @param vehicle a vehicle of the train
+	 * @return the number of passengers in the vehicle
+	 */
+	public long getPassengers(RailVehicle vehicle) {
+		return this.member(vehicle).getPassengers();
+	}
+
+	/**
+	 * @param vehicle a vehicle of the train
+	 * @return the freight in the vehicle in kilogram
+	 */
+	public double getFreightInKilogram(RailVehicle vehicle) {
+		return this.member(vehicle).getFreight();
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the vehicle is not part of the train
+	 */
+	Member member(RailVehicle vehicle) {
+		Member member = this.members.get(vehicle);
+		if (member == null) {
+			throw new IllegalArgumentException("Vehicle " + vehicle.getSerialNumber() + " is not part of this train");
+		}
+
+		return member;
+	}
+
+	/**
+	 * @return the maximum additional load in kilogram for passengers and freight
+	 */
+	public double getMaxAdditionalLoadInKilogram() {
+		return this.maxPassengers * Train.WEIGHT_PER_PASSENGER_IN_KILOGRAM + this.maxAdditionalFreightInKilogram;
+	}
+
+	/**
+	 * @return the weight in kilogram with the maximum load
+	 */
+	public double getWeightInKilogram() {
+		return this.emptyWeightInKilogram + this.getMaxAdditionalLoadInKilogram();
+	}
+
+	/**
+	 * @return true if the locomotives are able to pull the maximum additional load
+	 */
+	public boolean isDrivable() {
+		return this.tractiveForceInKilogram > this.getMaxAdditionalLoadInKilogram();
+	}
+
+	public boolean requiresGuard() {
+		return this.maxPassengers > 0;
+	}
+
+	/**
+	 * @return the number of required guards. 1 guard is required per 50 passengers.
+	 */
+	public int getRequiredGuards() {
+		return (int) Math.ceil(this.maxPassengers / 50d);
+	}
+
+	/**
+	 * @return the weight of the passengers and freight currently on the train in
+	 *         kilogram
+	 */
+	public double getLoadInKilogram() {
+		return this.passengers * Train.WEIGHT_PER_PASSENGER_IN_KILOGRAM + this.freightInKilogram;
+	}
+
+	/**
+	 * @return the weight of the passengers and freight currently in the wagons of
+	 *         the train in kilogram
+	 */
+	public double getWagonLoadInKilogram() {
+		return this.wagonPassengers * Train.WEIGHT_PER_PASSENGER_IN_KILOGRAM + this.freightInKilogram;
+	}
+
+	/**
+	 * @return the weight in kilogram with the current load
+	 */
+	public double getCurrentWeightInKilogram() {
+		return this.emptyWeightInKilogram + this.getLoadInKilogram();
+	}
+
+	/**
+	 * @return true if the locomotives are able to pull the current load
+	 */
+	public boolean isDrivableWithCurrentLoad() {
+		return this.tractiveForceInKilogram > this.getLoadInKilogram();
+	}
+
+	/**
+	 * @return the number of guards required for the current passengers
+	 */
+	public int getCurrentRequiredGuards() {
+		return (int) Math.ceil(this.passengers / 50d);
+	}
+
+	/**
+	 * The ordinal and the load of a vehicle of the train.
+	 */
+	@Value
+	@Getter(AccessLevel.PACKAGE)
+	static class Member {
+		private final long ordinal;
+		private final long passengers;
+		private final double freight;
+	}
+
+	/**
+	 * The vehicles of one tree, which looks up vehicles in the hash trie.
+	 */
+	private static final class Vehicles<V extends RailVehicle> extends AbstractSet<V> {
+		private final Collection<V> values;
+		private final Class<V> type;
+		private final HashTrie<RailVehicle, Member> members;
+
+		private Vehicles(OrdinalTree<V> tree, Class<V> type, HashTrie<RailVehicle, Member> members) {
+			this.values = tree.values();
+			this.type = type;
+			this.members = members;
+		}
+
+		@Override
+		public int size() {
+			return this.values.size();
+		}
+
+		@Override
+		public Iterator<V> iterator() {
+			return this.values.iterator();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return this.type.isInstance(o) && this.members.containsKey(o);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package at.gwt.trainsim.events;
+
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.Train;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A change of a train, as delivered to a {@link Subscriber}.
+ * 
+ * Events are slots of a ring buffer, which are reused for later events once a
+ * batch has been delivered. Subscribers must copy what they need to keep.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Getter
+@ToString
+public final class ConsistEvent {
+
+	public enum Type {
+		TRAIN_CREATED, LOCOMOTIVE_ADDED, LOCOMOTIVE_REMOVED, WAGON_ADDED, WAGON_REMOVED, LOAD_CHANGED,
+		COMPANY_CHANGED, TRAIN_DECOMMISSIONED;
+	}
+
+	/**
+	 * Numbers the events of a subscription without gaps, dropped events do not
+	 * get a number
+	 */
+	private long sequence;
+	private Type type;
+	private Train train;
+
+	/**
+	 * The vehicle which has been added, removed or loaded, null for events of the
+	 * whole train
+	 */
+	private RailVehicle vehicle;
+
+	ConsistEvent() {
+		// preallocated by Subscription
+	}
+
+	void set(long sequence, Type type, Train train, RailVehicle vehicle) {
+		this.sequence = sequence;
+		this.type = type;
+		this.train = train;
+		this.vehicle = vehicle;
+	}
+
+	/**
+	 * Drops the references, so delivered trains and vehicles can be collected.
+	 */
+	void clear() {
+		this.train = null;
+		this.vehicle = null;
+	}
+}
@@ -0,0 +1,144 @@
+package at.gwt.trainsim.events;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Objects;
+
+import at.gwt.trainsim.beans.ConsistListener;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Wagon;
+import at.gwt.trainsim.events.ConsistEvent.Type;
+
+/**
+ * Publishes the changes of {@link Train.Service} as {@link ConsistEvent}s to
+ * subscribers, like signalling displays or billing, which do not have to poll
+ * the trains anymore.
+ *
+ * Every subscriber has its own {@link Subscription} with a bounded buffer. The
+ * thread changing a train only copies the change into a preallocated slot of
+ * each buffer, it neither allocates nor waits. A subscriber which does not keep
+ * up loses events and is told how many, but never stalls changes of trains or
+ * other subscribers.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class ConsistEventBus implements ConsistListener, Closeable {
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+
+	/**
+	 * Replaced as a whole when subscriptions change, so publishing does not
+	 * allocate.
+	 */
+	private volatile Subscription[] subscriptions = new Subscription[0];
+
+	private ConsistEventBus() {
+		// use create
+	}
+
+	/**
+	 * Creates a bus, which publishes the changes of {@link Train.Service} until
+	 * it is closed.
+	 *
+	 * @return the bus
+	 */
+	public static ConsistEventBus create() {
+		ConsistEventBus bus = new ConsistEventBus();
+		Train.Service.addListener(bus);
+
+		return bus;
+	}
+
+	/**
+	 * @param name       the subscriber's name, used for its thread
+	 * @param subscriber the subscriber
+	 * @return the subscription with {@link #DEFAULT_CAPACITY}
+	 */
+	public Subscription subscribe(String name, Subscriber subscriber) {
+		return this.subscribe(name, DEFAULT_CAPACITY, subscriber);
+	}
+
+	/**
+	 * Subscribes to all changes from now on.
+	 *
+	 * @param name       the subscriber's name, used for its thread
+	 * @param capacity   number of events, which may wait for delivery
+	 * @param subscriber the subscriber
+	 * @return the subscription, which has to be closed to stop its thread
+	 */
+	public synchronized Subscription subscribe(String name, int capacity, Subscriber subscriber) {
+		Subscription subscription = new Subscription(Objects.requireNonNull(name, "Name is required"), capacity,
+				Objects.requireNonNull(subscriber, "Subscriber is required"), this);
+
+		Subscription[] subscriptions = Arrays.copyOf(this.subscriptions, this.subscriptions.length + 1);
+		subscriptions[subscriptions.length - 1] = subscription;
+		this.subscriptions = subscriptions;
+
+		return subscription;
+	}
+
+	/**
+	 * Stops publishing and closes all subscriptions.
+	 */
+	@Override
+	public void close() {
+		Train.Service.removeListener(this);
+
+		for (Subscription subscription : this.subscriptions) {
+			subscription.close();
+		}
+	}
+
+	synchronized void remove(Subscription subscription) {
+		this.subscriptions = Arrays.stream(this.subscriptions).filter(registered -> registered != subscription)
+				.toArray(Subscription[]::new);
+	}
+
+	@Override
+	public void trainCreated(Train train) {
+		this.publish(Type.TRAIN_CREATED, train, null);
+	}
+
+	@Override
+	public void locomotiveAdded(Train train, Locomotive locomotive) {
+		this.publish(Type.LOCOMOTIVE_ADDED, train, locomotive);
+	}
+
+	@Override
+	public void locomotiveRemoved(Train train, Locomotive locomotive) {
+		this.publish(Type.LOCOMOTIVE_REMOVED, train, locomotive);
+	}
+
+	@Override
+	public void wagonAdded(Train train, Wagon wagon) {
+		this.publish(Type.WAGON_ADDED, train, wagon);
+	}
+
+	@Override
+	public void wagonRemoved(Train train, Wagon wagon) {
+		this.publish(Type.WAGON_REMOVED, train, wagon);
+	}
+
+	@Override
+	public void loadChanged(Train train, RailVehicle vehicle) {
+		this.publish(Type.LOAD_CHANGED, train, vehicle);
+	}
+
+	@Override
+	public void companyChanged(Train train) {
+		this.publish(Type.COMPANY_CHANGED, train, null);
+	}
+
+	@Override
+	public void trainDecommissioned(Train train) {
+		this.publish(Type.TRAIN_DECOMMISSIONED, train, null);
+	}
+
+	private void publish(Type type, Train train, RailVehicle vehicle) {
+		for (Subscription subscription : this.subscriptions) {
+			subscription.publish(type, train, vehicle);
+		}
+	}
+}
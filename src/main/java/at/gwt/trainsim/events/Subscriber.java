@@ -0,0 +1,29 @@
+package at.gwt.trainsim.events;
+
+import java.util.List;
+
+/**
+ * Receives the events of a {@link Subscription} in batches. Both methods are
+ * called by the subscription's own thread, never concurrently.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@FunctionalInterface
+public interface Subscriber {
+
+	/**
+	 * @param events the next events in the order they were published. The list
+	 *               and the events are reused after this method returns.
+	 */
+	void onEvents(List<ConsistEvent> events);
+
+	/**
+	 * Called when events had to be dropped, because this subscriber did not keep
+	 * up and its buffer was full.
+	 * 
+	 * @param dropped number of events dropped since the last call
+	 */
+	default void onOverflow(long dropped) {
+	}
+}
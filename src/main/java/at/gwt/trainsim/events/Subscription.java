@@ -0,0 +1,218 @@
+package at.gwt.trainsim.events;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.Train;
+import lombok.Getter;
+
+/**
+ * A bounded ring buffer of preallocated events between any number of
+ * publishing threads and a single subscriber.
+ *
+ * Publishers claim a slot by compare and set on the claim sequence and never
+ * wait: if the subscriber has not yet consumed the event published a full ring
+ * ago, the event is dropped and counted instead. A daemon thread delivers the
+ * published events in batches and reports dropped events by
+ * {@link Subscriber#onOverflow(long)}. Slots are reused once their batch has
+ * been delivered.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class Subscription implements Closeable {
+	private static final Logger LOG = LogManager.getLogger(Subscription.class);
+
+	public static final int MAX_BATCH = 256;
+	private static final int SPINS = 100;
+	private static final long IDLE_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+	@Getter
+	private final String name;
+	private final Subscriber subscriber;
+	private final ConsistEventBus bus;
+	private final ConsistEvent[] slots;
+	private final int mask;
+
+	/**
+	 * The sequence of the event in each slot, which is set after the event has
+	 * been written
+	 */
+	private final AtomicLongArray published;
+	private final AtomicLong claimed = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final Thread thread;
+
+	/**
+	 * All events before this sequence have been delivered
+	 */
+	private volatile long consumed;
+	private volatile boolean closed;
+
+	// only accessed by the delivering thread
+	private long reportedDropped;
+
+	Subscription(String name, int capacity, Subscriber subscriber, ConsistEventBus bus) {
+		if (capacity <= 0 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+		}
+
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+
+		this.name = name;
+		this.subscriber = subscriber;
+		this.bus = bus;
+		this.slots = new ConsistEvent[size];
+		for (int i = 0; i < size; i++) {
+			this.slots[i] = new ConsistEvent();
+		}
+		this.mask = size - 1;
+		this.published = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			this.published.set(i, -1L);
+		}
+
+		this.thread = new Thread(this::run, "consist-events-" + name);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * @return number of slots, the capacity rounded up to a power of two
+	 */
+	public int getCapacity() {
+		return this.slots.length;
+	}
+
+	/**
+	 * @return number of events published to this subscription
+	 */
+	public long getPublished() {
+		return this.claimed.get();
+	}
+
+	/**
+	 * @return number of events delivered to the subscriber
+	 */
+	public long getDelivered() {
+		return this.consumed;
+	}
+
+	/**
+	 * @return number of events dropped, because the buffer was full
+	 */
+	public long getDropped() {
+		return this.dropped.get();
+	}
+
+	/**
+	 * Stops the subscription after the events published so far have been
+	 * delivered.
+	 */
+	@Override
+	public void close() {
+		if (this.closed) {
+			return;
+		}
+
+		this.bus.remove(this);
+		this.closed = true;
+		if (Thread.currentThread() != this.thread) {
+			try {
+				this.thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * @return false if the event has been dropped or the subscription is closed
+	 */
+	boolean publish(ConsistEvent.Type type, Train train, RailVehicle vehicle) {
+		if (this.closed) {
+			return false;
+		}
+
+		long sequence;
+		do {
+			sequence = this.claimed.get();
+			if (sequence - this.consumed >= this.slots.length) {
+				this.dropped.incrementAndGet();
+				return false;
+			}
+		} while (!this.claimed.compareAndSet(sequence, sequence + 1));
+
+		int index = (int) sequence & this.mask;
+		this.slots[index].set(sequence, type, train, vehicle);
+		this.published.lazySet(index, sequence);
+
+		return true;
+	}
+
+	private void run() {
+		List<ConsistEvent> batch = new ArrayList<>(Math.min(MAX_BATCH, this.slots.length));
+		List<ConsistEvent> view = Collections.unmodifiableList(batch);
+		long next = 0L;
+		int idle = 0;
+
+		while (!this.closed || next < this.claimed.get()) {
+			while (batch.size() < MAX_BATCH && this.published.get((int) next & this.mask) == next) {
+				batch.add(this.slots[(int) next & this.mask]);
+				next++;
+			}
+
+			this.reportOverflow();
+
+			if (batch.isEmpty()) {
+				if (this.closed && next < this.claimed.get()) {
+					// an event is claimed, but not written yet
+					Thread.yield();
+				} else if (++idle < SPINS) {
+					Thread.yield();
+				} else {
+					LockSupport.parkNanos(IDLE_NANOS);
+				}
+				continue;
+			}
+
+			idle = 0;
+			try {
+				this.subscriber.onEvents(view);
+			} catch (RuntimeException e) {
+				LOG.error("Subscriber {} failed to handle {} events", this.name, batch.size(), e);
+			}
+
+			batch.forEach(ConsistEvent::clear);
+			batch.clear();
+			this.consumed = next;
+		}
+
+		this.reportOverflow();
+	}
+
+	private void reportOverflow() {
+		long dropped = this.dropped.get();
+		if (dropped != this.reportedDropped) {
+			try {
+				this.subscriber.onOverflow(dropped - this.reportedDropped);
+			} catch (RuntimeException e) {
+				LOG.error("Subscriber {} failed to handle an overflow", this.name, e);
+			}
+			this.reportedDropped = dropped;
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package at.gwt.trainsim.fleet;
+
+import at.gwt.trainsim.beans.RailroadCompany;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The planning figures of all trains of a {@link RailroadCompany} summed up.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Getter
+@ToString
+public class CompanyReport {
+	private RailroadCompany company;
+	private int trains;
+	private int drivableTrains;
+	private long requiredGuards;
+	private double weightInKilogram;
+	private long lengthInMeters;
+
+	CompanyReport() {
+		// filled by add and combine
+	}
+
+	/**
+	 * @return number of trains, which cannot be driven
+	 */
+	public int getUndrivableTrains() {
+		return this.trains - this.drivableTrains;
+	}
+
+	void add(TrainReport train) {
+		this.company = train.getCompany();
+		this.trains++;
+		this.drivableTrains += train.isDrivable() ? 1 : 0;
+		this.requiredGuards += train.getRequiredGuards();
+		this.weightInKilogram += train.getWeightInKilogram();
+		this.lengthInMeters += train.getLengthInMeters();
+	}
+
+	CompanyReport combine(CompanyReport other) {
+		if (this.company == null) {
+			this.company = other.company;
+		}
+
+		return this.sum(other);
+	}
+
+	/**
+	 * Adds the figures of another report, but keeps the company.
+	 */
+	CompanyReport sum(CompanyReport other) {
+		this.trains += other.trains;
+		this.drivableTrains += other.drivableTrains;
+		this.requiredGuards += other.requiredGuards;
+		this.weightInKilogram += other.weightInKilogram;
+		this.lengthInMeters += other.lengthInMeters;
+
+		return this;
+	}
+}
@@ -0,0 +1,86 @@
+package at.gwt.trainsim.fleet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.Train;
+
+/**
+ * Reports drivability, guards, weight and length of many trains, per train and
+ * summed up per {@link RailroadCompany}.
+ * 
+ * The trains are copied into a list first, so the report works on a stable set
+ * of trains even while trains are created or decommissioned. Each train is
+ * reported from one consistent snapshot without locking it, but different
+ * trains may be reported at slightly different points in time.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public final class FleetReport {
+	private final List<TrainReport> trains;
+	private final Map<RailroadCompany, CompanyReport> companies;
+	private final CompanyReport total;
+
+	private FleetReport(List<TrainReport> trains, Map<RailroadCompany, CompanyReport> companies) {
+		this.trains = Collections.unmodifiableList(trains);
+		this.companies = Collections.unmodifiableMap(companies);
+		this.total = companies.values().stream().reduce(new CompanyReport(), CompanyReport::sum);
+	}
+
+	/**
+	 * Reports all trains of {@link Train.Service} using all cores.
+	 * 
+	 * @return the report
+	 */
+	public static FleetReport create() {
+		return create(Train.Service.getTrains(), true);
+	}
+
+	/**
+	 * @param trains   the trains to report on
+	 * @param parallel whether to use all cores of the common fork/join pool
+	 * @return the report
+	 */
+	public static FleetReport create(Collection<Train> trains, boolean parallel) {
+		// an array backed list splits evenly, unlike the views of a concurrent map
+		List<Train> snapshot = new ArrayList<>(trains);
+		Stream<Train> stream = parallel ? snapshot.parallelStream() : snapshot.stream();
+
+		List<TrainReport> reports = stream.map(TrainReport::of).collect(Collectors.toList());
+		Stream<TrainReport> reportStream = parallel ? reports.parallelStream() : reports.stream();
+
+		return new FleetReport(reports, reportStream.collect(Collectors.groupingBy(TrainReport::getCompany,
+				Collector.of(CompanyReport::new, CompanyReport::add, CompanyReport::combine))));
+	}
+
+	/**
+	 * @return the report of every train in no particular order
+	 */
+	public List<TrainReport> getTrains() {
+		return this.trains;
+	}
+
+	public Map<RailroadCompany, CompanyReport> getCompanies() {
+		return this.companies;
+	}
+
+	public Optional<CompanyReport> getCompany(RailroadCompany company) {
+		return Optional.ofNullable(this.companies.get(company));
+	}
+
+	/**
+	 * @return the figures of all trains summed up. The company is not set.
+	 */
+	public CompanyReport getTotal() {
+		return this.total;
+	}
+}
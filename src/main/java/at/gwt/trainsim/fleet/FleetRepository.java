@@ -0,0 +1,362 @@
+package at.gwt.trainsim.fleet;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.ConsistListener;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Wagon;
+
+/**
+ * Keeps the vehicles of a fleet with secondary indexes on drive, manufacturer,
+ * classification and year of manufacturing.
+ *
+ * Every vehicle gets a dense index when it is added. Each index maps an
+ * attribute value to a {@link BitSet} of vehicle indexes, so a {@link Query}
+ * intersects a few bit sets instead of looking at every vehicle. Whether a
+ * vehicle is part of a train is tracked in another bit set, which is kept up to
+ * date by listening to {@link Train.Service}.
+ *
+ * Instances are thread safe.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class FleetRepository implements ConsistListener, Closeable {
+	private final List<RailVehicle> vehicles = new ArrayList<>();
+	private final Map<SerialNumber, Integer> indexes = new HashMap<>();
+	private final BitSet locomotives = new BitSet();
+	private final Map<Drive, BitSet> byDrive = new EnumMap<>(Drive.class);
+	private final Map<Manufacturer, BitSet> byManufacturer = new HashMap<>();
+	private final Map<Classification, BitSet> byClassification = new HashMap<>();
+	private final NavigableMap<Integer, BitSet> byYear = new TreeMap<>();
+	private final BitSet assigned = new BitSet();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private FleetRepository() {
+		// use create
+	}
+
+	/**
+	 * Creates an empty repository, which follows the changes of
+	 * {@link Train.Service} until it is closed.
+	 *
+	 * @return the repository
+	 */
+	public static FleetRepository create() {
+		FleetRepository repository = new FleetRepository();
+		Train.Service.addListener(repository);
+
+		return repository;
+	}
+
+	/**
+	 * Stops following the changes of {@link Train.Service}.
+	 */
+	@Override
+	public void close() {
+		Train.Service.removeListener(this);
+	}
+
+	/**
+	 * Adds a vehicle and indexes it. A vehicle which is already known is not added
+	 * again.
+	 *
+	 * @param vehicle the vehicle to add
+	 * @return the vehicle's index
+	 */
+	public int add(RailVehicle vehicle) {
+		this.lock.writeLock().lock();
+		try {
+			Integer known = this.indexes.get(vehicle.getSerialNumber());
+			if (known != null) {
+				return known;
+			}
+
+			int index = this.vehicles.size();
+			this.vehicles.add(vehicle);
+			this.indexes.put(vehicle.getSerialNumber(), index);
+
+			if (vehicle instanceof Locomotive) {
+				this.locomotives.set(index);
+				index(this.byDrive, ((Locomotive) vehicle).getTypeOfDrive(), index);
+			}
+			index(this.byManufacturer, vehicle.getManufacturer(), index);
+			index(this.byClassification, vehicle.getClassification(), index);
+			index(this.byYear,
+					vehicle.getYearOfManufacturing() == null ? null : vehicle.getYearOfManufacturing().getYear(),
+					index);
+
+			// the vehicle may already have been claimed before it became known here
+			this.assigned.set(index, isAssigned(vehicle));
+			return index;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @param vehicles the vehicles to add
+	 */
+	public void addAll(Collection<? extends RailVehicle> vehicles) {
+		vehicles.forEach(this::add);
+	}
+
+	public int size() {
+		this.lock.readLock().lock();
+		try {
+			return this.vehicles.size();
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return a new query, which matches all vehicles
+	 */
+	public Query query() {
+		return new Query();
+	}
+
+	@Override
+	public void trainCreated(Train train) {
+		train.getLocomotives().forEach(locomotive -> this.assign(locomotive, true));
+		train.getWagons().forEach(wagon -> this.assign(wagon, true));
+	}
+
+	@Override
+	public void locomotiveAdded(Train train, Locomotive locomotive) {
+		this.assign(locomotive, true);
+	}
+
+	@Override
+	public void locomotiveRemoved(Train train, Locomotive locomotive) {
+		this.assign(locomotive, false);
+	}
+
+	@Override
+	public void wagonAdded(Train train, Wagon wagon) {
+		this.assign(wagon, true);
+	}
+
+	@Override
+	public void wagonRemoved(Train train, Wagon wagon) {
+		this.assign(wagon, false);
+	}
+
+	@Override
+	public void trainDecommissioned(Train train) {
+		train.getLocomotives().forEach(locomotive -> this.assign(locomotive, false));
+		train.getWagons().forEach(wagon -> this.assign(wagon, false));
+	}
+
+	private void assign(RailVehicle vehicle, boolean assigned) {
+		this.lock.writeLock().lock();
+		try {
+			Integer index = this.indexes.get(vehicle.getSerialNumber());
+			if (index != null) {
+				this.assigned.set(index, assigned);
+			}
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Decides whether a vehicle is part of a train from the state which is
+	 * published before listeners are notified, so that no event is missed while
+	 * the vehicle is added. A removed vehicle is only released after
+	 * {@link #wagonRemoved(Train, Wagon)}, so its owner alone is not enough.
+	 */
+	private static boolean isAssigned(RailVehicle vehicle) {
+		return Train.Service.findTrain(vehicle).filter(train -> Train.Service.getTrain(train.getId()).isPresent())
+				.filter(train -> (vehicle instanceof Locomotive ? train.getSnapshot().getLocomotives()
+						: train.getSnapshot().getWagons()).contains(vehicle))
+				.isPresent();
+	}
+
+	private static <K> void index(Map<K, BitSet> index, K key, int vehicle) {
+		if (key != null) {
+			index.computeIfAbsent(key, k -> new BitSet()).set(vehicle);
+		}
+	}
+
+	/**
+	 * Selects vehicles by intersecting the indexes. Every criterion narrows the
+	 * result, a vehicle without a value for a criterion never matches it.
+	 */
+	public final class Query {
+		private Boolean locomotive;
+		private Drive drive;
+		private Manufacturer manufacturer;
+		private Classification classification;
+		private boolean yearSelected;
+		private int fromYear;
+		private int toYear;
+		private Boolean inTrain;
+
+		private Query() {
+			// use FleetRepository.query
+		}
+
+		public Query locomotives() {
+			this.locomotive = true;
+			return this;
+		}
+
+		public Query wagons() {
+			this.locomotive = false;
+			return this;
+		}
+
+		/**
+		 * Implies {@link #locomotives()}, as only locomotives have a drive.
+		 */
+		public Query drive(Drive drive) {
+			this.drive = drive;
+			return this;
+		}
+
+		public Query manufacturer(Manufacturer manufacturer) {
+			this.manufacturer = manufacturer;
+			return this;
+		}
+
+		public Query classification(Classification classification) {
+			this.classification = classification;
+			return this;
+		}
+
+		/**
+		 * @param fromYear first year, inclusive
+		 * @param toYear   last year, inclusive
+		 */
+		public Query builtBetween(int fromYear, int toYear) {
+			this.yearSelected = true;
+			this.fromYear = fromYear;
+			this.toYear = toYear;
+			return this;
+		}
+
+		/**
+		 * @param year the year, exclusive
+		 */
+		public Query builtAfter(int year) {
+			if (year == Integer.MAX_VALUE) {
+				// an empty range, which matches no vehicle
+				return this.builtBetween(Integer.MAX_VALUE, Integer.MIN_VALUE);
+			}
+
+			return this.builtBetween(year + 1, Integer.MAX_VALUE);
+		}
+
+		/**
+		 * @param year the year, exclusive
+		 */
+		public Query builtBefore(int year) {
+			if (year == Integer.MIN_VALUE) {
+				return this.builtBetween(Integer.MAX_VALUE, Integer.MIN_VALUE);
+			}
+
+			return this.builtBetween(Integer.MIN_VALUE, year - 1);
+		}
+
+		/**
+		 * Selects vehicles, which are not part of a train.
+		 */
+		public Query free() {
+			this.inTrain = false;
+			return this;
+		}
+
+		/**
+		 * Selects vehicles, which are part of a train.
+		 */
+		public Query assigned() {
+			this.inTrain = true;
+			return this;
+		}
+
+		public int count() {
+			FleetRepository.this.lock.readLock().lock();
+			try {
+				return this.match().cardinality();
+			} finally {
+				FleetRepository.this.lock.readLock().unlock();
+			}
+		}
+
+		/**
+		 * @return the matching vehicles in the order they have been added
+		 */
+		public List<RailVehicle> list() {
+			FleetRepository.this.lock.readLock().lock();
+			try {
+				BitSet match = this.match();
+				List<RailVehicle> result = new ArrayList<>(match.cardinality());
+				for (int i = match.nextSetBit(0); i >= 0; i = match.nextSetBit(i + 1)) {
+					result.add(FleetRepository.this.vehicles.get(i));
+				}
+
+				return result;
+			} finally {
+				FleetRepository.this.lock.readLock().unlock();
+			}
+		}
+
+		/**
+		 * Intersects the indexes. The caller must hold the read lock.
+		 */
+		private BitSet match() {
+			FleetRepository repository = FleetRepository.this;
+
+			BitSet result = new BitSet(repository.vehicles.size());
+			result.set(0, repository.vehicles.size());
+
+			if (this.drive != null) {
+				result.and(repository.byDrive.getOrDefault(this.drive, new BitSet()));
+			}
+			if (this.manufacturer != null) {
+				result.and(repository.byManufacturer.getOrDefault(this.manufacturer, new BitSet()));
+			}
+			if (this.classification != null) {
+				result.and(repository.byClassification.getOrDefault(this.classification, new BitSet()));
+			}
+			if (this.yearSelected) {
+				BitSet years = new BitSet();
+				if (this.fromYear <= this.toYear) {
+					repository.byYear.subMap(this.fromYear, true, this.toYear, true).values().forEach(years::or);
+				}
+				result.and(years);
+			}
+			if (this.locomotive == Boolean.TRUE) {
+				result.and(repository.locomotives);
+			} else if (this.locomotive == Boolean.FALSE) {
+				result.andNot(repository.locomotives);
+			}
+			if (this.inTrain == Boolean.TRUE) {
+				result.and(repository.assigned);
+			} else if (this.inTrain == Boolean.FALSE) {
+				result.andNot(repository.assigned);
+			}
+
+			return result;
+		}
+	}
+}
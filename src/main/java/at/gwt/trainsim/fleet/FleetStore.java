@@ -0,0 +1,260 @@
+package at.gwt.trainsim.fleet;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Weight;
+
+/**
+ * Stores the attributes of many rail vehicles in parallel primitive arrays, one
+ * array per attribute. Manufacturers and classifications are dictionary
+ * encoded. Vehicles are addressed by the index returned from
+ * {@link #add(RailVehicle)}.
+ * 
+ * Fleet-wide scans run over contiguous memory without touching any
+ * {@link RailVehicle} object. Use {@link #view()} to read single vehicles
+ * without materializing them, or {@link #getVehicle(int)} to create a
+ * {@link RailVehicle}.
+ * 
+ * This class is not thread safe.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public class FleetStore {
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final StringDictionary manufacturerDictionary = new StringDictionary();
+	private final StringDictionary classificationDictionary = new StringDictionary();
+
+	private byte[] types;
+	private byte[] drives;
+	private double[] emptyWeights;
+	private double[] tractiveForces;
+	private double[] maxAdditionalLoads;
+	private long[] lengths;
+	private long[] maxPassengers;
+	private int[] years;
+	private int[] manufacturers;
+	private int[] classifications;
+	private String[] serialNumbers;
+	private int size;
+
+	public FleetStore() {
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * @param capacity the number of vehicles that can be stored before the arrays
+	 *                 have to grow
+	 */
+	public FleetStore(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be at least 1");
+		}
+
+		this.types = new byte[capacity];
+		this.drives = new byte[capacity];
+		this.emptyWeights = new double[capacity];
+		this.tractiveForces = new double[capacity];
+		this.maxAdditionalLoads = new double[capacity];
+		this.lengths = new long[capacity];
+		this.maxPassengers = new long[capacity];
+		this.years = new int[capacity];
+		this.manufacturers = new int[capacity];
+		this.classifications = new int[capacity];
+		this.serialNumbers = new String[capacity];
+	}
+
+	/**
+	 * Adds the attributes of a vehicle to this store.
+	 * 
+	 * @param vehicle the vehicle to add
+	 * @return the index of the vehicle
+	 */
+	public int add(RailVehicle vehicle) {
+		SerialNumber serialNumber = Objects.requireNonNull(vehicle.getSerialNumber(),
+				"Serial number is required for a vehicle");
+		byte type = VehicleCodes.typeOf(vehicle);
+		this.ensureCapacity(this.size + 1);
+
+		int index = this.size++;
+		this.types[index] = type;
+		this.drives[index] = VehicleCodes.driveOf(vehicle);
+		this.tractiveForces[index] = VehicleCodes.tractiveForceOf(vehicle);
+		this.emptyWeights[index] = vehicle.getEmptyWeightInKilogram();
+		this.maxAdditionalLoads[index] = vehicle.getMaxAdditionalLoadInKilogram();
+		this.lengths[index] = vehicle.getLengthInMeters();
+		this.maxPassengers[index] = vehicle.getMaxPassengers();
+		this.years[index] = VehicleCodes.yearOf(vehicle);
+		this.manufacturers[index] = this.manufacturerDictionary.encode(VehicleCodes.manufacturerOf(vehicle));
+		this.classifications[index] = this.classificationDictionary.encode(VehicleCodes.classificationOf(vehicle));
+		this.serialNumbers[index] = serialNumber.getNumber();
+
+		return index;
+	}
+
+	/**
+	 * @return the number of stored vehicles
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	public VehicleType getType(int index) {
+		return VehicleCodes.type(this.types[this.checkIndex(index)]);
+	}
+
+	/**
+	 * @param index the vehicle's index
+	 * @return the type of drive or <code>null</code> if the vehicle is not a
+	 *         locomotive
+	 */
+	public Drive getTypeOfDrive(int index) {
+		return VehicleCodes.drive(this.drives[this.checkIndex(index)]);
+	}
+
+	public double getEmptyWeightInKilogram(int index) {
+		return this.emptyWeights[this.checkIndex(index)];
+	}
+
+	public double getTractiveForceInKilogram(int index) {
+		return this.tractiveForces[this.checkIndex(index)];
+	}
+
+	public double getMaxAdditionalLoadInKilogram(int index) {
+		return this.maxAdditionalLoads[this.checkIndex(index)];
+	}
+
+	public long getLengthInMeters(int index) {
+		return this.lengths[this.checkIndex(index)];
+	}
+
+	public long getMaxPassengers(int index) {
+		return this.maxPassengers[this.checkIndex(index)];
+	}
+
+	/**
+	 * @param index the vehicle's index
+	 * @return the year of manufacturing or {@link VehicleCodes#NO_YEAR} if it is
+	 *         unknown
+	 */
+	public int getYearOfManufacturing(int index) {
+		return this.years[this.checkIndex(index)];
+	}
+
+	public String getManufacturer(int index) {
+		return this.manufacturerDictionary.decode(this.manufacturers[this.checkIndex(index)]);
+	}
+
+	public String getClassification(int index) {
+		return this.classificationDictionary.decode(this.classifications[this.checkIndex(index)]);
+	}
+
+	public String getSerialNumber(int index) {
+		return this.serialNumbers[this.checkIndex(index)];
+	}
+
+	/**
+	 * @return a new flyweight view, which can be moved over all vehicles of this
+	 *         store
+	 */
+	public VehicleView view() {
+		return new VehicleView(this);
+	}
+
+	/**
+	 * Materializes a vehicle from this store.
+	 * 
+	 * @param index the vehicle's index
+	 * @return a new vehicle
+	 */
+	public RailVehicle getVehicle(int index) {
+		this.checkIndex(index);
+
+		return VehicleCodes.create(this.types[index], this.drives[index], this.years[index],
+				this.getClassification(index), this.getManufacturer(index), this.serialNumbers[index],
+				this.emptyWeights[index], this.tractiveForces[index], this.maxAdditionalLoads[index],
+				this.lengths[index], this.maxPassengers[index]);
+	}
+
+	/**
+	 * @return the total tractive force of all locomotives per type of drive
+	 */
+	public Map<Drive, Weight> getTractiveForceByDrive() {
+		Drive[] drives = Drive.values();
+		double[] totals = new double[drives.length];
+
+		for (int i = 0; i < this.size; i++) {
+			byte drive = this.drives[i];
+			if (drive != VehicleCodes.NO_DRIVE) {
+				totals[drive] += this.tractiveForces[i];
+			}
+		}
+
+		Map<Drive, Weight> result = new EnumMap<>(Drive.class);
+		for (Drive drive : drives) {
+			result.put(drive, new Weight(totals[drive.ordinal()]));
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return the total empty weight in kilogram of all vehicles
+	 */
+	public double getTotalEmptyWeightInKilogram() {
+		double total = 0d;
+		for (int i = 0; i < this.size; i++) {
+			total += this.emptyWeights[i];
+		}
+
+		return total;
+	}
+
+	/**
+	 * @return the total number of passengers that can be transported by all
+	 *         vehicles
+	 */
+	public long getTotalMaxPassengers() {
+		long total = 0L;
+		for (int i = 0; i < this.size; i++) {
+			total += this.maxPassengers[i];
+		}
+
+		return total;
+	}
+
+	private int checkIndex(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+
+		return index;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= this.types.length) {
+			return;
+		}
+
+		int newCapacity = Math.max(capacity, this.types.length + (this.types.length >> 1));
+
+		this.types = Arrays.copyOf(this.types, newCapacity);
+		this.drives = Arrays.copyOf(this.drives, newCapacity);
+		this.emptyWeights = Arrays.copyOf(this.emptyWeights, newCapacity);
+		this.tractiveForces = Arrays.copyOf(this.tractiveForces, newCapacity);
+		this.maxAdditionalLoads = Arrays.copyOf(this.maxAdditionalLoads, newCapacity);
+		this.lengths = Arrays.copyOf(this.lengths, newCapacity);
+		this.maxPassengers = Arrays.copyOf(this.maxPassengers, newCapacity);
+		this.years = Arrays.copyOf(this.years, newCapacity);
+		this.manufacturers = Arrays.copyOf(this.manufacturers, newCapacity);
+		this.classifications = Arrays.copyOf(this.classifications, newCapacity);
+		this.serialNumbers = Arrays.copyOf(this.serialNumbers, newCapacity);
+	}
+}
@@ -0,0 +1,64 @@
+package at.gwt.trainsim.fleet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes strings as consecutive int codes, so that each distinct string is
+ * only stored once. <code>null</code> is encoded as {@link #NULL_CODE}.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+class StringDictionary {
+	static final int NULL_CODE = -1;
+
+	private final Map<String, Integer> codes = new HashMap<>();
+	private final List<String> values = new ArrayList<>();
+
+	/**
+	 * @param value the string to encode
+	 * @return the code of the given string, a new one if it has not been encoded
+	 *         before
+	 */
+	int encode(String value) {
+		if (value == null) {
+			return NULL_CODE;
+		}
+
+		Integer code = this.codes.get(value);
+		if (code == null) {
+			code = this.values.size();
+			this.codes.put(value, code);
+			this.values.add(value);
+		}
+
+		return code;
+	}
+
+	/**
+	 * @param value the string to look up
+	 * @return the code of the given string or {@link #NULL_CODE} if it is unknown
+	 */
+	int find(String value) {
+		Integer code = value == null ? null : this.codes.get(value);
+		return code == null ? NULL_CODE : code;
+	}
+
+	/**
+	 * @param code the code to decode
+	 * @return the string for the given code
+	 */
+	String decode(int code) {
+		return code == NULL_CODE ? null : this.values.get(code);
+	}
+
+	/**
+	 * @return the number of distinct strings
+	 */
+	int size() {
+		return this.values.size();
+	}
+}
@@ -0,0 +1,36 @@
+package at.gwt.trainsim.fleet;
+
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.TrainSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The planning figures of a single {@link Train}, taken at one point in time.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Data
+@AllArgsConstructor
+public class TrainReport {
+	private long trainId;
+	private RailroadCompany company;
+	private boolean drivable;
+	private int requiredGuards;
+	private double weightInKilogram;
+	private long lengthInMeters;
+
+	/**
+	 * Takes all figures from one snapshot of the train, so they are consistent.
+	 * 
+	 * @param train the train to report on
+	 * @return the report
+	 */
+	public static TrainReport of(Train train) {
+		TrainSnapshot snapshot = train.getSnapshot();
+		return new TrainReport(snapshot.getTrainId(), snapshot.getCompany(), snapshot.isDrivable(),
+				snapshot.getRequiredGuards(), snapshot.getWeightInKilogram(), snapshot.getLengthInMeters());
+	}
+}
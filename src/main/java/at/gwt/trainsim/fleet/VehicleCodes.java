@@ -0,0 +1,95 @@
+package at.gwt.trainsim.fleet;
+
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+/**
+ * Encodes the attributes of a {@link RailVehicle} as primitive values and
+ * creates vehicles from them. Used by {@link FleetStore} and by the binary
+ * formats, so that all of them agree on the codes.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class VehicleCodes {
+	/**
+	 * The drive of a wagon or of a locomotive with an unknown drive
+	 */
+	public static final byte NO_DRIVE = -1;
+
+	/**
+	 * An unknown year of manufacturing
+	 */
+	public static final int NO_YEAR = Integer.MIN_VALUE;
+
+	private static final VehicleType[] TYPES = VehicleType.values();
+	private static final Drive[] DRIVES = Drive.values();
+
+	private VehicleCodes() {
+		// utility class
+	}
+
+	public static byte typeOf(RailVehicle vehicle) {
+		return (byte) VehicleType.of(vehicle).ordinal();
+	}
+
+	public static byte driveOf(RailVehicle vehicle) {
+		if (vehicle instanceof Locomotive && ((Locomotive) vehicle).getTypeOfDrive() != null) {
+			return (byte) ((Locomotive) vehicle).getTypeOfDrive().ordinal();
+		}
+
+		return NO_DRIVE;
+	}
+
+	public static int yearOf(RailVehicle vehicle) {
+		return vehicle.getYearOfManufacturing() == null ? NO_YEAR : vehicle.getYearOfManufacturing().getYear();
+	}
+
+	/**
+	 * @return the tractive force of a locomotive, 0 for wagons
+	 */
+	public static double tractiveForceOf(RailVehicle vehicle) {
+		return vehicle instanceof Locomotive ? ((Locomotive) vehicle).getTractiveForceInKilogram() : 0d;
+	}
+
+	public static String classificationOf(RailVehicle vehicle) {
+		return vehicle.getClassification() == null ? null : vehicle.getClassification().getDescription();
+	}
+
+	public static String manufacturerOf(RailVehicle vehicle) {
+		return vehicle.getManufacturer() == null ? null : vehicle.getManufacturer().getName();
+	}
+
+	public static VehicleType type(byte code) {
+		return TYPES[code];
+	}
+
+	/**
+	 * @return the drive or <code>null</code> for {@link #NO_DRIVE}
+	 */
+	public static Drive drive(byte code) {
+		return code == NO_DRIVE ? null : DRIVES[code];
+	}
+
+	/**
+	 * Creates a vehicle from its encoded attributes.
+	 *
+	 * @return a new vehicle
+	 */
+	public static RailVehicle create(byte type, byte drive, int year, String classification, String manufacturer,
+			String serialNumber, double emptyWeight, double tractiveForce, double maxAdditionalLoad, long length,
+			long maxPassengers) {
+		return type(type).create(new Weight(emptyWeight), new Weight(tractiveForce), new Length(length), maxPassengers,
+				new Weight(maxAdditionalLoad), classification == null ? null : Classification.of(classification),
+				manufacturer == null ? null : Manufacturer.of(manufacturer),
+				year == NO_YEAR ? null : new YearOfManufacturing(year), new SerialNumber(serialNumber),
+				drive(drive));
+	}
+}
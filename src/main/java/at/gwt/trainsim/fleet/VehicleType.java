@@ -0,0 +1,116 @@
+package at.gwt.trainsim.fleet;
+
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.DiningCar;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.FreightWagon;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.SleepingCar;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+/**
+ * Describes the concrete kind of a {@link RailVehicle}.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public enum VehicleType {
+	LOCOMOTIVE {
+		@Override
+		public RailVehicle create(Weight emptyWeight, Weight tractiveForce, Length length, long maxPassengers,
+				Weight maxAdditionalLoad, Classification classification, Manufacturer manufacturer,
+				YearOfManufacturing yearOfManufacturing, SerialNumber serialNumber, Drive typeOfDrive) {
+			return new Locomotive(emptyWeight, tractiveForce, length, maxPassengers, maxAdditionalLoad, classification,
+					manufacturer, yearOfManufacturing, serialNumber, typeOfDrive);
+		}
+	},
+	PASSENGER_CAR {
+		@Override
+		public RailVehicle create(Weight emptyWeight, Weight tractiveForce, Length length, long maxPassengers,
+				Weight maxAdditionalLoad, Classification classification, Manufacturer manufacturer,
+				YearOfManufacturing yearOfManufacturing, SerialNumber serialNumber, Drive typeOfDrive) {
+			return new PassengerCar(emptyWeight, length, maxPassengers, maxAdditionalLoad, classification, manufacturer,
+					yearOfManufacturing, serialNumber);
+		}
+	},
+	SLEEPING_CAR {
+		@Override
+		public RailVehicle create(Weight emptyWeight, Weight tractiveForce, Length length, long maxPassengers,
+				Weight maxAdditionalLoad, Classification classification, Manufacturer manufacturer,
+				YearOfManufacturing yearOfManufacturing, SerialNumber serialNumber, Drive typeOfDrive) {
+			return new SleepingCar(emptyWeight, length, maxPassengers, maxAdditionalLoad, classification, manufacturer,
+					yearOfManufacturing, serialNumber);
+		}
+	},
+	DINING_CAR {
+		@Override
+		public RailVehicle create(Weight emptyWeight, Weight tractiveForce, Length length, long maxPassengers,
+				Weight maxAdditionalLoad, Classification classification, Manufacturer manufacturer,
+				YearOfManufacturing yearOfManufacturing, SerialNumber serialNumber, Drive typeOfDrive) {
+			return new DiningCar(emptyWeight, length, maxPassengers, maxAdditionalLoad, classification, manufacturer,
+					yearOfManufacturing, serialNumber);
+		}
+	},
+	FREIGHT_WAGON {
+		@Override
+		public RailVehicle create(Weight emptyWeight, Weight tractiveForce, Length length, long maxPassengers,
+				Weight maxAdditionalLoad, Classification classification, Manufacturer manufacturer,
+				YearOfManufacturing yearOfManufacturing, SerialNumber serialNumber, Drive typeOfDrive) {
+			return new FreightWagon(emptyWeight, length, maxPassengers, maxAdditionalLoad, classification, manufacturer,
+					yearOfManufacturing, serialNumber);
+		}
+	};
+
+	/**
+	 * Creates a vehicle of this type. Tractive force and type of drive are ignored
+	 * for wagons.
+	 * 
+	 * @param emptyWeight         the vehicle's own weight
+	 * @param tractiveForce       the weight that a locomotive can pull
+	 * @param length              the length of the vehicle
+	 * @param maxPassengers       the number of passengers that can be transported
+	 * @param maxAdditionalLoad   the additional weight that can be transported
+	 * @param classification      the classification for the vehicle
+	 * @param manufacturer        the company which build the vehicle
+	 * @param yearOfManufacturing the year the vehicle has been built in
+	 * @param serialNumber        the vehicle's serial number
+	 * @param typeOfDrive         a locomotive's type of drive
+	 * @return a new vehicle
+	 */
+	public abstract RailVehicle create(Weight emptyWeight, Weight tractiveForce, Length length, long maxPassengers,
+			Weight maxAdditionalLoad, Classification classification, Manufacturer manufacturer,
+			YearOfManufacturing yearOfManufacturing, SerialNumber serialNumber, Drive typeOfDrive);
+
+	/**
+	 * @param vehicle the vehicle
+	 * @return the type of the given vehicle
+	 */
+	public static VehicleType of(RailVehicle vehicle) {
+		if (vehicle instanceof Locomotive) {
+			return LOCOMOTIVE;
+		} else if (vehicle instanceof SleepingCar) {
+			return SLEEPING_CAR;
+		} else if (vehicle instanceof DiningCar) {
+			return DINING_CAR;
+		} else if (vehicle instanceof PassengerCar) {
+			return PASSENGER_CAR;
+		} else if (vehicle instanceof FreightWagon) {
+			return FREIGHT_WAGON;
+		}
+
+		throw new IllegalArgumentException("Unknown vehicle type " + vehicle.getClass().getName());
+	}
+
+	/**
+	 * @return true for all wagons
+	 */
+	public boolean isWagon() {
+		return this != LOCOMOTIVE;
+	}
+}
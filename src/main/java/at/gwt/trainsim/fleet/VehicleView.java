@@ -0,0 +1,89 @@
+package at.gwt.trainsim.fleet;
+
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.RailVehicle;
+
+/**
+ * A flyweight view on one vehicle of a {@link FleetStore}. The same view can be
+ * moved over all vehicles of the store by calling {@link #moveTo(int)}, so
+ * reading the attributes of many vehicles does not create any objects.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public final class VehicleView {
+	private final FleetStore store;
+	private int index;
+
+	VehicleView(FleetStore store) {
+		this.store = store;
+	}
+
+	/**
+	 * @param index the index of the vehicle to view
+	 * @return this view
+	 */
+	public VehicleView moveTo(int index) {
+		if (index < 0 || index >= this.store.size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.store.size());
+		}
+
+		this.index = index;
+		return this;
+	}
+
+	public int getIndex() {
+		return this.index;
+	}
+
+	public VehicleType getType() {
+		return this.store.getType(this.index);
+	}
+
+	public Drive getTypeOfDrive() {
+		return this.store.getTypeOfDrive(this.index);
+	}
+
+	public double getEmptyWeightInKilogram() {
+		return this.store.getEmptyWeightInKilogram(this.index);
+	}
+
+	public double getTractiveForceInKilogram() {
+		return this.store.getTractiveForceInKilogram(this.index);
+	}
+
+	public double getMaxAdditionalLoadInKilogram() {
+		return this.store.getMaxAdditionalLoadInKilogram(this.index);
+	}
+
+	public long getLengthInMeters() {
+		return this.store.getLengthInMeters(this.index);
+	}
+
+	public long getMaxPassengers() {
+		return this.store.getMaxPassengers(this.index);
+	}
+
+	public int getYearOfManufacturing() {
+		return this.store.getYearOfManufacturing(this.index);
+	}
+
+	public String getManufacturer() {
+		return this.store.getManufacturer(this.index);
+	}
+
+	public String getClassification() {
+		return this.store.getClassification(this.index);
+	}
+
+	public String getSerialNumber() {
+		return this.store.getSerialNumber(this.index);
+	}
+
+	/**
+	 * @return a new vehicle with the attributes of the viewed one
+	 */
+	public RailVehicle toRailVehicle() {
+		return this.store.getVehicle(this.index);
+	}
+}
@@ -0,0 +1,129 @@
+package at.gwt.trainsim.io;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.TrainSnapshot;
+import at.gwt.trainsim.beans.Wagon;
+
+/**
+ * A detached copy of the vehicles of a train and their loads. Unlike a
+ * {@link Train} it does not claim its vehicles and is not thread safe.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+final class Consist {
+	private final long id;
+	private RailroadCompany company;
+	private final Map<SerialNumber, Locomotive> locomotives = new LinkedHashMap<>();
+	private final Map<SerialNumber, Wagon> wagons = new LinkedHashMap<>();
+	private final Map<SerialNumber, Load> loads = new HashMap<>();
+
+	Consist(long id, RailroadCompany company) {
+		this.id = id;
+		this.company = company;
+	}
+
+	/**
+	 * Copies the vehicles of a train and their loads from a snapshot of the
+	 * train.
+	 */
+	static Consist of(TrainSnapshot snapshot) {
+		Consist consist = new Consist(snapshot.getTrainId(), snapshot.getCompany());
+		snapshot.getLocomotives().forEach(consist::add);
+		snapshot.getWagons().forEach(consist::add);
+		for (RailVehicle vehicle : consist.getVehicles()) {
+			consist.setLoad(vehicle.getSerialNumber(), snapshot.getPassengers(vehicle),
+					snapshot.getFreightInKilogram(vehicle));
+		}
+
+		return consist;
+	}
+
+	long getId() {
+		return this.id;
+	}
+
+	RailroadCompany getCompany() {
+		return this.company;
+	}
+
+	void setCompany(RailroadCompany company) {
+		this.company = company;
+	}
+
+	Collection<Locomotive> getLocomotives() {
+		return this.locomotives.values();
+	}
+
+	Collection<Wagon> getWagons() {
+		return this.wagons.values();
+	}
+
+	/**
+	 * @return the locomotives followed by the wagons
+	 */
+	List<RailVehicle> getVehicles() {
+		List<RailVehicle> vehicles = new ArrayList<>(this.locomotives.size() + this.wagons.size());
+		vehicles.addAll(this.locomotives.values());
+		vehicles.addAll(this.wagons.values());
+
+		return vehicles;
+	}
+
+	long getPassengers(RailVehicle vehicle) {
+		Load load = this.loads.get(vehicle.getSerialNumber());
+		return load == null ? 0L : load.passengers;
+	}
+
+	double getFreightInKilogram(RailVehicle vehicle) {
+		Load load = this.loads.get(vehicle.getSerialNumber());
+		return load == null ? 0d : load.freight;
+	}
+
+	void add(Locomotive locomotive) {
+		this.locomotives.put(locomotive.getSerialNumber(), locomotive);
+	}
+
+	void add(Wagon wagon) {
+		this.wagons.put(wagon.getSerialNumber(), wagon);
+	}
+
+	void remove(SerialNumber serialNumber) {
+		this.locomotives.remove(serialNumber);
+		this.wagons.remove(serialNumber);
+		this.loads.remove(serialNumber);
+	}
+
+	/**
+	 * Sets the load of a vehicle of this consist. Vehicles which are not part of
+	 * this consist are ignored.
+	 */
+	void setLoad(SerialNumber serialNumber, long passengers, double freight) {
+		if (passengers == 0L && freight == 0d) {
+			this.loads.remove(serialNumber);
+		} else if (this.locomotives.containsKey(serialNumber) || this.wagons.containsKey(serialNumber)) {
+			this.loads.put(serialNumber, new Load(passengers, freight));
+		}
+	}
+
+	private static final class Load {
+		private final long passengers;
+		private final double freight;
+
+		private Load(long passengers, double freight) {
+			this.passengers = passengers;
+			this.freight = freight;
+		}
+	}
+}
@@ -0,0 +1,729 @@
+package at.gwt.trainsim.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import at.gwt.trainsim.beans.ConsistListener;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Wagon;
+
+/**
+ * An append-only journal of all changes of the trains managed by
+ * {@link Train.Service}, including the passengers and freight loaded into
+ * their vehicles.
+ *
+ * Changes are handed to a writer thread, which writes them in batches (group
+ * commit), so recording a change does not wait for the disk. When to force
+ * written changes to the disk is decided by the {@link FsyncPolicy}. Every
+ * record carries a CRC32, so a record torn by a crash is detected.
+ *
+ * {@link #open(Path, Path, FsyncPolicy, long)} recovers the trains from the
+ * snapshot and the journal and then compacts both into a new snapshot. The
+ * journal is compacted again whenever it contains a given number of records
+ * or when {@link #compact()} is called. Compaction works on a copy of the
+ * consists kept by the writer thread, so it never locks a train.
+ *
+ * Recording a change never blocks. If the writer thread falls behind by more
+ * than {@link #QUEUE_CAPACITY} changes, or a change cannot be written, the
+ * journal fails: further changes are not journaled and {@link #flush()},
+ * {@link #compact()} and {@link #close()} report the failure.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class ConsistJournal implements ConsistListener, Closeable {
+	private static final Logger LOG = LogManager.getLogger(ConsistJournal.class);
+
+	/**
+	 * Decides when written changes are forced to the disk.
+	 */
+	public enum FsyncPolicy {
+		/**
+		 * Leave it to the operating system. A crash of the machine may lose changes.
+		 */
+		NEVER,
+		/**
+		 * Force at most once per {@link ConsistJournal#SYNC_INTERVAL_MILLIS}.
+		 */
+		PERIODIC,
+		/**
+		 * Force after every batch.
+		 */
+		EVERY_BATCH
+	}
+
+	public static final long SYNC_INTERVAL_MILLIS = 1_000L;
+	public static final int QUEUE_CAPACITY = 64 * 1024;
+
+	private static final int MAX_BATCH = 4 * 1024;
+	private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+	private static final int RECORD_HEADER_SIZE = 8;
+
+	private static final byte TRAIN_CREATED = 1;
+	private static final byte LOCOMOTIVE_ADDED = 2;
+	private static final byte LOCOMOTIVE_REMOVED = 3;
+	private static final byte WAGON_ADDED = 4;
+	private static final byte WAGON_REMOVED = 5;
+	private static final byte TRAIN_DECOMMISSIONED = 6;
+	private static final byte LOAD_CHANGED = 7;
+	private static final byte COMPANY_CHANGED = 8;
+	private static final byte FLUSH = -1;
+	private static final byte COMPACT = -2;
+	private static final byte CLOSE = -3;
+
+	private final Path snapshotPath;
+	private final FsyncPolicy fsyncPolicy;
+	private final long compactAfterRecords;
+	private final FileChannel channel;
+	private final BlockingQueue<Entry> queue;
+	private final Map<Long, Consist> consists;
+	private final Thread writer;
+	private int replayedRecords;
+	private int skippedRecords;
+	private volatile boolean closed;
+	private volatile IOException failure;
+
+	// only accessed by the writer thread once it is started
+	private final RecordBuffer batch = new RecordBuffer();
+	private final RecordBuffer payload = new RecordBuffer();
+	private final CRC32 crc = new CRC32();
+	private long recordsSinceCompaction;
+	private long lastSync;
+	private boolean unsynced;
+
+	private ConsistJournal(Path snapshotPath, FsyncPolicy fsyncPolicy, long compactAfterRecords,
+			FileChannel channel) {
+		this.snapshotPath = snapshotPath;
+		this.fsyncPolicy = fsyncPolicy;
+		this.compactAfterRecords = compactAfterRecords;
+		this.channel = channel;
+		this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+		this.consists = new HashMap<>();
+		this.writer = new Thread(this::run, "consist-journal");
+		this.writer.setDaemon(true);
+	}
+
+	/**
+	 * Recovers all trains into {@link Train.Service} and starts journaling. This
+	 * must be called at startup, before any trains are changed. Trains which
+	 * already exist are not journaled.
+	 *
+	 * The snapshot is restored first, then every intact record of the journal is
+	 * replayed. Replaying is idempotent, changes which are already part of the
+	 * snapshot are ignored. Replay stops at the first torn or corrupt record.
+	 * Records which cannot be applied are logged and skipped.
+	 *
+	 * @param journalPath         the journal file, which is created if it does not
+	 *                            exist
+	 * @param snapshotPath        the snapshot file, which is created if it does
+	 *                            not exist
+	 * @param fsyncPolicy         when to force changes to the disk
+	 * @param compactAfterRecords number of records after which the journal is
+	 *                            compacted, 0 to compact on demand only
+	 * @return the journal, which must be closed
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public static ConsistJournal open(Path journalPath, Path snapshotPath, FsyncPolicy fsyncPolicy,
+			long compactAfterRecords) throws IOException {
+		Objects.requireNonNull(journalPath, "Journal path is required");
+		Objects.requireNonNull(snapshotPath, "Snapshot path is required");
+		Objects.requireNonNull(fsyncPolicy, "Fsync policy is required");
+		if (compactAfterRecords < 0) {
+			throw new IllegalArgumentException("Number of records must not be negative");
+		}
+
+		FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			ConsistJournal journal = new ConsistJournal(snapshotPath, fsyncPolicy, compactAfterRecords, channel);
+			if (Files.exists(snapshotPath)) {
+				for (Train train : FleetSnapshot.open(snapshotPath).restoreTrains()) {
+					journal.consists.put(train.getId(), null);
+				}
+			}
+			journal.replay();
+
+			// trains which existed before are not part of the journal
+			for (Long id : new ArrayList<>(journal.consists.keySet())) {
+				Optional<Train> train = Train.Service.getTrain(id);
+				if (train.isPresent()) {
+					journal.consists.put(id, Consist.of(train.get().getSnapshot()));
+				} else {
+					journal.consists.remove(id);
+				}
+			}
+			journal.compactNow();
+
+			Train.Service.addListener(journal);
+			journal.writer.start();
+			return journal;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return number of records replayed by {@link #open(Path, Path, FsyncPolicy, long)}
+	 */
+	public int getReplayedRecords() {
+		return this.replayedRecords;
+	}
+
+	/**
+	 * @return number of intact records which could not be replayed
+	 */
+	public int getSkippedRecords() {
+		return this.skippedRecords;
+	}
+
+	/**
+	 * Waits until all changes reported so far are written and forced to the
+	 * disk, regardless of the {@link FsyncPolicy}.
+	 *
+	 * @throws IOException if the journal cannot be written
+	 */
+	public void flush() throws IOException {
+		this.await(FLUSH);
+	}
+
+	/**
+	 * Writes all changes reported so far into the snapshot and clears the
+	 * journal.
+	 *
+	 * @throws IOException if the snapshot or the journal cannot be written
+	 */
+	public void compact() throws IOException {
+		this.await(COMPACT);
+	}
+
+	/**
+	 * Stops journaling after all changes reported so far are written and forced
+	 * to the disk.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+
+		Train.Service.removeListener(this);
+		try {
+			this.await(CLOSE);
+		} finally {
+			this.closed = true;
+			try {
+				this.writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.channel.close();
+		}
+	}
+
+	@Override
+	public void trainCreated(Train train) {
+		this.append(new Entry(TRAIN_CREATED, train.getId(), train.getCompany(),
+				train.getLocomotives().toArray(new RailVehicle[0]), train.getWagons().toArray(new RailVehicle[0])));
+	}
+
+	@Override
+	public void locomotiveAdded(Train train, Locomotive locomotive) {
+		this.append(new Entry(LOCOMOTIVE_ADDED, train.getId(), locomotive));
+	}
+
+	@Override
+	public void locomotiveRemoved(Train train, Locomotive locomotive) {
+		this.append(new Entry(LOCOMOTIVE_REMOVED, train.getId(), locomotive));
+	}
+
+	@Override
+	public void wagonAdded(Train train, Wagon wagon) {
+		this.append(new Entry(WAGON_ADDED, train.getId(), wagon));
+	}
+
+	@Override
+	public void wagonRemoved(Train train, Wagon wagon) {
+		this.append(new Entry(WAGON_REMOVED, train.getId(), wagon));
+	}
+
+	@Override
+	public void loadChanged(Train train, RailVehicle vehicle) {
+		this.append(new Entry(train.getId(), vehicle, train.getPassengers(vehicle),
+				train.getFreightInKilogram(vehicle)));
+	}
+
+	@Override
+	public void companyChanged(Train train) {
+		this.append(new Entry(COMPANY_CHANGED, train.getId(), train.getCompany(), null, null));
+	}
+
+	@Override
+	public void trainDecommissioned(Train train) {
+		this.append(new Entry(TRAIN_DECOMMISSIONED, train.getId(), null));
+	}
+
+	/**
+	 * Called by the listener methods while the train is locked, so it must not
+	 * block.
+	 */
+	private void append(Entry entry) {
+		if (this.closed || this.failure != null) {
+			return;
+		}
+
+		if (!this.queue.offer(entry)) {
+			this.fail(new IOException("Journal queue is full, change of train " + entry.trainId + " is lost"));
+		}
+	}
+
+	private void await(byte type) throws IOException {
+		if (this.closed) {
+			throw new IOException("Journal is closed");
+		}
+		if (this.failure != null && type != CLOSE) {
+			throw this.failure;
+		}
+
+		Entry marker = new Entry(type, 0L, null);
+		try {
+			this.queue.put(marker);
+			marker.done.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the journal");
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+		}
+	}
+
+	private void run() {
+		List<Entry> entries = new ArrayList<>(MAX_BATCH);
+		boolean running = true;
+
+		while (running) {
+			try {
+				Entry first = this.queue.poll(SYNC_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first != null) {
+					entries.add(first);
+					this.queue.drainTo(entries, MAX_BATCH - 1);
+				}
+			} catch (InterruptedException e) {
+				// only close() stops the writer
+				continue;
+			}
+
+			for (Entry entry : entries) {
+				running &= this.process(entry);
+			}
+			entries.clear();
+
+			this.endBatch();
+		}
+	}
+
+	private boolean process(Entry entry) {
+		if (entry.done == null) {
+			if (this.failure == null) {
+				this.encode(entry);
+			}
+			return true;
+		}
+
+		try {
+			if (this.failure != null) {
+				throw this.failure;
+			}
+
+			this.write();
+			this.sync(true);
+			if (entry.type == COMPACT) {
+				this.compactNow();
+			}
+
+			entry.done.complete(null);
+		} catch (IOException | RuntimeException e) {
+			IOException failure = this.fail(e);
+			entry.done.completeExceptionally(failure);
+		}
+
+		return entry.type != CLOSE;
+	}
+
+	private void endBatch() {
+		if (this.failure != null) {
+			return;
+		}
+
+		try {
+			this.write();
+			this.sync(this.fsyncPolicy == FsyncPolicy.EVERY_BATCH);
+			if (this.compactAfterRecords > 0 && this.recordsSinceCompaction >= this.compactAfterRecords) {
+				this.compactNow();
+			}
+		} catch (IOException | RuntimeException e) {
+			this.fail(e);
+		}
+	}
+
+	/**
+	 * Records the first failure, which stops journaling.
+	 *
+	 * @return the recorded failure
+	 */
+	private synchronized IOException fail(Exception e) {
+		if (this.failure == null) {
+			LOG.error("Journal cannot be written, further changes are lost", e);
+			this.failure = e instanceof IOException ? (IOException) e : new IOException(e);
+		}
+
+		return this.failure;
+	}
+
+	/**
+	 * Appends an entry to the current batch and applies it to the copy of the
+	 * consists. An entry which cannot be encoded fails the journal.
+	 */
+	private void encode(Entry entry) {
+		try {
+			this.payload.reset();
+			DataOutputStream out = new DataOutputStream(this.payload);
+			out.writeByte(entry.type);
+			out.writeLong(entry.trainId);
+
+			Consist consist = this.consists.get(entry.trainId);
+			switch (entry.type) {
+			case TRAIN_CREATED:
+				VehicleCodec.writeString(out, entry.company.getName());
+				consist = new Consist(entry.trainId, entry.company);
+				this.consists.put(entry.trainId, consist);
+
+				out.writeInt(entry.locomotives.length);
+				for (RailVehicle locomotive : entry.locomotives) {
+					VehicleCodec.write(out, locomotive);
+					consist.add((Locomotive) locomotive);
+				}
+				out.writeInt(entry.wagons.length);
+				for (RailVehicle wagon : entry.wagons) {
+					VehicleCodec.write(out, wagon);
+					consist.add((Wagon) wagon);
+				}
+				break;
+			case LOCOMOTIVE_ADDED:
+			case WAGON_ADDED:
+				VehicleCodec.write(out, entry.vehicle);
+				if (consist != null && entry.type == LOCOMOTIVE_ADDED) {
+					consist.add((Locomotive) entry.vehicle);
+				} else if (consist != null) {
+					consist.add((Wagon) entry.vehicle);
+				}
+				break;
+			case LOCOMOTIVE_REMOVED:
+			case WAGON_REMOVED:
+				VehicleCodec.writeString(out, entry.vehicle.getSerialNumber().getNumber());
+				if (consist != null) {
+					consist.remove(entry.vehicle.getSerialNumber());
+				}
+				break;
+			case LOAD_CHANGED:
+				VehicleCodec.writeString(out, entry.vehicle.getSerialNumber().getNumber());
+				out.writeLong(entry.passengers);
+				out.writeDouble(entry.freight);
+				if (consist != null) {
+					consist.setLoad(entry.vehicle.getSerialNumber(), entry.passengers, entry.freight);
+				}
+				break;
+			case COMPANY_CHANGED:
+				VehicleCodec.writeString(out, entry.company.getName());
+				if (consist != null) {
+					consist.setCompany(entry.company);
+				}
+				break;
+			default:
+				this.consists.remove(entry.trainId);
+			}
+
+			if (this.payload.size() > MAX_RECORD_SIZE) {
+				throw new IOException("Record of train " + entry.trainId + " exceeds " + MAX_RECORD_SIZE + " bytes");
+			}
+
+			this.crc.reset();
+			this.crc.update(this.payload.array(), 0, this.payload.size());
+
+			DataOutputStream record = new DataOutputStream(this.batch);
+			record.writeInt(this.payload.size());
+			record.writeInt((int) this.crc.getValue());
+			this.payload.writeTo(record);
+			this.recordsSinceCompaction++;
+		} catch (IOException | RuntimeException e) {
+			this.fail(e);
+		}
+	}
+
+	private void write() throws IOException {
+		if (this.batch.size() == 0) {
+			return;
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(this.batch.array(), 0, this.batch.size());
+		while (buffer.hasRemaining()) {
+			this.channel.write(buffer);
+		}
+		this.batch.reset();
+		this.unsynced = true;
+	}
+
+	private void sync(boolean force) throws IOException {
+		long now = System.currentTimeMillis();
+		if (this.unsynced && (force
+				|| (this.fsyncPolicy == FsyncPolicy.PERIODIC && now - this.lastSync >= SYNC_INTERVAL_MILLIS))) {
+			this.channel.force(false);
+			this.lastSync = now;
+			this.unsynced = false;
+		}
+	}
+
+	/**
+	 * Replaces the snapshot and clears the journal. A crash in between leaves the
+	 * new snapshot and the old journal, which is harmless as replay is
+	 * idempotent.
+	 */
+	private void compactNow() throws IOException {
+		Path temporary = this.snapshotPath.resolveSibling(this.snapshotPath.getFileName() + ".tmp");
+		FleetSnapshot.write(temporary, this.consists.values());
+		try (FileChannel snapshot = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+			snapshot.force(true);
+		}
+		Files.move(temporary, this.snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+
+		this.channel.truncate(0L);
+		this.channel.force(true);
+		this.recordsSinceCompaction = 0L;
+		this.unsynced = false;
+	}
+
+	private void replay() throws IOException {
+		long position = 0L;
+		this.channel.position(position);
+
+		// the stream must not be closed, as this would close the channel
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(this.channel)));
+		while (true) {
+			byte[] record;
+			int checksum;
+			try {
+				int length = in.readInt();
+				checksum = in.readInt();
+				if (length <= 0 || length > MAX_RECORD_SIZE) {
+					break;
+				}
+
+				record = new byte[length];
+				in.readFully(record);
+			} catch (EOFException e) {
+				break;
+			}
+
+			this.crc.reset();
+			this.crc.update(record, 0, record.length);
+			if ((int) this.crc.getValue() != checksum) {
+				break;
+			}
+
+			position += RECORD_HEADER_SIZE + record.length;
+			this.apply(record);
+		}
+
+		if (position < this.channel.size()) {
+			LOG.warn("Discarding {} bytes of a torn or corrupt journal tail", this.channel.size() - position);
+		}
+	}
+
+	private void apply(byte[] record) {
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+			byte type = in.readByte();
+			long trainId = in.readLong();
+
+			if (type == TRAIN_CREATED) {
+				RailroadCompany company = readCompany(in);
+				List<Locomotive> locomotives = new ArrayList<>();
+				for (int i = in.readInt(); i > 0; i--) {
+					locomotives.add((Locomotive) VehicleCodec.read(in));
+				}
+				List<Wagon> wagons = new ArrayList<>();
+				for (int i = in.readInt(); i > 0; i--) {
+					wagons.add((Wagon) VehicleCodec.read(in));
+				}
+
+				if (!Train.Service.getTrain(trainId).isPresent()) {
+					Train.Service.restoreTrain(trainId, company, locomotives, wagons);
+				}
+				this.consists.put(trainId, null);
+			} else {
+				Optional<Train> train = Train.Service.getTrain(trainId);
+				if (train.isPresent()) {
+					this.apply(type, train.get(), in);
+				}
+			}
+
+			this.replayedRecords++;
+		} catch (IOException | RuntimeException e) {
+			LOG.warn("Skipping journal record: {}", e.getMessage());
+			this.skippedRecords++;
+		}
+	}
+
+	private void apply(byte type, Train train, DataInputStream in) throws IOException {
+		switch (type) {
+		case LOCOMOTIVE_ADDED:
+		case WAGON_ADDED:
+			RailVehicle vehicle = VehicleCodec.read(in);
+			if (Train.Service.findTrain(vehicle).filter(train::equals).isPresent()) {
+				return;
+			}
+
+			if (type == LOCOMOTIVE_ADDED) {
+				train.addLocomotive((Locomotive) vehicle);
+			} else {
+				train.addWagon((Wagon) vehicle);
+			}
+			break;
+		case LOCOMOTIVE_REMOVED:
+			SerialNumber locomotive = new SerialNumber(VehicleCodec.readString(in));
+			train.getLocomotives().stream().filter(candidate -> locomotive.equals(candidate.getSerialNumber()))
+					.findFirst().ifPresent(train::removeLocomotive);
+			break;
+		case WAGON_REMOVED:
+			SerialNumber wagon = new SerialNumber(VehicleCodec.readString(in));
+			train.getWagons().stream().filter(candidate -> wagon.equals(candidate.getSerialNumber())).findFirst()
+					.ifPresent(train::removeWagon);
+			break;
+		case LOAD_CHANGED:
+			SerialNumber loaded = new SerialNumber(VehicleCodec.readString(in));
+			long passengers = in.readLong();
+			double freight = in.readDouble();
+			Stream.concat(train.getLocomotives().stream(), train.getWagons().stream())
+					.filter(candidate -> loaded.equals(candidate.getSerialNumber())).findFirst()
+					.ifPresent(candidate -> train.setLoad(candidate, passengers, freight));
+			break;
+		case COMPANY_CHANGED:
+			RailroadCompany company = readCompany(in);
+			if (!company.equals(train.getCompany())) {
+				train.setCompany(company);
+			}
+			break;
+		case TRAIN_DECOMMISSIONED:
+			Train.Service.decommission(train);
+			break;
+		default:
+			throw new IOException("Unknown record type " + type);
+		}
+	}
+
+	private static RailroadCompany readCompany(DataInputStream in) throws IOException {
+		String name = VehicleCodec.readString(in);
+		// companies without a name cannot be interned
+		return name == null ? new RailroadCompany(null) : RailroadCompany.of(name);
+	}
+
+	/**
+	 * A change waiting to be written, or a request to the writer thread.
+	 */
+	private static final class Entry {
+		private final byte type;
+		private final long trainId;
+		private final RailroadCompany company;
+		private final RailVehicle vehicle;
+		private final RailVehicle[] locomotives;
+		private final RailVehicle[] wagons;
+		private final long passengers;
+		private final double freight;
+		private final CompletableFuture<Void> done;
+
+		private Entry(byte type, long trainId, RailVehicle vehicle) {
+			this.type = type;
+			this.trainId = trainId;
+			this.company = null;
+			this.vehicle = vehicle;
+			this.locomotives = null;
+			this.wagons = null;
+			this.passengers = 0L;
+			this.freight = 0d;
+			this.done = type < 0 ? new CompletableFuture<>() : null;
+		}
+
+		private Entry(long trainId, RailVehicle vehicle, long passengers, double freight) {
+			this.type = LOAD_CHANGED;
+			this.trainId = trainId;
+			this.company = null;
+			this.vehicle = vehicle;
+			this.locomotives = null;
+			this.wagons = null;
+			this.passengers = passengers;
+			this.freight = freight;
+			this.done = null;
+		}
+
+		private Entry(byte type, long trainId, RailroadCompany company, RailVehicle[] locomotives,
+				RailVehicle[] wagons) {
+			this.type = type;
+			this.trainId = trainId;
+			this.company = company;
+			this.vehicle = null;
+			this.locomotives = locomotives;
+			this.wagons = wagons;
+			this.passengers = 0L;
+			this.freight = 0d;
+			this.done = null;
+		}
+	}
+
+	/**
+	 * Gives access to the bytes written so far without copying them.
+	 */
+	private static final class RecordBuffer extends ByteArrayOutputStream {
+		private RecordBuffer() {
+			super(64 * 1024);
+		}
+
+		private byte[] array() {
+			return this.buf;
+		}
+	}
+}
@@ -0,0 +1,365 @@
+package at.gwt.trainsim.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Wagon;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+import at.gwt.trainsim.fleet.VehicleType;
+
+/**
+ * Loads a rolling stock export in CSV format row by row. Each row is turned
+ * into a {@link RailVehicle} and, if the row names a train, added to that train
+ * through {@link Train.Service}. The input is read through a buffer of fixed
+ * size and rows are not kept after they have been processed, so the heap usage
+ * does not depend on the size of the export. Only wagons waiting for the
+ * locomotive of their train are kept, at most {@link #MAX_PENDING_WAGONS}.
+ * 
+ * The first row is a header naming the columns in any order. The columns
+ * <code>type</code>, <code>serialNumber</code>, <code>emptyWeight</code> and
+ * <code>length</code> are required. <code>type</code> is the name of a
+ * {@link VehicleType}. A row with a value in <code>train</code> also requires a
+ * <code>company</code>. Values may be enclosed in double quotes.
+ * 
+ * Rows that cannot be loaded are passed to the error handler and loading
+ * continues with the next row. Wagons that are listed before the first
+ * locomotive of their train are kept until that locomotive arrives. They are
+ * passed to the vehicle consumer and counted once they have been added to the
+ * train.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public class CsvFleetLoader {
+	private static final Logger LOG = LogManager.getLogger(CsvFleetLoader.class);
+
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Wagons listed before the locomotive of their train beyond this number are
+	 * rejected.
+	 */
+	public static final int MAX_PENDING_WAGONS = 64 * 1024;
+
+	private static final char SEPARATOR = ',';
+	private static final char QUOTE = '"';
+
+	private enum Column {
+		TYPE("type", true), SERIAL_NUMBER("serialNumber", true), CLASSIFICATION("classification", false),
+		MANUFACTURER("manufacturer", false), YEAR_OF_MANUFACTURING("yearOfManufacturing", false),
+		EMPTY_WEIGHT("emptyWeight", true), LENGTH("length", true), MAX_PASSENGERS("maxPassengers", false),
+		MAX_ADDITIONAL_LOAD("maxAdditionalLoad", false), TRACTIVE_FORCE("tractiveForce", false),
+		TYPE_OF_DRIVE("typeOfDrive", false), COMPANY("company", false), TRAIN("train", false);
+
+		private final String header;
+		private final boolean required;
+
+		private Column(String header, boolean required) {
+			this.header = header;
+			this.required = required;
+		}
+	}
+
+	private final Consumer<? super RailVehicle> vehicleConsumer;
+	private final Consumer<? super MalformedRow> errorHandler;
+	private final int bufferSize;
+
+	/**
+	 * Creates a loader that logs malformed rows.
+	 */
+	public CsvFleetLoader() {
+		this(vehicle -> {
+		}, row -> LOG.warn("Skipping line {}: {}", row.getLineNumber(), row.getReason()), DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param vehicleConsumer receives every vehicle that has been loaded
+	 * @param errorHandler    receives every row that could not be loaded
+	 * @param bufferSize      the size of the read buffer in characters
+	 */
+	public CsvFleetLoader(Consumer<? super RailVehicle> vehicleConsumer, Consumer<? super MalformedRow> errorHandler,
+			int bufferSize) {
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException("Buffer size must be at least 1");
+		}
+
+		this.vehicleConsumer = vehicleConsumer;
+		this.errorHandler = errorHandler;
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Loads all rows of the given export. The reader is not closed.
+	 * 
+	 * @param reader the export to read
+	 * @return a summary of the loaded rows
+	 * @throws IOException if the export cannot be read
+	 */
+	public LoadReport load(Reader reader) throws IOException {
+		return new Load().run(new BufferedReader(reader, this.bufferSize));
+	}
+
+	/**
+	 * Holds the state of a single call to {@link CsvFleetLoader#load(Reader)}.
+	 */
+	private class Load {
+		private final int[] columns = new int[Column.values().length];
+		private final List<String> fields = new ArrayList<>();
+		private final StringBuilder field = new StringBuilder();
+
+		private final Map<String, Train> trains = new HashMap<>();
+		private final Map<String, List<PendingWagon>> pendingWagons = new HashMap<>();
+
+		private long lineNumber;
+		private int pendingWagonCount;
+		private long rows;
+		private long vehicles;
+		private long malformedRows;
+
+		private LoadReport run(BufferedReader reader) throws IOException {
+			String line = reader.readLine();
+			if (line == null) {
+				return this.report();
+			}
+
+			this.lineNumber++;
+			this.readHeader(line);
+
+			while ((line = reader.readLine()) != null) {
+				this.lineNumber++;
+
+				if (line.isEmpty()) {
+					continue;
+				}
+
+				this.rows++;
+				try {
+					this.readRow(line);
+				} catch (RuntimeException e) {
+					this.reject(this.lineNumber, line, e.getMessage());
+				}
+			}
+
+			this.rejectPendingWagons();
+			return this.report();
+		}
+
+		private void readHeader(String line) {
+			split(line, this.fields, this.field);
+
+			for (Column column : Column.values()) {
+				int index = this.fields.indexOf(column.header);
+				if (index < 0 && column.required) {
+					throw new IllegalArgumentException("Column " + column.header + " is missing");
+				}
+
+				this.columns[column.ordinal()] = index;
+			}
+		}
+
+		private void readRow(String line) {
+			split(line, this.fields, this.field);
+
+			VehicleType type = VehicleType.valueOf(this.required(Column.TYPE).toUpperCase(Locale.ROOT));
+			String classification = this.optional(Column.CLASSIFICATION);
+			String manufacturer = this.optional(Column.MANUFACTURER);
+			String year = this.optional(Column.YEAR_OF_MANUFACTURING);
+			String drive = this.optional(Column.TYPE_OF_DRIVE);
+
+			RailVehicle vehicle = type.create(new Weight(this.number(Column.EMPTY_WEIGHT)),
+					new Weight(this.number(Column.TRACTIVE_FORCE)),
+					new Length(this.integer(Column.LENGTH)),
+					this.integer(Column.MAX_PASSENGERS), new Weight(this.number(Column.MAX_ADDITIONAL_LOAD)),
+					classification == null ? null : Classification.of(classification),
+					manufacturer == null ? null : Manufacturer.of(manufacturer),
+					year == null ? null : new YearOfManufacturing(Integer.parseInt(year)),
+					new SerialNumber(this.required(Column.SERIAL_NUMBER)),
+					drive == null ? null : Drive.valueOf(drive.toUpperCase(Locale.ROOT)));
+
+			String trainKey = this.optional(Column.TRAIN);
+			if (trainKey == null) {
+				this.accept(vehicle);
+			} else if (this.addToTrain(trainKey, vehicle, line)) {
+				this.accept(vehicle);
+				this.addPendingWagons(trainKey);
+			}
+		}
+
+		/**
+		 * @return true if the vehicle has been added, false if it waits for the
+		 *         locomotive of its train
+		 */
+		private boolean addToTrain(String trainKey, RailVehicle vehicle, String line) {
+			Train train = this.trains.get(trainKey);
+
+			if (vehicle instanceof Locomotive) {
+				Locomotive locomotive = (Locomotive) vehicle;
+
+				if (train == null) {
+					train = Train.Service.newTrain(RailroadCompany.of(this.required(Column.COMPANY)), locomotive);
+					this.trains.put(trainKey, train);
+				} else {
+					train.addLocomotive(locomotive);
+				}
+			} else if (train == null) {
+				if (this.pendingWagonCount == MAX_PENDING_WAGONS) {
+					throw new IllegalStateException("Too many wagons are waiting for the locomotive of their train");
+				}
+
+				this.pendingWagons.computeIfAbsent(trainKey, key -> new ArrayList<>())
+						.add(new PendingWagon(this.lineNumber, line, (Wagon) vehicle));
+				this.pendingWagonCount++;
+				return false;
+			} else {
+				train.addWagon((Wagon) vehicle);
+			}
+
+			return true;
+		}
+
+		private void addPendingWagons(String trainKey) {
+			List<PendingWagon> wagons = this.pendingWagons.remove(trainKey);
+			if (wagons == null) {
+				return;
+			}
+
+			Train train = this.trains.get(trainKey);
+			this.pendingWagonCount -= wagons.size();
+			for (PendingWagon pending : wagons) {
+				try {
+					train.addWagon(pending.wagon);
+					this.accept(pending.wagon);
+				} catch (RuntimeException e) {
+					this.reject(pending.lineNumber, pending.line, e.getMessage());
+				}
+			}
+		}
+
+		private void rejectPendingWagons() {
+			for (Iterator<List<PendingWagon>> iterator = this.pendingWagons.values().iterator(); iterator
+					.hasNext();) {
+				for (PendingWagon pending : iterator.next()) {
+					this.reject(pending.lineNumber, pending.line, "Train has no locomotive");
+				}
+
+				iterator.remove();
+			}
+
+			this.pendingWagonCount = 0;
+		}
+
+		private void accept(RailVehicle vehicle) {
+			this.vehicles++;
+			CsvFleetLoader.this.vehicleConsumer.accept(vehicle);
+		}
+
+		private void reject(long lineNumber, String line, String reason) {
+			this.malformedRows++;
+			CsvFleetLoader.this.errorHandler.accept(new MalformedRow(lineNumber, line, reason));
+		}
+
+		private String optional(Column column) {
+			int index = this.columns[column.ordinal()];
+			if (index < 0 || index >= this.fields.size()) {
+				return null;
+			}
+
+			String value = this.fields.get(index);
+			return value.isEmpty() ? null : value;
+		}
+
+		private String required(Column column) {
+			String value = this.optional(column);
+			if (value == null) {
+				throw new IllegalArgumentException("Value for " + column.header + " is missing");
+			}
+
+			return value;
+		}
+
+		private double number(Column column) {
+			String value = column.required ? this.required(column) : this.optional(column);
+			return value == null ? 0d : Double.parseDouble(value);
+		}
+
+		private long integer(Column column) {
+			String value = column.required ? this.required(column) : this.optional(column);
+			return value == null ? 0L : Long.parseLong(value);
+		}
+
+		private LoadReport report() {
+			return new LoadReport(this.rows, this.vehicles, this.trains.size(), this.malformedRows);
+		}
+	}
+
+	private static class PendingWagon {
+		private final long lineNumber;
+		private final String line;
+		private final Wagon wagon;
+
+		private PendingWagon(long lineNumber, String line, Wagon wagon) {
+			this.lineNumber = lineNumber;
+			this.line = line;
+			this.wagon = wagon;
+		}
+	}
+
+	/**
+	 * Splits a CSV line into its fields. Fields may be enclosed in double quotes,
+	 * two double quotes within a quoted field represent one double quote.
+	 */
+	static void split(String line, List<String> fields, StringBuilder field) {
+		fields.clear();
+		field.setLength(0);
+
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+
+			if (quoted) {
+				if (c == QUOTE && i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+					field.append(QUOTE);
+					i++;
+				} else if (c == QUOTE) {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == QUOTE) {
+				quoted = true;
+			} else if (c == SEPARATOR) {
+				fields.add(field.toString().trim());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+
+		if (quoted) {
+			throw new IllegalArgumentException("Unterminated quote");
+		}
+
+		fields.add(field.toString().trim());
+	}
+}
@@ -0,0 +1,516 @@
+package at.gwt.trainsim.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.TrainSnapshot;
+import at.gwt.trainsim.beans.Wagon;
+import at.gwt.trainsim.fleet.VehicleCodes;
+
+/**
+ * A versioned binary snapshot of a fleet and its trains.
+ *
+ * {@link #write(Path, Collection, Collection)} stores every vehicle as a fixed
+ * size record and every train as a list of vehicle indexes followed by the
+ * passengers and freight of its loaded vehicles. All strings are stored once
+ * in a string table. Snapshots of version 1, which have no loads, can still be
+ * read. {@link #open(Path)} memory-maps a snapshot
+ * without parsing it. Vehicles and trains are decoded when they are accessed,
+ * so the time to open a snapshot does not depend on its size.
+ *
+ * A snapshot can be at most 2 GB, which is the limit of a single
+ * {@link MappedByteBuffer}. Instances are not thread safe.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class FleetSnapshot {
+	static final int MAGIC = 0x5453494D; // "TSIM"
+	static final int VERSION = 2;
+
+	private static final int HEADER_SIZE = 48;
+	private static final int VEHICLE_RECORD_SIZE = 64;
+	private static final int LOAD_RECORD_SIZE = 20;
+	private static final int NO_STRING = -1;
+
+	private final ByteBuffer buffer;
+	private final int version;
+	private final int vehicleCount;
+	private final int trainCount;
+	private final int stringIndexOffset;
+	private final int vehicleOffset;
+	private final int trainIndexOffset;
+	private final String[] strings;
+
+	private FleetSnapshot(ByteBuffer buffer) {
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException("Not a fleet snapshot");
+		}
+		if (buffer.getInt(4) < 1 || buffer.getInt(4) > VERSION) {
+			throw new IllegalArgumentException("Unsupported snapshot version " + buffer.getInt(4));
+		}
+
+		this.buffer = buffer;
+		this.version = buffer.getInt(4);
+		this.vehicleCount = buffer.getInt(8);
+		this.trainCount = buffer.getInt(12);
+		this.strings = new String[buffer.getInt(16)];
+		this.stringIndexOffset = (int) buffer.getLong(24);
+		this.vehicleOffset = (int) buffer.getLong(32);
+		this.trainIndexOffset = (int) buffer.getLong(40);
+	}
+
+	/**
+	 * Memory-maps a snapshot. Nothing but the header is read.
+	 *
+	 * @param path the snapshot file
+	 * @return the opened snapshot
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public static FleetSnapshot open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Snapshot is too large to be mapped");
+			}
+
+			return new FleetSnapshot(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Writes a snapshot of the given vehicles and trains. Vehicles of the trains
+	 * do not need to be part of the fleet, they are added automatically.
+	 *
+	 * @param path   the snapshot file, which is replaced if it exists
+	 * @param fleet  the vehicles to store, regardless of whether they are part of
+	 *               a train
+	 * @param trains the trains to store
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Path path, Collection<? extends RailVehicle> fleet, Collection<Train> trains)
+			throws IOException {
+		new Writer(fleet, trains).write(path);
+	}
+
+	/**
+	 * Writes a snapshot of detached consists, which are not registered with
+	 * {@link Train.Service}.
+	 *
+	 * @param path     the snapshot file, which is replaced if it exists
+	 * @param consists the consists to store
+	 * @throws IOException if the file cannot be written
+	 */
+	static void write(Path path, Collection<Consist> consists) throws IOException {
+		Writer writer = new Writer(Collections.emptyList(), Collections.emptyList());
+		for (Consist consist : consists) {
+			writer.add(consist.getId(), consist.getCompany(), consist.getLocomotives(), consist.getWagons(),
+					consist::getPassengers, consist::getFreightInKilogram);
+		}
+
+		writer.write(path);
+	}
+
+	public int getVehicleCount() {
+		return this.vehicleCount;
+	}
+
+	public int getTrainCount() {
+		return this.trainCount;
+	}
+
+	/**
+	 * Decodes a vehicle from the snapshot.
+	 *
+	 * @param index the vehicle's index
+	 * @return a new vehicle
+	 */
+	public RailVehicle getVehicle(int index) {
+		if (index < 0 || index >= this.vehicleCount) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.vehicleCount);
+		}
+
+		int position = this.vehicleOffset + index * VEHICLE_RECORD_SIZE;
+
+		return VehicleCodes.create(this.buffer.get(position), this.buffer.get(position + 1),
+				this.buffer.getInt(position + 4), this.string(this.buffer.getInt(position + 8)),
+				this.string(this.buffer.getInt(position + 12)), this.string(this.buffer.getInt(position + 16)),
+				this.buffer.getDouble(position + 24), this.buffer.getDouble(position + 32),
+				this.buffer.getDouble(position + 40), this.buffer.getLong(position + 48),
+				this.buffer.getLong(position + 56));
+	}
+
+	/**
+	 * Restores a single train into {@link Train.Service}, keeping its id.
+	 *
+	 * @param id the id of the train
+	 * @return the restored train or an empty optional if the snapshot does not
+	 *         contain a train with the given id
+	 */
+	public Optional<Train> restoreTrain(long id) {
+		// trains are sorted by id
+		int low = 0;
+		int high = this.trainCount - 1;
+
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long middleId = this.buffer.getLong(this.trainPosition(middle));
+
+			if (middleId < id) {
+				low = middle + 1;
+			} else if (middleId > id) {
+				high = middle - 1;
+			} else {
+				return Optional.of(this.restoreTrainAt(middle));
+			}
+		}
+
+		return Optional.empty();
+	}
+
+	/**
+	 * Restores all trains of this snapshot into {@link Train.Service}, keeping
+	 * their ids. All trains are restored or none of them, trains restored before
+	 * a failure are decommissioned again.
+	 *
+	 * @return the restored trains
+	 */
+	public List<Train> restoreTrains() {
+		List<Train> trains = new ArrayList<>(this.trainCount);
+		try {
+			for (int i = 0; i < this.trainCount; i++) {
+				trains.add(this.restoreTrainAt(i));
+			}
+		} catch (RuntimeException e) {
+			trains.forEach(Train.Service::decommission);
+			throw e;
+		}
+
+		return trains;
+	}
+
+	private Train restoreTrainAt(int index) {
+		int position = this.trainPosition(index);
+
+		long id = this.buffer.getLong(position);
+		String companyName = this.string(this.buffer.getInt(position + 8));
+		// companies without a name cannot be interned
+		RailroadCompany company = companyName == null ? new RailroadCompany(null) : RailroadCompany.of(companyName);
+		int locomotiveCount = this.buffer.getInt(position + 12);
+		int wagonCount = this.buffer.getInt(position + 16);
+		int loadCount = this.version < 2 ? 0 : this.buffer.getInt(position + 20);
+		position += this.version < 2 ? 20 : 24;
+
+		List<Locomotive> locomotives = new ArrayList<>(locomotiveCount);
+		for (int i = 0; i < locomotiveCount; i++, position += 4) {
+			locomotives.add((Locomotive) this.getVehicle(this.buffer.getInt(position)));
+		}
+
+		List<Wagon> wagons = new ArrayList<>(wagonCount);
+		for (int i = 0; i < wagonCount; i++, position += 4) {
+			wagons.add((Wagon) this.getVehicle(this.buffer.getInt(position)));
+		}
+
+		Train train = Train.Service.restoreTrain(id, company, locomotives, wagons);
+		try {
+			for (int i = 0; i < loadCount; i++, position += LOAD_RECORD_SIZE) {
+				// loads refer to the train's vehicles, locomotives first
+				int vehicle = this.buffer.getInt(position);
+				train.setLoad(vehicle < locomotiveCount ? locomotives.get(vehicle)
+						: wagons.get(vehicle - locomotiveCount), this.buffer.getLong(position + 4),
+						this.buffer.getDouble(position + 12));
+			}
+		} catch (RuntimeException e) {
+			Train.Service.decommission(train);
+			throw e;
+		}
+
+		return train;
+	}
+
+	private int trainPosition(int index) {
+		return (int) this.buffer.getLong(this.trainIndexOffset + index * 8);
+	}
+
+	private String string(int code) {
+		if (code == NO_STRING) {
+			return null;
+		}
+
+		String value = this.strings[code];
+		if (value == null) {
+			int position = (int) this.buffer.getLong(this.stringIndexOffset + code * 8);
+			byte[] bytes = new byte[this.buffer.getInt(position)];
+
+			ByteBuffer source = this.buffer.duplicate();
+			source.position(position + 4);
+			source.get(bytes);
+
+			value = new String(bytes, StandardCharsets.UTF_8);
+			this.strings[code] = value;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Collects the content of a snapshot and writes it section by section.
+	 */
+	private static class Writer {
+		private final Map<SerialNumber, Integer> vehicleIndexes = new HashMap<>();
+		private final List<RailVehicle> vehicles = new ArrayList<>();
+		private final Map<String, Integer> stringCodes = new LinkedHashMap<>();
+		private final List<TrainRecord> trains = new ArrayList<>();
+
+		private Writer(Collection<? extends RailVehicle> fleet, Collection<Train> trains) {
+			fleet.forEach(this::index);
+
+			for (Train train : trains) {
+				TrainSnapshot snapshot = train.getSnapshot();
+				this.add(snapshot.getTrainId(), snapshot.getCompany(), snapshot.getLocomotives(),
+						snapshot.getWagons(), snapshot::getPassengers, snapshot::getFreightInKilogram);
+			}
+		}
+
+		private void add(long id, RailroadCompany company, Collection<? extends Locomotive> locomotives,
+				Collection<? extends Wagon> wagons, ToLongFunction<RailVehicle> passengers,
+				ToDoubleFunction<RailVehicle> freight) {
+			TrainRecord record = new TrainRecord(id, this.code(company.getName()),
+					locomotives.stream().mapToInt(this::index).toArray(),
+					wagons.stream().mapToInt(this::index).toArray());
+
+			int position = 0;
+			for (Locomotive locomotive : locomotives) {
+				record.addLoad(position++, passengers.applyAsLong(locomotive), freight.applyAsDouble(locomotive));
+			}
+			for (Wagon wagon : wagons) {
+				record.addLoad(position++, passengers.applyAsLong(wagon), freight.applyAsDouble(wagon));
+			}
+			this.trains.add(record);
+		}
+
+		private int index(RailVehicle vehicle) {
+			return this.vehicleIndexes.computeIfAbsent(vehicle.getSerialNumber(), serialNumber -> {
+				this.vehicles.add(vehicle);
+				return this.vehicles.size() - 1;
+			});
+		}
+
+		private int code(String value) {
+			if (value == null) {
+				return NO_STRING;
+			}
+
+			return this.stringCodes.computeIfAbsent(value, key -> this.stringCodes.size());
+		}
+
+		private void write(Path path) throws IOException {
+			this.trains.sort(Comparator.comparingLong(record -> record.id));
+
+			// encode all strings first, so that the string table is complete
+			int[][] vehicleStrings = new int[this.vehicles.size()][];
+			for (int i = 0; i < vehicleStrings.length; i++) {
+				RailVehicle vehicle = this.vehicles.get(i);
+				vehicleStrings[i] = new int[] { this.code(VehicleCodes.classificationOf(vehicle)),
+						this.code(VehicleCodes.manufacturerOf(vehicle)),
+						this.code(vehicle.getSerialNumber().getNumber()) };
+			}
+
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				SectionWriter out = new SectionWriter(channel, HEADER_SIZE);
+
+				long stringIndexOffset = out.position();
+				long stringOffset = stringIndexOffset + 8L * this.stringCodes.size();
+				List<byte[]> encodedStrings = new ArrayList<>(this.stringCodes.size());
+				for (String value : this.stringCodes.keySet()) {
+					byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+					encodedStrings.add(bytes);
+					out.putLong(stringOffset);
+					stringOffset += 4 + bytes.length;
+				}
+				for (byte[] bytes : encodedStrings) {
+					out.putInt(bytes.length);
+					out.put(bytes);
+				}
+
+				long vehicleOffset = out.position();
+				for (int i = 0; i < vehicleStrings.length; i++) {
+					this.writeVehicle(out, this.vehicles.get(i), vehicleStrings[i]);
+				}
+
+				long trainIndexOffset = out.position();
+				long trainOffset = trainIndexOffset + 8L * this.trains.size();
+				for (TrainRecord train : this.trains) {
+					out.putLong(trainOffset);
+					trainOffset += 24 + 4L * (train.locomotives.length + train.wagons.length)
+							+ (long) LOAD_RECORD_SIZE * train.loads.size();
+				}
+				for (TrainRecord train : this.trains) {
+					out.putLong(train.id);
+					out.putInt(train.company);
+					out.putInt(train.locomotives.length);
+					out.putInt(train.wagons.length);
+					out.putInt(train.loads.size());
+					for (int index : train.locomotives) {
+						out.putInt(index);
+					}
+					for (int index : train.wagons) {
+						out.putInt(index);
+					}
+					for (LoadRecord load : train.loads) {
+						out.putInt(load.vehicle);
+						out.putLong(load.passengers);
+						out.putDouble(load.freight);
+					}
+				}
+				out.flush();
+
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putInt(MAGIC).putInt(VERSION).putInt(this.vehicles.size()).putInt(this.trains.size())
+						.putInt(this.stringCodes.size()).putInt(0).putLong(stringIndexOffset).putLong(vehicleOffset)
+						.putLong(trainIndexOffset).flip();
+				while (header.hasRemaining()) {
+					channel.write(header, header.position());
+				}
+			}
+		}
+
+		private void writeVehicle(SectionWriter out, RailVehicle vehicle, int[] strings) throws IOException {
+			// same attributes as VehicleCodec, but strings are codes into the string table
+			out.put(VehicleCodes.typeOf(vehicle));
+			out.put(VehicleCodes.driveOf(vehicle));
+			out.putShort((short) 0);
+			out.putInt(VehicleCodes.yearOf(vehicle));
+			out.putInt(strings[0]);
+			out.putInt(strings[1]);
+			out.putInt(strings[2]);
+			out.putInt(0);
+			out.putDouble(vehicle.getEmptyWeightInKilogram());
+			out.putDouble(VehicleCodes.tractiveForceOf(vehicle));
+			out.putDouble(vehicle.getMaxAdditionalLoadInKilogram());
+			out.putLong(vehicle.getLengthInMeters());
+			out.putLong(vehicle.getMaxPassengers());
+		}
+	}
+
+	private static class TrainRecord {
+		private final long id;
+		private final int company;
+		private final int[] locomotives;
+		private final int[] wagons;
+		private final List<LoadRecord> loads = new ArrayList<>();
+
+		private TrainRecord(long id, int company, int[] locomotives, int[] wagons) {
+			this.id = id;
+			this.company = company;
+			this.locomotives = locomotives;
+			this.wagons = wagons;
+		}
+
+		/**
+		 * @param vehicle the position of the vehicle in the train, locomotives first
+		 */
+		private void addLoad(int vehicle, long passengers, double freight) {
+			if (passengers != 0L || freight != 0d) {
+				this.loads.add(new LoadRecord(vehicle, passengers, freight));
+			}
+		}
+	}
+
+	private static class LoadRecord {
+		private final int vehicle;
+		private final long passengers;
+		private final double freight;
+
+		private LoadRecord(int vehicle, long passengers, double freight) {
+			this.vehicle = vehicle;
+			this.passengers = passengers;
+			this.freight = freight;
+		}
+	}
+
+	/**
+	 * Writes to a file channel through a buffer of fixed size.
+	 */
+	private static class SectionWriter {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+		private long position;
+
+		private SectionWriter(FileChannel channel, long position) {
+			this.channel = channel;
+			this.position = position;
+		}
+
+		private long position() {
+			return this.position + this.buffer.position();
+		}
+
+		private void put(byte value) throws IOException {
+			this.ensureRemaining(1);
+			this.buffer.put(value);
+		}
+
+		private void put(byte[] values) throws IOException {
+			for (byte value : values) {
+				this.put(value);
+			}
+		}
+
+		private void putShort(short value) throws IOException {
+			this.ensureRemaining(2);
+			this.buffer.putShort(value);
+		}
+
+		private void putInt(int value) throws IOException {
+			this.ensureRemaining(4);
+			this.buffer.putInt(value);
+		}
+
+		private void putLong(long value) throws IOException {
+			this.ensureRemaining(8);
+			this.buffer.putLong(value);
+		}
+
+		private void putDouble(double value) throws IOException {
+			this.ensureRemaining(8);
+			this.buffer.putDouble(value);
+		}
+
+		private void ensureRemaining(int bytes) throws IOException {
+			if (this.buffer.remaining() < bytes) {
+				this.flush();
+			}
+		}
+
+		private void flush() throws IOException {
+			this.buffer.flip();
+			while (this.buffer.hasRemaining()) {
+				this.position += this.channel.write(this.buffer, this.position);
+			}
+			this.buffer.clear();
+		}
+	}
+}
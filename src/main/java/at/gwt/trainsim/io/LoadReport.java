@@ -0,0 +1,19 @@
+package at.gwt.trainsim.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Summarizes the loading of a fleet export.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Data
+@AllArgsConstructor
+public class LoadReport {
+	private final long rows;
+	private final long vehicles;
+	private final long trains;
+	private final long malformedRows;
+}
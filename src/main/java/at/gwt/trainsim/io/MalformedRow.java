@@ -0,0 +1,18 @@
+package at.gwt.trainsim.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Describes a row of a fleet export that could not be loaded.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Data
+@AllArgsConstructor
+public class MalformedRow {
+	private final long lineNumber;
+	private final String line;
+	private final String reason;
+}
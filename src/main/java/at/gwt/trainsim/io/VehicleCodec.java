@@ -0,0 +1,77 @@
+package at.gwt.trainsim.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.fleet.VehicleCodes;
+
+/**
+ * Writes and reads single vehicles in a compact binary form. Strings are
+ * written as UTF-8 with their length in bytes, so unlike
+ * {@link DataOutput#writeUTF(String)} they may be <code>null</code> and longer
+ * than 64 KB.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+final class VehicleCodec {
+	private VehicleCodec() {
+		// utility class
+	}
+
+	static void write(DataOutput out, RailVehicle vehicle) throws IOException {
+		out.writeByte(VehicleCodes.typeOf(vehicle));
+		out.writeByte(VehicleCodes.driveOf(vehicle));
+		out.writeInt(VehicleCodes.yearOf(vehicle));
+		writeString(out, VehicleCodes.classificationOf(vehicle));
+		writeString(out, VehicleCodes.manufacturerOf(vehicle));
+		writeString(out, vehicle.getSerialNumber().getNumber());
+		out.writeDouble(vehicle.getEmptyWeightInKilogram());
+		out.writeDouble(VehicleCodes.tractiveForceOf(vehicle));
+		out.writeDouble(vehicle.getMaxAdditionalLoadInKilogram());
+		out.writeLong(vehicle.getLengthInMeters());
+		out.writeLong(vehicle.getMaxPassengers());
+	}
+
+	static RailVehicle read(DataInput in) throws IOException {
+		byte type = in.readByte();
+		byte drive = in.readByte();
+		int year = in.readInt();
+		String classification = readString(in);
+		String manufacturer = readString(in);
+		String serialNumber = readString(in);
+		double emptyWeight = in.readDouble();
+		double tractiveForce = in.readDouble();
+		double maxAdditionalLoad = in.readDouble();
+		long length = in.readLong();
+		long maxPassengers = in.readLong();
+
+		return VehicleCodes.create(type, drive, year, classification, manufacturer, serialNumber, emptyWeight,
+				tractiveForce, maxAdditionalLoad, length, maxPassengers);
+	}
+
+	static void writeString(DataOutput out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	static String readString(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
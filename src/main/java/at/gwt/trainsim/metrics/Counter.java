@@ -0,0 +1,36 @@
+package at.gwt.trainsim.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * Counts events while {@link Metrics} are enabled. Counting from many threads
+ * does not contend, as a {@link LongAdder} is used.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public final class Counter {
+	@Getter
+	private final String name;
+	private final LongAdder count = new LongAdder();
+
+	public Counter(String name) {
+		this.name = name;
+	}
+
+	public void increment() {
+		if (Metrics.isEnabled()) {
+			this.count.increment();
+		}
+	}
+
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	public void reset() {
+		this.count.reset();
+	}
+}
@@ -0,0 +1,139 @@
+package at.gwt.trainsim.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts non negative values in log-linear buckets, like HdrHistogram. Values
+ * below 32 have a bucket each, larger values share a bucket with values that
+ * differ by less than 1/32, so percentiles are accurate to about 3%.
+ *
+ * Recording is lock free and does not allocate. Reading while values are
+ * recorded may miss the latest values.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class Histogram {
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * @param value the value, negative values are counted as 0
+	 */
+	public void record(long value) {
+		this.counts.getAndIncrement(index(Math.max(0L, value)));
+	}
+
+	public long getCount() {
+		long count = 0L;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += this.counts.get(i);
+		}
+
+		return count;
+	}
+
+	/**
+	 * @return the mean of all values, using the middle of each bucket
+	 */
+	public double getMean() {
+		long count = 0L;
+		double sum = 0d;
+		for (int i = 0; i < BUCKETS; i++) {
+			long bucketCount = this.counts.get(i);
+			if (bucketCount > 0) {
+				count += bucketCount;
+				sum += bucketCount * (lowest(i) + highest(i)) / 2d;
+			}
+		}
+
+		return count == 0L ? 0d : sum / count;
+	}
+
+	/**
+	 * @return the highest value of the highest bucket with values, 0 if there are
+	 *         no values
+	 */
+	public long getMax() {
+		for (int i = BUCKETS - 1; i >= 0; i--) {
+			if (this.counts.get(i) > 0) {
+				return highest(i);
+			}
+		}
+
+		return 0L;
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the highest value of the bucket containing the percentile, 0 if
+	 *         there are no values
+	 */
+	public long getPercentile(double percentile) {
+		if (percentile < 0d || percentile > 100d) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100");
+		}
+
+		long[] counts = new long[BUCKETS];
+		long total = 0L;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = this.counts.get(i);
+			total += counts[i];
+		}
+		if (total == 0L) {
+			return 0L;
+		}
+
+		long rank = Math.max(1L, (long) Math.ceil(percentile / 100d * total));
+		long seen = 0L;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return highest(i);
+			}
+		}
+
+		return this.getMax();
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			this.counts.set(i, 0L);
+		}
+	}
+
+	static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		int mantissa = (int) (value >>> shift) - SUB_BUCKETS;
+
+		return SUB_BUCKETS + shift * SUB_BUCKETS + mantissa;
+	}
+
+	static long lowest(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+
+		int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+		int mantissa = (index - SUB_BUCKETS) % SUB_BUCKETS;
+
+		return (long) (SUB_BUCKETS + mantissa) << shift;
+	}
+
+	static long highest(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+
+		int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+		return lowest(index) + (1L << shift) - 1L;
+	}
+}
@@ -0,0 +1,25 @@
+package at.gwt.trainsim.metrics;
+
+/**
+ * Switches all metrics on or off. Metrics are off unless the system property
+ * {@code trainsim.metrics} is true. While they are off, timers and counters
+ * only read this flag.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public final class Metrics {
+	private static volatile boolean enabled = Boolean.getBoolean("trainsim.metrics");
+
+	private Metrics() {
+		// static only
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(boolean enabled) {
+		Metrics.enabled = enabled;
+	}
+}
@@ -0,0 +1,51 @@
+package at.gwt.trainsim.metrics;
+
+import lombok.Getter;
+
+/**
+ * Measures how long an operation takes in nanoseconds while {@link Metrics}
+ * are enabled:
+ * 
+ * <pre>
+ * long start = timer.start();
+ * // the operation
+ * timer.stop(start);
+ * </pre>
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public final class Timer {
+	@Getter
+	private final String name;
+	@Getter
+	private final Histogram histogram = new Histogram();
+
+	public Timer(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return the start time or 0 if metrics are disabled
+	 */
+	public long start() {
+		return Metrics.isEnabled() ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * @param start the result of {@link #start()}
+	 */
+	public void stop(long start) {
+		if (start != 0L) {
+			this.histogram.record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * @return the current statistics of this timer
+	 */
+	public TimerSnapshot snapshot() {
+		return new TimerSnapshot(this.name, this.histogram.getCount(), this.histogram.getMean(),
+				this.histogram.getPercentile(50d), this.histogram.getPercentile(99d), this.histogram.getMax());
+	}
+}
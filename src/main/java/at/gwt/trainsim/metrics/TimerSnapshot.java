@@ -0,0 +1,22 @@
+package at.gwt.trainsim.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The statistics of a {@link Timer} at some point in time. All durations are
+ * in nanoseconds.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Data
+@AllArgsConstructor
+public class TimerSnapshot {
+	private String name;
+	private long count;
+	private double meanNanos;
+	private long medianNanos;
+	private long p99Nanos;
+	private long maxNanos;
+}
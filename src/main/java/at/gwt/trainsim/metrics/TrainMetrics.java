@@ -0,0 +1,128 @@
+package at.gwt.trainsim.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import at.gwt.trainsim.beans.Train;
+
+/**
+ * The metrics of {@link Train} and {@link Train.Service}: timers for creating
+ * trains, adding vehicles and claiming vehicles, a counter of the aggregate
+ * getters and gauges of the fleet size, which are calculated when they are
+ * read.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public final class TrainMetrics implements TrainMetricsMXBean {
+	public static final String OBJECT_NAME = "at.gwt.trainsim:type=TrainMetrics";
+
+	/**
+	 * Counts the trains of companies without a name in
+	 * {@link #getTrainsPerCompany()}
+	 */
+	public static final String UNNAMED_COMPANY = "";
+
+	private static final Logger LOG = LogManager.getLogger(TrainMetrics.class);
+
+	public static final Timer NEW_TRAIN = new Timer("newTrain");
+	public static final Timer ADD_LOCOMOTIVE = new Timer("addLocomotive");
+	public static final Timer ADD_WAGON = new Timer("addWagon");
+
+	/**
+	 * Checking that vehicles are not used by another train
+	 */
+	public static final Timer CLAIM = new Timer("claim");
+	public static final Counter AGGREGATE_READS = new Counter("aggregateReads");
+
+	private static final List<Timer> TIMERS = Arrays.asList(NEW_TRAIN, ADD_LOCOMOTIVE, ADD_WAGON, CLAIM);
+	private static final TrainMetrics instance = new TrainMetrics();
+
+	private TrainMetrics() {
+		// singleton
+	}
+
+	public static TrainMetrics getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Registers the metrics at the platform MBean server, unless they are
+	 * registered already.
+	 */
+	public static synchronized void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(instance, name);
+				LOG.info("Registered {}", OBJECT_NAME);
+			}
+		} catch (JMException e) {
+			LOG.warn("Cannot register {}", OBJECT_NAME, e);
+		}
+	}
+
+	/**
+	 * Logs all metrics at level info.
+	 */
+	public static void log() {
+		LOG.info("{} trains, {} aggregate reads", instance.getTrains(), AGGREGATE_READS.getCount());
+		for (TimerSnapshot timer : instance.getTimers()) {
+			LOG.info("{}: {} calls, mean {} ns, median {} ns, 99% {} ns, max {} ns", timer.getName(),
+					timer.getCount(), Math.round(timer.getMeanNanos()), timer.getMedianNanos(), timer.getP99Nanos(),
+					timer.getMaxNanos());
+		}
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return Metrics.isEnabled();
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		Metrics.setEnabled(enabled);
+		LOG.info("Metrics {}", enabled ? "enabled" : "disabled");
+	}
+
+	@Override
+	public int getTrains() {
+		return Train.Service.getTrains().size();
+	}
+
+	@Override
+	public Map<String, Long> getTrainsPerCompany() {
+		return Train.Service.getTrains().stream().collect(Collectors.groupingBy(
+				train -> Objects.toString(train.getCompany().getName(), UNNAMED_COMPANY), TreeMap::new,
+				Collectors.counting()));
+	}
+
+	@Override
+	public List<TimerSnapshot> getTimers() {
+		return TIMERS.stream().map(Timer::snapshot).collect(Collectors.toList());
+	}
+
+	@Override
+	public long getAggregateReads() {
+		return AGGREGATE_READS.getCount();
+	}
+
+	@Override
+	public void reset() {
+		TIMERS.forEach(timer -> timer.getHistogram().reset());
+		AGGREGATE_READS.reset();
+	}
+}
@@ -0,0 +1,37 @@
+package at.gwt.trainsim.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes {@link TrainMetrics} through JMX.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public interface TrainMetricsMXBean {
+
+	boolean isEnabled();
+
+	void setEnabled(boolean enabled);
+
+	/**
+	 * @return number of trains which have not been decommissioned
+	 */
+	int getTrains();
+
+	/**
+	 * @return number of trains by the name of their company, companies without a
+	 *         name are counted as {@link TrainMetrics#UNNAMED_COMPANY}
+	 */
+	Map<String, Long> getTrainsPerCompany();
+
+	List<TimerSnapshot> getTimers();
+
+	/**
+	 * @return number of calls of the aggregate getters of trains
+	 */
+	long getAggregateReads();
+
+	void reset();
+}
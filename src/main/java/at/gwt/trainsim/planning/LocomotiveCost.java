@@ -0,0 +1,47 @@
+package at.gwt.trainsim.planning;
+
+import java.util.Arrays;
+import java.util.List;
+
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.Locomotive;
+
+/**
+ * The cost of using a locomotive in a train. Costs must not be negative.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@FunctionalInterface
+public interface LocomotiveCost {
+
+	/**
+	 * Every locomotive costs the same, so the number of locomotives is minimized.
+	 */
+	LocomotiveCost COUNT = locomotive -> 1d;
+
+	/**
+	 * A locomotive costs its empty weight, so the weight of the train is
+	 * minimized.
+	 */
+	LocomotiveCost EMPTY_WEIGHT = Locomotive::getEmptyWeightInKilogram;
+
+	double of(Locomotive locomotive);
+
+	/**
+	 * Prefers few locomotives with the given drives. A locomotive with the first
+	 * drive costs 1, with the second drive 2 and so on. A locomotive with another
+	 * drive costs one more than the last given drive.
+	 * 
+	 * @param drives the drives from most to least preferred
+	 * @return the cost function
+	 */
+	static LocomotiveCost preferring(Drive... drives) {
+		List<Drive> preferred = Arrays.asList(drives.clone());
+
+		return locomotive -> {
+			int rank = preferred.indexOf(locomotive.getTypeOfDrive());
+			return rank < 0 ? preferred.size() + 1d : rank + 1d;
+		};
+	}
+}
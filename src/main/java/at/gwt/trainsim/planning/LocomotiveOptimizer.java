@@ -0,0 +1,331 @@
+package at.gwt.trainsim.planning;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Wagon;
+
+/**
+ * Finds the cheapest set of locomotives which makes a train drivable.
+ *
+ * A train is drivable if the tractive force of its locomotives exceeds its
+ * additional load. As locomotives may carry passengers themselves, every
+ * locomotive contributes its tractive force minus the weight of its
+ * passengers. Locomotives which do not contribute anything are never chosen.
+ *
+ * This is a covering knapsack problem. Candidates which are dominated by
+ * enough cheaper and stronger candidates are dropped first. The remaining
+ * candidates with the same contribution and cost are grouped, so a pool of
+ * thousands of locomotives of a few classes only has a few groups. The groups
+ * are searched by branch and bound, using the fractional solution as lower
+ * bound. The search stops after a given number of nodes and returns the best
+ * plan found so far.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class LocomotiveOptimizer {
+	public static final long DEFAULT_NODE_BUDGET = 1_000_000L;
+
+	private final LocomotiveCost cost;
+	private final long nodeBudget;
+
+	public LocomotiveOptimizer(LocomotiveCost cost) {
+		this(cost, DEFAULT_NODE_BUDGET);
+	}
+
+	/**
+	 * @param cost       the cost of each locomotive
+	 * @param nodeBudget maximum number of search nodes
+	 */
+	public LocomotiveOptimizer(LocomotiveCost cost, long nodeBudget) {
+		this.cost = Objects.requireNonNull(cost, "Cost is required");
+		if (nodeBudget <= 0) {
+			throw new IllegalArgumentException("Node budget must be positive");
+		}
+		this.nodeBudget = nodeBudget;
+	}
+
+	/**
+	 * Plans the locomotives for the wagons of a train. The train's current
+	 * locomotives are ignored, unless they are candidates.
+	 *
+	 * @param train      the train
+	 * @param candidates the locomotives to choose from
+	 * @return the cheapest plan or an empty optional if all candidates together
+	 *         cannot move the wagons
+	 */
+	public Optional<LocomotivePlan> optimize(Train train, Collection<? extends Locomotive> candidates) {
+		return this.optimize(load(train.getSnapshot().getWagons()), candidates);
+	}
+
+	/**
+	 * Plans the locomotives for the passengers and freight currently booked on
+	 * the wagons of a train, instead of their maximum load.
+	 *
+	 * @param train      the train
+	 * @param candidates the locomotives to choose from
+	 * @return the cheapest plan or an empty optional if all candidates together
+	 *         cannot move the wagons
+	 */
+	public Optional<LocomotivePlan> optimizeForCurrentLoad(Train train, Collection<? extends Locomotive> candidates) {
+		return this.optimize(train.getSnapshot().getWagonLoadInKilogram(), candidates);
+	}
+
+	/**
+	 * @param wagons     the wagons to move
+	 * @param candidates the locomotives to choose from
+	 * @return the cheapest plan or an empty optional if all candidates together
+	 *         cannot move the wagons
+	 */
+	public Optional<LocomotivePlan> optimize(Collection<? extends Wagon> wagons,
+			Collection<? extends Locomotive> candidates) {
+		return this.optimize(load(wagons), candidates);
+	}
+
+	/**
+	 * @param loadInKilogram the load the locomotives have to move
+	 * @param candidates     the locomotives to choose from
+	 * @return the cheapest plan or an empty optional if all candidates together
+	 *         cannot move the load
+	 */
+	public Optional<LocomotivePlan> optimize(double loadInKilogram, Collection<? extends Locomotive> candidates) {
+		Search search = new Search(this.group(candidates, loadInKilogram), loadInKilogram);
+		if (!search.start()) {
+			return Optional.empty();
+		}
+
+		search.run(0, loadInKilogram, 0d);
+		return Optional.of(search.plan());
+	}
+
+	/**
+	 * @param locomotive the locomotive
+	 * @return tractive force left for the wagons
+	 */
+	public static double netTractiveForce(Locomotive locomotive) {
+		return locomotive.getTractiveForceInKilogram()
+				- locomotive.getMaxPassengers() * Train.WEIGHT_PER_PASSENGER_IN_KILOGRAM;
+	}
+
+	/**
+	 * @param wagons the wagons
+	 * @return the load of the wagons, which counts for {@link Train#isDrivable()}
+	 */
+	public static double load(Collection<? extends Wagon> wagons) {
+		double load = 0d;
+		for (Wagon wagon : wagons) {
+			load += wagon.getMaxPassengers() * Train.WEIGHT_PER_PASSENGER_IN_KILOGRAM
+					+ wagon.getMaxAdditionalLoadInKilogram();
+		}
+
+		return load;
+	}
+
+	/**
+	 * Groups the useful candidates by contribution and cost and sorts the groups
+	 * by cost per contributed kilogram.
+	 */
+	private Type[] group(Collection<? extends Locomotive> candidates, double load) {
+		List<Type> candidateTypes = new ArrayList<>(candidates.size());
+		for (Locomotive locomotive : candidates) {
+			double net = netTractiveForce(locomotive);
+			double cost = this.cost.of(locomotive);
+			if (cost < 0d) {
+				throw new IllegalArgumentException(
+						"Cost of locomotive " + locomotive.getSerialNumber() + " is negative");
+			}
+			if (net > 0d) {
+				candidateTypes.add(new Type(net, cost, locomotive));
+			}
+		}
+
+		candidateTypes
+				.sort(Comparator.comparingDouble((Type type) -> -type.net).thenComparingDouble(type -> type.cost));
+
+		List<Type> types = new ArrayList<>();
+		for (Type type : prune(candidateTypes, load)) {
+			Type last = types.isEmpty() ? null : types.get(types.size() - 1);
+			if (last != null && last.net == type.net && last.cost == type.cost) {
+				last.members.addAll(type.members);
+			} else {
+				types.add(type);
+			}
+		}
+
+		types.sort(Comparator.comparingDouble((Type type) -> type.cost / type.net)
+				.thenComparing(Comparator.comparingDouble((Type type) -> type.net).reversed()));
+		return types.toArray(new Type[0]);
+	}
+
+	/**
+	 * Drops candidates which are dominated by too many others.
+	 *
+	 * If an optimal plan can contain at most k locomotives, a candidate for which
+	 * k others contribute at least as much for at most the same cost is not
+	 * needed: in any plan it can be replaced by one of them which is not part of
+	 * the plan yet. The greedy plan gives the bound k, as no plan has more
+	 * locomotives than its cost divided by the cheapest cost.
+	 *
+	 * @param candidates single candidates sorted by contribution descending, cost
+	 *                   ascending
+	 */
+	private static List<Type> prune(List<Type> candidates, double load) {
+		List<Type> byEfficiency = new ArrayList<>(candidates);
+		byEfficiency.sort(Comparator.comparingDouble((Type type) -> type.cost / type.net));
+
+		double greedyCost = 0d;
+		double minCost = Double.MAX_VALUE;
+		double remaining = load;
+		for (Type type : byEfficiency) {
+			if (remaining >= 0d) {
+				greedyCost += type.cost;
+				remaining -= type.net;
+			}
+			minCost = Math.min(minCost, type.cost);
+		}
+
+		if (remaining >= 0d || minCost == 0d || greedyCost / minCost >= candidates.size()) {
+			return candidates;
+		}
+
+		int maxCount = (int) (greedyCost / minCost);
+		PriorityQueue<Double> cheapest = new PriorityQueue<>(maxCount + 1, Comparator.reverseOrder());
+		List<Type> pruned = new ArrayList<>();
+		for (Type type : candidates) {
+			if (cheapest.size() < maxCount || cheapest.peek() > type.cost) {
+				pruned.add(type);
+			}
+
+			cheapest.add(type.cost);
+			if (cheapest.size() > maxCount) {
+				cheapest.poll();
+			}
+		}
+
+		return pruned;
+	}
+
+	/**
+	 * Locomotives with the same contribution and cost
+	 */
+	private static final class Type {
+		private final double net;
+		private final double cost;
+		private final List<Locomotive> members = new ArrayList<>();
+
+		private Type(double net, double cost, Locomotive locomotive) {
+			this.net = net;
+			this.cost = cost;
+			this.members.add(locomotive);
+		}
+	}
+
+	/**
+	 * The state of a single depth-first search. The load is covered as soon as
+	 * the remaining load is negative.
+	 */
+	private final class Search {
+		private final Type[] types;
+		private final double load;
+		private final double[] suffixNet;
+		private final int[] counts;
+		private final int[] best;
+		private double bestCost;
+		private long nodes;
+
+		private Search(Type[] types, double load) {
+			this.types = types;
+			this.load = load;
+			this.suffixNet = new double[types.length + 1];
+			for (int i = types.length - 1; i >= 0; i--) {
+				this.suffixNet[i] = this.suffixNet[i + 1] + types[i].net * types[i].members.size();
+			}
+			this.counts = new int[types.length];
+			this.best = new int[types.length];
+		}
+
+		/**
+		 * Takes the candidates greedily to get a first plan.
+		 *
+		 * @return false if the load cannot be covered at all
+		 */
+		private boolean start() {
+			if (this.suffixNet[0] <= this.load) {
+				return false;
+			}
+
+			double remaining = this.load;
+			for (int i = 0; i < this.types.length && remaining >= 0d; i++) {
+				Type type = this.types[i];
+				int count = Math.min(type.members.size(), (int) Math.floor(remaining / type.net) + 1);
+				this.best[i] = count;
+				this.bestCost += count * type.cost;
+				remaining -= count * type.net;
+			}
+
+			return true;
+		}
+
+		private void run(int index, double remaining, double cost) {
+			if (remaining < 0d) {
+				if (cost < this.bestCost) {
+					this.bestCost = cost;
+					System.arraycopy(this.counts, 0, this.best, 0, this.counts.length);
+				}
+				return;
+			}
+			if (index == this.types.length || this.suffixNet[index] <= remaining
+					|| cost + this.lowerBound(index, remaining) >= this.bestCost
+					|| ++this.nodes > LocomotiveOptimizer.this.nodeBudget) {
+				return;
+			}
+
+			Type type = this.types[index];
+			int max = Math.min(type.members.size(), (int) Math.floor(remaining / type.net) + 1);
+			for (int count = max; count >= 0; count--) {
+				this.counts[index] = count;
+				this.run(index + 1, remaining - count * type.net, cost + count * type.cost);
+			}
+			this.counts[index] = 0;
+		}
+
+		/**
+		 * The cost of covering the remaining load if locomotives could be split
+		 */
+		private double lowerBound(int index, double remaining) {
+			double bound = 0d;
+			for (int i = index; i < this.types.length && remaining > 0d; i++) {
+				Type type = this.types[i];
+				double net = type.net * type.members.size();
+				if (net >= remaining) {
+					return bound + remaining / type.net * type.cost;
+				}
+
+				bound += type.members.size() * type.cost;
+				remaining -= net;
+			}
+
+			return bound;
+		}
+
+		private LocomotivePlan plan() {
+			List<Locomotive> locomotives = new ArrayList<>();
+			double net = 0d;
+			for (int i = 0; i < this.types.length; i++) {
+				locomotives.addAll(this.types[i].members.subList(0, this.best[i]));
+				net += this.best[i] * this.types[i].net;
+			}
+
+			return new LocomotivePlan(locomotives, this.bestCost, net - this.load,
+					this.nodes <= LocomotiveOptimizer.this.nodeBudget);
+		}
+	}
+}
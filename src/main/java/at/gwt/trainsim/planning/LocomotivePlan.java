@@ -0,0 +1,32 @@
+package at.gwt.trainsim.planning;
+
+import java.util.List;
+
+import at.gwt.trainsim.beans.Locomotive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A set of locomotives found by the {@link LocomotiveOptimizer}.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Data
+@AllArgsConstructor
+public class LocomotivePlan {
+	private List<Locomotive> locomotives;
+	private double cost;
+
+	/**
+	 * Tractive force left after moving the wagons and the locomotives' own
+	 * passengers
+	 */
+	private double reserveInKilogram;
+
+	/**
+	 * False if the search has been stopped by its node budget. The plan is valid,
+	 * but there may be a cheaper one.
+	 */
+	private boolean optimal;
+}
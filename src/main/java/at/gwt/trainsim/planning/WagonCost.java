@@ -0,0 +1,41 @@
+package at.gwt.trainsim.planning;
+
+import at.gwt.trainsim.beans.Wagon;
+
+/**
+ * The cost of using a wagon in a train. Costs must not be negative.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@FunctionalInterface
+public interface WagonCost {
+
+	/**
+	 * Every wagon costs the same, so the number of wagons is minimized.
+	 */
+	WagonCost COUNT = wagon -> 1d;
+
+	/**
+	 * A wagon costs its length, so the length of the train is minimized.
+	 */
+	WagonCost LENGTH = wagon -> wagon.getLengthInMeters();
+
+	/**
+	 * A wagon costs its empty weight, so the weight of the train is minimized.
+	 */
+	WagonCost EMPTY_WEIGHT = Wagon::getEmptyWeightInKilogram;
+
+	double of(Wagon wagon);
+
+	/**
+	 * Combines length and empty weight.
+	 * 
+	 * @param perMeter     cost of a meter of length
+	 * @param perKilogram  cost of a kilogram of empty weight
+	 * @return the cost function
+	 */
+	static WagonCost weighted(double perMeter, double perKilogram) {
+		return wagon -> wagon.getLengthInMeters() * perMeter + wagon.getEmptyWeightInKilogram() * perKilogram;
+	}
+}
@@ -0,0 +1,33 @@
+package at.gwt.trainsim.planning;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * What the wagons of a train have to carry.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Data
+@AllArgsConstructor
+public class WagonDemand {
+	private long passengers;
+	private double freightInKilogram;
+
+	/**
+	 * Tractive force of the train's locomotives. The load of the chosen wagons
+	 * must stay below it, so the train remains drivable.
+	 */
+	private double tractiveForceInKilogram;
+
+	/**
+	 * Creates a demand without a limit for the load of the wagons.
+	 * 
+	 * @param passengers        number of passengers
+	 * @param freightInKilogram weight of freight
+	 */
+	public WagonDemand(long passengers, double freightInKilogram) {
+		this(passengers, freightInKilogram, Double.POSITIVE_INFINITY);
+	}
+}
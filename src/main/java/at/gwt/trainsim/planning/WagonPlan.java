@@ -0,0 +1,24 @@
+package at.gwt.trainsim.planning;
+
+import java.util.List;
+
+import at.gwt.trainsim.beans.Wagon;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The wagons chosen by the {@link WagonPlanner} for a {@link WagonDemand}.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Data
+@AllArgsConstructor
+public class WagonPlan {
+	private List<Wagon> wagons;
+	private long passengers;
+	private double freightInKilogram;
+	private long lengthInMeters;
+	private double emptyWeightInKilogram;
+	private double cost;
+}
@@ -0,0 +1,287 @@
+package at.gwt.trainsim.planning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Wagon;
+
+/**
+ * Chooses wagons from a pool of free wagons, so that a train can carry a given
+ * number of passengers and a given weight of freight at a low cost.
+ *
+ * The pool is indexed once: wagons with the same capacity, length, empty weight
+ * and cost are grouped into a type. A plan is built greedily by taking the type
+ * which covers most of the remaining demand per cost, then improved by removing
+ * wagons which are not needed and by replacing wagons with cheaper ones. Wagons
+ * of a plan are reserved, so a planner can fill many trains one after the
+ * other without using a wagon twice.
+ *
+ * The result is not guaranteed to be optimal. Instances are not thread safe.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class WagonPlanner {
+	private final WagonCost cost;
+	private final Type[] types;
+
+	/**
+	 * Types ordered by cost, most expensive first
+	 */
+	private final int[] byCostDescending;
+
+	/**
+	 * @param cost the cost of each wagon
+	 * @param pool the free wagons to choose from
+	 */
+	public WagonPlanner(WagonCost cost, Collection<? extends Wagon> pool) {
+		this.cost = Objects.requireNonNull(cost, "Cost is required");
+
+		Map<List<Object>, Type> types = new LinkedHashMap<>();
+		for (Wagon wagon : pool) {
+			double wagonCost = this.cost.of(wagon);
+			if (wagonCost < 0d) {
+				throw new IllegalArgumentException("Cost of wagon " + wagon.getSerialNumber() + " is negative");
+			}
+
+			List<Object> key = Arrays.asList(wagon.getMaxPassengers(), wagon.getMaxAdditionalLoadInKilogram(),
+					wagon.getLengthInMeters(), wagon.getEmptyWeightInKilogram(), wagonCost);
+			types.computeIfAbsent(key, k -> new Type(wagon, wagonCost)).members.add(wagon);
+		}
+
+		this.types = types.values().toArray(new Type[0]);
+		this.byCostDescending = new int[this.types.length];
+		Integer[] order = new Integer[this.types.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingDouble((Integer i) -> -this.types[i].cost));
+		for (int i = 0; i < order.length; i++) {
+			this.byCostDescending[i] = order[i];
+		}
+	}
+
+	/**
+	 * @return number of wagons which have not been reserved yet
+	 */
+	public int getAvailableWagons() {
+		int available = 0;
+		for (Type type : this.types) {
+			available += type.available();
+		}
+
+		return available;
+	}
+
+	/**
+	 * Plans and reserves the wagons for a demand.
+	 *
+	 * @param demand what the wagons have to carry
+	 * @return the plan or an empty optional if the available wagons cannot meet
+	 *         the demand
+	 */
+	public Optional<WagonPlan> plan(WagonDemand demand) {
+		Selection selection = new Selection(demand);
+		if (!selection.fill()) {
+			return Optional.empty();
+		}
+
+		selection.improve();
+		return Optional.of(selection.reserve());
+	}
+
+	/**
+	 * Wagons with the same capacity, length, weight and cost
+	 */
+	private static final class Type {
+		private final long passengers;
+		private final double freight;
+		private final double load;
+		private final long length;
+		private final double emptyWeight;
+		private final double cost;
+		private final List<Wagon> members = new ArrayList<>();
+		private int reserved;
+
+		private Type(Wagon wagon, double cost) {
+			this.passengers = wagon.getMaxPassengers();
+			this.freight = wagon.getMaxAdditionalLoadInKilogram();
+			this.load = this.passengers * Train.WEIGHT_PER_PASSENGER_IN_KILOGRAM + this.freight;
+			this.length = wagon.getLengthInMeters();
+			this.emptyWeight = wagon.getEmptyWeightInKilogram();
+			this.cost = cost;
+		}
+
+		private int available() {
+			return this.members.size() - this.reserved;
+		}
+	}
+
+	/**
+	 * The number of wagons of each type chosen for a single demand
+	 */
+	private final class Selection {
+		private final WagonDemand demand;
+		private final int[] taken;
+		private long passengers;
+		private double freight;
+		private double load;
+
+		private Selection(WagonDemand demand) {
+			this.demand = demand;
+			this.taken = new int[WagonPlanner.this.types.length];
+		}
+
+		/**
+		 * Adds the type covering most of the remaining demand per cost until the
+		 * demand is met.
+		 *
+		 * @return false if the demand cannot be met
+		 */
+		private boolean fill() {
+			Type[] types = WagonPlanner.this.types;
+
+			while (!this.isMet(this.passengers, this.freight)) {
+				int best = -1;
+				double bestScore = -1d;
+
+				for (int i = 0; i < types.length; i++) {
+					Type type = types[i];
+					if (type.available() <= this.taken[i]
+							|| this.load + type.load >= this.demand.getTractiveForceInKilogram()) {
+						continue;
+					}
+
+					double gain = this.gain(type);
+					if (gain <= 0d) {
+						continue;
+					}
+
+					double score = type.cost == 0d ? Double.POSITIVE_INFINITY : gain / type.cost;
+					if (score > bestScore) {
+						best = i;
+						bestScore = score;
+					}
+				}
+
+				if (best < 0) {
+					return false;
+				}
+				this.add(best, 1);
+			}
+
+			return true;
+		}
+
+		/**
+		 * Removes wagons which are not needed and replaces wagons by cheaper ones
+		 * until nothing changes anymore.
+		 */
+		private void improve() {
+			Type[] types = WagonPlanner.this.types;
+			boolean improved = true;
+
+			while (improved) {
+				improved = false;
+
+				for (int i : WagonPlanner.this.byCostDescending) {
+					while (this.taken[i] > 0 && this.isMet(this.passengers - types[i].passengers,
+							this.freight - types[i].freight)) {
+						this.add(i, -1);
+					}
+				}
+
+				for (int i : WagonPlanner.this.byCostDescending) {
+					if (this.taken[i] > 0) {
+						int cheaper = this.cheapestReplacement(i);
+						if (cheaper >= 0) {
+							this.add(i, -1);
+							this.add(cheaper, 1);
+							improved = true;
+						}
+					}
+				}
+			}
+		}
+
+		private int cheapestReplacement(int index) {
+			Type[] types = WagonPlanner.this.types;
+			Type replaced = types[index];
+			int best = -1;
+
+			for (int i = 0; i < types.length; i++) {
+				Type type = types[i];
+				if (type.cost < replaced.cost && (best < 0 || type.cost < types[best].cost)
+						&& type.available() > this.taken[i]
+						&& this.load - replaced.load + type.load < this.demand.getTractiveForceInKilogram()
+						&& this.isMet(this.passengers - replaced.passengers + type.passengers,
+								this.freight - replaced.freight + type.freight)) {
+					best = i;
+				}
+			}
+
+			return best;
+		}
+
+		private WagonPlan reserve() {
+			Type[] types = WagonPlanner.this.types;
+			List<Wagon> wagons = new ArrayList<>();
+			long length = 0L;
+			double emptyWeight = 0d;
+			double cost = 0d;
+
+			for (int i = 0; i < types.length; i++) {
+				Type type = types[i];
+				if (this.taken[i] > 0) {
+					wagons.addAll(type.members.subList(type.reserved, type.reserved + this.taken[i]));
+					type.reserved += this.taken[i];
+					length += this.taken[i] * type.length;
+					emptyWeight += this.taken[i] * type.emptyWeight;
+					cost += this.taken[i] * type.cost;
+				}
+			}
+
+			return new WagonPlan(wagons, this.passengers, this.freight, length, emptyWeight, cost);
+		}
+
+		private void add(int index, int count) {
+			Type type = WagonPlanner.this.types[index];
+			this.taken[index] += count;
+			this.passengers += count * type.passengers;
+			this.freight += count * type.freight;
+			this.load += count * type.load;
+		}
+
+		/**
+		 * Share of the remaining passengers and freight a wagon of the given type
+		 * covers
+		 */
+		private double gain(Type type) {
+			double gain = 0d;
+
+			long missingPassengers = this.demand.getPassengers() - this.passengers;
+			if (missingPassengers > 0) {
+				gain += (double) Math.min(type.passengers, missingPassengers) / this.demand.getPassengers();
+			}
+
+			double missingFreight = this.demand.getFreightInKilogram() - this.freight;
+			if (missingFreight > 0d) {
+				gain += Math.min(type.freight, missingFreight) / this.demand.getFreightInKilogram();
+			}
+
+			return gain;
+		}
+
+		private boolean isMet(long passengers, double freight) {
+			return passengers >= this.demand.getPassengers() && freight >= this.demand.getFreightInKilogram();
+		}
+	}
+}
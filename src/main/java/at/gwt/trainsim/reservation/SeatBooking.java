@@ -0,0 +1,51 @@
+package at.gwt.trainsim.reservation;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.Value;
+
+/**
+ * Seats next to each other in a wagon, booked for some segments of a route.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Value
+public class SeatBooking {
+	private final SeatMap seatMap;
+	private final int firstSeat;
+	private final int seats;
+
+	/**
+	 * First segment, inclusive
+	 */
+	private final int fromSegment;
+
+	/**
+	 * Last segment, exclusive
+	 */
+	private final int toSegment;
+
+	/**
+	 * Set once by the first cancellation, so the seats are released only once
+	 */
+	@Getter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private final AtomicBoolean cancelled = new AtomicBoolean();
+
+	public boolean isCancelled() {
+		return this.cancelled.get();
+	}
+
+	/**
+	 * @return true if this booking was not cancelled before
+	 */
+	boolean markCancelled() {
+		return this.cancelled.compareAndSet(false, true);
+	}
+}
@@ -0,0 +1,211 @@
+package at.gwt.trainsim.reservation;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import at.gwt.trainsim.beans.Wagon;
+import lombok.Getter;
+
+/**
+ * The seats of a single wagon along a route of up to 64 segments. A segment is
+ * the part of the route between two stops, a seat can be booked by different
+ * passengers for different segments.
+ *
+ * Each seat is a long word, in which bit i is set while segment i is booked.
+ * Seats are claimed and released by compare and set on these words, so
+ * bookings never block each other and a seat is never booked twice for a
+ * segment.
+ *
+ * {@link #claimAdjacent(int, int, int)} claims the seats of a run one after the
+ * other and releases them again if the run is interrupted. Runs are checked
+ * before anything is claimed, but a concurrent booking may still take a seat in
+ * between. A concurrent {@link #claim(int, int, int)} may therefore fail for a
+ * seat which is free again once the interrupted run has been released.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class SeatMap {
+	public static final int MAX_SEGMENTS = Long.SIZE;
+
+	@Getter
+	private final Wagon wagon;
+	@Getter
+	private final int segments;
+	private final AtomicLongArray seats;
+
+	/**
+	 * @param wagon    the wagon, which has a seat for each of its passengers
+	 * @param segments number of segments of the route
+	 */
+	public SeatMap(Wagon wagon, int segments) {
+		this(wagon, (int) wagon.getMaxPassengers(), segments);
+	}
+
+	/**
+	 * @param wagon    the wagon
+	 * @param seats    number of seats
+	 * @param segments number of segments of the route
+	 */
+	public SeatMap(Wagon wagon, int seats, int segments) {
+		if (segments <= 0 || segments > MAX_SEGMENTS) {
+			throw new IllegalArgumentException("Number of segments must be between 1 and " + MAX_SEGMENTS);
+		}
+		if (seats < 0) {
+			throw new IllegalArgumentException("Number of seats must not be negative");
+		}
+
+		this.wagon = wagon;
+		this.segments = segments;
+		this.seats = new AtomicLongArray(seats);
+	}
+
+	public int getSeats() {
+		return this.seats.length();
+	}
+
+	/**
+	 * @param seat        the seat
+	 * @param fromSegment first segment, inclusive
+	 * @param toSegment   last segment, exclusive
+	 * @return true if the seat is free for all given segments
+	 */
+	public boolean isFree(int seat, int fromSegment, int toSegment) {
+		return (this.seats.get(seat) & this.mask(fromSegment, toSegment)) == 0L;
+	}
+
+	/**
+	 * @param fromSegment first segment, inclusive
+	 * @param toSegment   last segment, exclusive
+	 * @return number of seats which are free for all given segments
+	 */
+	public int countFree(int fromSegment, int toSegment) {
+		long mask = this.mask(fromSegment, toSegment);
+		int free = 0;
+		for (int seat = 0; seat < this.seats.length(); seat++) {
+			if ((this.seats.get(seat) & mask) == 0L) {
+				free++;
+			}
+		}
+
+		return free;
+	}
+
+	/**
+	 * Books a seat for the given segments.
+	 *
+	 * @param seat        the seat
+	 * @param fromSegment first segment, inclusive
+	 * @param toSegment   last segment, exclusive
+	 * @return false if the seat is already booked for any of the segments
+	 */
+	public boolean claim(int seat, int fromSegment, int toSegment) {
+		return this.claim(seat, this.mask(fromSegment, toSegment));
+	}
+
+	/**
+	 * Releases a seat for the given segments. Releasing segments which are not
+	 * booked has no effect.
+	 *
+	 * @param seat        the seat
+	 * @param fromSegment first segment, inclusive
+	 * @param toSegment   last segment, exclusive
+	 */
+	public void release(int seat, int fromSegment, int toSegment) {
+		this.release(seat, this.mask(fromSegment, toSegment));
+	}
+
+	/**
+	 * Books the first free seats found next to each other. The search starts at a
+	 * random seat, so that concurrent bookings rarely compete for the same seats.
+	 *
+	 * @param count       number of seats next to each other
+	 * @param fromSegment first segment, inclusive
+	 * @param toSegment   last segment, exclusive
+	 * @return the first of the booked seats or -1 if there are not enough free
+	 *         seats next to each other
+	 */
+	public int claimAdjacent(int count, int fromSegment, int toSegment) {
+		if (count <= 0) {
+			throw new IllegalArgumentException("Number of seats must be positive");
+		}
+
+		long mask = this.mask(fromSegment, toSegment);
+		int starts = this.seats.length() - count + 1;
+		if (starts <= 0) {
+			return -1;
+		}
+
+		int offset = ThreadLocalRandom.current().nextInt(starts);
+		int i = 0;
+		while (i < starts) {
+			int first = (offset + i) % starts;
+			int claimed = this.claimRun(first, count, mask);
+			if (claimed == count) {
+				return first;
+			}
+
+			// the seat after the run is taken, no run starting before it can succeed
+			i += first + claimed + 1 < starts ? claimed + 1 : 1;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Claims count seats starting at the given seat. Nothing is claimed if any of
+	 * them is taken, claimed seats are released again if another booking takes a
+	 * seat of the run in the meantime.
+	 *
+	 * @return count or the number of free seats before the first taken one
+	 */
+	private int claimRun(int first, int count, long mask) {
+		for (int seat = first; seat < first + count; seat++) {
+			if ((this.seats.get(seat) & mask) != 0L) {
+				return seat - first;
+			}
+		}
+
+		int claimed = 0;
+		while (claimed < count && this.claim(first + claimed, mask)) {
+			claimed++;
+		}
+
+		if (claimed < count) {
+			for (int seat = first; seat < first + claimed; seat++) {
+				this.release(seat, mask);
+			}
+		}
+
+		return claimed;
+	}
+
+	private boolean claim(int seat, long mask) {
+		long current;
+		do {
+			current = this.seats.get(seat);
+			if ((current & mask) != 0L) {
+				return false;
+			}
+		} while (!this.seats.compareAndSet(seat, current, current | mask));
+
+		return true;
+	}
+
+	private void release(int seat, long mask) {
+		long current;
+		do {
+			current = this.seats.get(seat);
+		} while (!this.seats.compareAndSet(seat, current, current & ~mask));
+	}
+
+	private long mask(int fromSegment, int toSegment) {
+		if (fromSegment < 0 || toSegment > this.segments || fromSegment >= toSegment) {
+			throw new IllegalArgumentException(
+					"Segments " + fromSegment + " to " + toSegment + " are not part of the route");
+		}
+
+		long upTo = toSegment == Long.SIZE ? -1L : (1L << toSegment) - 1L;
+		return upTo & -(1L << fromSegment);
+	}
+}
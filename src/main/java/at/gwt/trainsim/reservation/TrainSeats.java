@@ -0,0 +1,121 @@
+package at.gwt.trainsim.reservation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.SleepingCar;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Wagon;
+import lombok.Getter;
+
+/**
+ * The seats of all passenger and sleeping cars of a train along a route.
+ *
+ * Bookings are lock free, see {@link SeatMap}. Wagons are tried starting at a
+ * different wagon for each thread, so that concurrent bookings are spread over
+ * the train. Instances are thread safe.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class TrainSeats {
+	@Getter
+	private final long trainId;
+	private final SeatMap[] seatMaps;
+
+	/**
+	 * @param trainId  the train's id
+	 * @param wagons   the wagons with seats
+	 * @param segments number of segments of the route
+	 */
+	public TrainSeats(long trainId, List<? extends Wagon> wagons, int segments) {
+		this.trainId = trainId;
+		this.seatMaps = new SeatMap[wagons.size()];
+		for (int i = 0; i < this.seatMaps.length; i++) {
+			this.seatMaps[i] = new SeatMap(wagons.get(i), segments);
+		}
+	}
+
+	/**
+	 * @param train    the train in its current composition
+	 * @param segments number of segments of the train's route
+	 * @return the seats of the train's passenger and sleeping cars
+	 */
+	public static TrainSeats of(Train train, int segments) {
+		List<Wagon> wagons = new ArrayList<>();
+		for (Wagon wagon : train.getSnapshot().getWagons()) {
+			if (wagon instanceof PassengerCar || wagon instanceof SleepingCar) {
+				wagons.add(wagon);
+			}
+		}
+
+		return new TrainSeats(train.getId(), wagons, segments);
+	}
+
+	public List<SeatMap> getSeatMaps() {
+		return Collections.unmodifiableList(Arrays.asList(this.seatMaps));
+	}
+
+	/**
+	 * Books seats next to each other in one wagon.
+	 *
+	 * @param seats       number of seats
+	 * @param fromSegment first segment, inclusive
+	 * @param toSegment   last segment, exclusive
+	 * @return the booking or an empty optional if no wagon has enough free seats
+	 *         next to each other
+	 */
+	public Optional<SeatBooking> book(int seats, int fromSegment, int toSegment) {
+		int start = (int) (Thread.currentThread().getId() % Math.max(1, this.seatMaps.length));
+		for (int i = 0; i < this.seatMaps.length; i++) {
+			SeatMap seatMap = this.seatMaps[(start + i) % this.seatMaps.length];
+			int first = seatMap.claimAdjacent(seats, fromSegment, toSegment);
+			if (first >= 0) {
+				return Optional.of(new SeatBooking(seatMap, first, seats, fromSegment, toSegment));
+			}
+		}
+
+		return Optional.empty();
+	}
+
+	/**
+	 * Releases the seats of a booking. Cancelling a booking again has no effect,
+	 * so seats booked by others in the meantime are never released.
+	 *
+	 * @param booking a booking made by this instance
+	 * @return true if the booking has been cancelled by this call
+	 */
+	public boolean cancel(SeatBooking booking) {
+		SeatMap seatMap = booking.getSeatMap();
+		if (!Arrays.asList(this.seatMaps).contains(seatMap)) {
+			throw new IllegalArgumentException("Booking has not been made for train " + this.trainId);
+		}
+		if (!booking.markCancelled()) {
+			return false;
+		}
+
+		for (int seat = booking.getFirstSeat(); seat < booking.getFirstSeat() + booking.getSeats(); seat++) {
+			seatMap.release(seat, booking.getFromSegment(), booking.getToSegment());
+		}
+
+		return true;
+	}
+
+	/**
+	 * @param fromSegment first segment, inclusive
+	 * @param toSegment   last segment, exclusive
+	 * @return number of seats which are free for all given segments
+	 */
+	public int countFree(int fromSegment, int toSegment) {
+		int free = 0;
+		for (SeatMap seatMap : this.seatMaps) {
+			free += seatMap.countFree(fromSegment, toSegment);
+		}
+
+		return free;
+	}
+}
@@ -0,0 +1,354 @@
+package at.gwt.trainsim.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.TrainSnapshot;
+
+/**
+ * Moves trains along a straight, level track in fixed time steps.
+ *
+ * Every train starts at the beginning of the track and stops when it reaches
+ * the end. Its locomotives pull with their full tractive force when standing.
+ * The force decreases linearly to zero at the top speed of the slowest drive
+ * of the train. Rolling resistance and air drag slow the train down. The
+ * adhesion of the wheels varies randomly from step to step, which reduces the
+ * force by up to {@link #ADHESION_VARIATION}.
+ *
+ * The random variation is a hash of the seed, the train's index and the step,
+ * so it does not depend on the order in which trains are advanced. A step can
+ * be split across the threads of a {@link ForkJoinPool} and the results are
+ * identical to a single threaded run with the same seed.
+ *
+ * The state of all trains is kept in primitive arrays, one entry per train, so
+ * a step does not allocate and runs over contiguous memory. Trains are
+ * captured when they are added, later changes of a {@link Train} are not
+ * reflected. Instances are not thread safe.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class Simulation {
+	public static final double GRAVITY = 9.81;
+
+	/**
+	 * Share of a train's weight needed to keep it rolling
+	 */
+	static final double ROLLING_RESISTANCE = 0.002;
+
+	/**
+	 * Air drag in newton per squared meters per second
+	 */
+	static final double AIR_DRAG = 6d;
+
+	/**
+	 * Maximum share of the tractive force lost by varying adhesion
+	 */
+	static final double ADHESION_VARIATION = 0.1;
+
+	/**
+	 * Number of trains advanced by one task of a parallel step
+	 */
+	static final int CHUNK_SIZE = 4 * 1024;
+
+	private final double trackLength;
+	private final double timeStep;
+	private final long seed;
+
+	private double[] position;
+	private double[] speed;
+	private double[] mass;
+	private double[] tractiveForce;
+	private double[] topSpeed;
+	private int size;
+	private long steps;
+
+	/**
+	 * @param trackLengthInMeters length of the track
+	 * @param timeStepInSeconds   time simulated by one step
+	 */
+	public Simulation(double trackLengthInMeters, double timeStepInSeconds) {
+		this(trackLengthInMeters, timeStepInSeconds, 16, 0L);
+	}
+
+	/**
+	 * @param trackLengthInMeters length of the track
+	 * @param timeStepInSeconds   time simulated by one step
+	 * @param capacity            expected number of trains
+	 * @param seed                seed of the random variation
+	 */
+	public Simulation(double trackLengthInMeters, double timeStepInSeconds, int capacity, long seed) {
+		if (trackLengthInMeters <= 0d || timeStepInSeconds <= 0d) {
+			throw new IllegalArgumentException("Track length and time step must be positive");
+		}
+
+		this.trackLength = trackLengthInMeters;
+		this.timeStep = timeStepInSeconds;
+		this.seed = seed;
+		this.position = new double[capacity];
+		this.speed = new double[capacity];
+		this.mass = new double[capacity];
+		this.tractiveForce = new double[capacity];
+		this.topSpeed = new double[capacity];
+	}
+
+	/**
+	 * Creates a simulation of all trains of {@link Train.Service}. Trains are
+	 * added in the order of their ids, so the same trains always get the same
+	 * indexes.
+	 *
+	 * @param trackLengthInMeters length of the track
+	 * @param timeStepInSeconds   time simulated by one step
+	 * @param seed                seed of the random variation
+	 * @return the simulation
+	 */
+	public static Simulation of(double trackLengthInMeters, double timeStepInSeconds, long seed) {
+		return of(Train.Service.getTrains(), trackLengthInMeters, timeStepInSeconds, seed);
+	}
+
+	/**
+	 * Creates a simulation of the given trains. Trains are added in the order of
+	 * their ids, so the same trains always get the same indexes.
+	 *
+	 * @param trains              the trains
+	 * @param trackLengthInMeters length of the track
+	 * @param timeStepInSeconds   time simulated by one step
+	 * @param seed                seed of the random variation
+	 * @return the simulation
+	 */
+	public static Simulation of(Collection<Train> trains, double trackLengthInMeters, double timeStepInSeconds,
+			long seed) {
+		List<Train> sorted = new ArrayList<>(trains);
+		sorted.sort(Comparator.comparingLong(Train::getId));
+
+		Simulation simulation = new Simulation(trackLengthInMeters, timeStepInSeconds, sorted.size(), seed);
+		sorted.forEach(simulation::add);
+		return simulation;
+	}
+
+	/**
+	 * Adds a train at the beginning of the track.
+	 *
+	 * @param train the train
+	 * @return the train's index in this simulation
+	 */
+	public int add(Train train) {
+		TrainSnapshot snapshot = train.getSnapshot();
+		double topSpeed = Double.MAX_VALUE;
+		for (Locomotive locomotive : snapshot.getLocomotives()) {
+			topSpeed = Math.min(topSpeed, topSpeed(locomotive.getTypeOfDrive()));
+		}
+
+		return this.add(snapshot.getWeightInKilogram(), snapshot.getTractiveForceInKilogram(), topSpeed);
+	}
+
+	/**
+	 * Adds a train at the beginning of the track.
+	 *
+	 * @param weightInKilogram        weight of the train including its load
+	 * @param tractiveForceInKilogram tractive force of the train's locomotives
+	 * @param drive                   the slowest drive of the train's locomotives
+	 * @return the train's index in this simulation
+	 */
+	public int add(double weightInKilogram, double tractiveForceInKilogram, Drive drive) {
+		return this.add(weightInKilogram, tractiveForceInKilogram, topSpeed(drive));
+	}
+
+	private int add(double weightInKilogram, double tractiveForceInKilogram, double topSpeed) {
+		if (weightInKilogram <= 0d) {
+			throw new IllegalArgumentException("Weight must be positive");
+		}
+
+		if (this.size == this.position.length) {
+			int capacity = Math.max(16, this.size * 2);
+			this.position = Arrays.copyOf(this.position, capacity);
+			this.speed = Arrays.copyOf(this.speed, capacity);
+			this.mass = Arrays.copyOf(this.mass, capacity);
+			this.tractiveForce = Arrays.copyOf(this.tractiveForce, capacity);
+			this.topSpeed = Arrays.copyOf(this.topSpeed, capacity);
+		}
+
+		int index = this.size++;
+		this.mass[index] = weightInKilogram;
+		this.tractiveForce[index] = tractiveForceInKilogram * GRAVITY;
+		this.topSpeed[index] = topSpeed;
+		return index;
+	}
+
+	/**
+	 * Advances all trains by one time step.
+	 */
+	public void step() {
+		this.advance(0, this.size);
+		this.steps++;
+	}
+
+	/**
+	 * Advances all trains by one time step, splitting the trains into chunks
+	 * which are advanced by the threads of the given pool.
+	 *
+	 * @param pool the pool to use
+	 */
+	public void step(ForkJoinPool pool) {
+		if (this.size <= CHUNK_SIZE) {
+			this.step();
+			return;
+		}
+
+		pool.invoke(new Chunk(0, this.size));
+		this.steps++;
+	}
+
+	/**
+	 * @param steps number of time steps to advance
+	 */
+	public void run(int steps) {
+		for (int i = 0; i < steps; i++) {
+			this.step();
+		}
+	}
+
+	/**
+	 * @param steps number of time steps to advance
+	 * @param pool  the pool to use
+	 */
+	public void run(int steps, ForkJoinPool pool) {
+		for (int i = 0; i < steps; i++) {
+			this.step(pool);
+		}
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return simulated time since the start in seconds
+	 */
+	public double getTimeInSeconds() {
+		return this.steps * this.timeStep;
+	}
+
+	public double getPositionInMeters(int index) {
+		this.checkIndex(index);
+		return this.position[index];
+	}
+
+	public double getSpeedInMetersPerSecond(int index) {
+		this.checkIndex(index);
+		return this.speed[index];
+	}
+
+	/**
+	 * @param index the train's index
+	 * @return true if the train has reached the end of the track
+	 */
+	public boolean hasArrived(int index) {
+		this.checkIndex(index);
+		return this.position[index] >= this.trackLength;
+	}
+
+	/**
+	 * @param drive a drive, or null if unknown
+	 * @return top speed in meters per second
+	 */
+	static double topSpeed(Drive drive) {
+		return Drive.topSpeedInKilometersPerHour(drive) / 3.6d;
+	}
+
+	/**
+	 * Advances the trains with indexes from, inclusive, to, exclusive.
+	 */
+	private void advance(int from, int to) {
+		double dt = this.timeStep;
+		double end = this.trackLength;
+		double[] position = this.position;
+		double[] speed = this.speed;
+		double[] mass = this.mass;
+		double[] tractiveForce = this.tractiveForce;
+		double[] topSpeed = this.topSpeed;
+		long stepSeed = mix(this.seed + this.steps * 0x9E3779B97F4A7C15L);
+
+		for (int i = from; i < to; i++) {
+			double x = position[i];
+			if (x >= end) {
+				continue;
+			}
+
+			double v = speed[i];
+			double m = mass[i];
+			double adhesion = 1d - ADHESION_VARIATION * uniform(stepSeed, i);
+			double pull = tractiveForce[i] * adhesion * Math.max(0d, 1d - v / topSpeed[i]);
+			double resistance = m * GRAVITY * ROLLING_RESISTANCE + AIR_DRAG * v * v;
+
+			// a standing train is held by its brakes if it cannot overcome the resistance
+			v = Math.max(0d, v + (pull - resistance) / m * dt);
+			x += v * dt;
+
+			if (x >= end) {
+				x = end;
+				v = 0d;
+			}
+
+			position[i] = x;
+			speed[i] = v;
+		}
+	}
+
+	/**
+	 * @return a number between 0, inclusive, and 1, exclusive, which only depends
+	 *         on the arguments
+	 */
+	static double uniform(long stepSeed, int index) {
+		return (mix(stepSeed ^ index) >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * The finalizer of SplitMix64
+	 */
+	private static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+
+	/**
+	 * Advances a range of trains, splitting it in halves until it fits into a
+	 * chunk.
+	 */
+	private final class Chunk extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+
+		private Chunk(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= CHUNK_SIZE) {
+				Simulation.this.advance(this.from, this.to);
+			} else {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new Chunk(this.from, middle), new Chunk(middle, this.to));
+			}
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+	}
+}
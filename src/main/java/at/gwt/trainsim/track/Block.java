@@ -0,0 +1,48 @@
+package at.gwt.trainsim.track;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A piece of track between two signals, which connects two nodes of a
+ * {@link TrackNetwork}. Only one train may be in a block at a time. Blocks can
+ * be used in both directions.
+ * 
+ * Blocks are created by {@link TrackNetwork#addBlock(String, String, long, boolean)}
+ * and are equal only to themselves.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Getter
+@ToString
+public final class Block {
+	private final int id;
+	private final String from;
+	private final String to;
+	private final long lengthInMeters;
+	private final boolean electrified;
+
+	Block(int id, String from, String to, long lengthInMeters, boolean electrified) {
+		this.id = id;
+		this.from = from;
+		this.to = to;
+		this.lengthInMeters = lengthInMeters;
+		this.electrified = electrified;
+	}
+
+	/**
+	 * @param node one end of this block
+	 * @return the other end of this block
+	 */
+	public String opposite(String node) {
+		if (this.from.equals(node)) {
+			return this.to;
+		}
+		if (this.to.equals(node)) {
+			return this.from;
+		}
+
+		throw new IllegalArgumentException("Block " + this.id + " does not end at " + node);
+	}
+}
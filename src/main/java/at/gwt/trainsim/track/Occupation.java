@@ -0,0 +1,76 @@
+package at.gwt.trainsim.track;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import at.gwt.trainsim.beans.Train;
+import lombok.Value;
+
+/**
+ * The time a train spends in a block, from when its head enters the block
+ * until its tail has left it. Times are in milliseconds, the end is exclusive.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Value
+public class Occupation {
+	private final Block block;
+	private final long fromMillis;
+	private final long toMillis;
+
+	/**
+	 * @param other another occupation
+	 * @return true if both occupy the same block at the same time
+	 */
+	public boolean conflictsWith(Occupation other) {
+		return this.block == other.block && this.fromMillis < other.toMillis && other.fromMillis < this.toMillis;
+	}
+
+	/**
+	 * Calculates the occupations of a train running along a path at constant
+	 * speed.
+	 * 
+	 * @param path                  the blocks in the order they are passed
+	 * @param train                 the train
+	 * @param speedInMetersPerSecond the train's speed
+	 * @param startMillis           the time the train's head enters the first block
+	 * @return one occupation per block of the path
+	 */
+	public static List<Occupation> along(List<Block> path, Train train, double speedInMetersPerSecond,
+			long startMillis) {
+		return along(path, train.getLengthInMeters(), speedInMetersPerSecond, startMillis);
+	}
+
+	/**
+	 * Calculates the occupations of a train running along a path at constant
+	 * speed.
+	 * 
+	 * @param path                   the blocks in the order they are passed
+	 * @param trainLengthInMeters    the length of the train
+	 * @param speedInMetersPerSecond the train's speed
+	 * @param startMillis            the time the train's head enters the first
+	 *                               block
+	 * @return one occupation per block of the path
+	 */
+	public static List<Occupation> along(List<Block> path, long trainLengthInMeters, double speedInMetersPerSecond,
+			long startMillis) {
+		if (speedInMetersPerSecond <= 0d) {
+			throw new IllegalArgumentException("Speed must be positive");
+		}
+
+		List<Occupation> occupations = new ArrayList<>(path.size());
+		double millisPerMeter = 1_000d / speedInMetersPerSecond;
+		long distance = 0L;
+
+		for (Block block : path) {
+			long enter = startMillis + (long) Math.floor(distance * millisPerMeter);
+			distance += block.getLengthInMeters();
+			long leave = startMillis + (long) Math.ceil((distance + trainLengthInMeters) * millisPerMeter);
+
+			occupations.add(new Occupation(block, enter, leave));
+		}
+
+		return occupations;
+	}
+}
@@ -0,0 +1,15 @@
+package at.gwt.trainsim.track;
+
+import lombok.Value;
+
+/**
+ * A block reserved for a train during a time window.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+@Value
+public class Reservation {
+	private final long trainId;
+	private final Occupation occupation;
+}
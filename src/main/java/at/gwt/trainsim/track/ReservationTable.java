@@ -0,0 +1,148 @@
+package at.gwt.trainsim.track;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Records which train occupies which block at which time.
+ * 
+ * As a block holds one train at a time, the reservations of a block never
+ * overlap. Sorted by start, each reservation also ends before the next one
+ * starts, so a sorted map per block serves as an interval tree: the only
+ * reservation which can overlap a time window is the last one starting before
+ * the window ends. Checking a path therefore takes logarithmic time per block.
+ * 
+ * Instances are thread safe. Reserving a path is atomic.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public final class ReservationTable {
+	private final Map<Block, TreeMap<Long, Reservation>> blocks = new HashMap<>();
+	private final Map<Long, List<Reservation>> trains = new HashMap<>();
+
+	/**
+	 * @param occupation a block and a time window
+	 * @return true if no train has reserved the block during the window
+	 */
+	public synchronized boolean isFree(Occupation occupation) {
+		return this.conflict(occupation) == null;
+	}
+
+	/**
+	 * @param occupations blocks and time windows, for example of a path
+	 * @return true if no train has reserved any of the blocks during its window
+	 */
+	public synchronized boolean isFree(Collection<Occupation> occupations) {
+		return !this.findConflict(occupations).isPresent();
+	}
+
+	/**
+	 * @param occupations blocks and time windows, for example of a path
+	 * @return the first reservation which overlaps any of the occupations
+	 */
+	public synchronized Optional<Reservation> findConflict(Collection<Occupation> occupations) {
+		for (Occupation occupation : occupations) {
+			Reservation conflict = this.conflict(occupation);
+			if (conflict != null) {
+				return Optional.of(conflict);
+			}
+		}
+
+		return Optional.empty();
+	}
+
+	/**
+	 * Reserves all occupations for a train, or none if any of them conflicts with
+	 * an existing reservation.
+	 * 
+	 * @param trainId     the train's id
+	 * @param occupations blocks and time windows, which must not overlap each other
+	 * @return true if the occupations have been reserved
+	 * @throws IllegalArgumentException if an occupation is empty or overlaps another
+	 *                                  one of the occupations
+	 */
+	public synchronized boolean reserve(long trainId, Collection<Occupation> occupations) {
+		Map<Block, List<Occupation>> byBlock = new HashMap<>();
+		for (Occupation occupation : occupations) {
+			if (occupation.getFromMillis() >= occupation.getToMillis()) {
+				throw new IllegalArgumentException(
+						"Occupation of block " + occupation.getBlock().getId() + " is empty");
+			}
+
+			List<Occupation> others = byBlock.computeIfAbsent(occupation.getBlock(), block -> new ArrayList<>());
+			for (Occupation other : others) {
+				if (occupation.conflictsWith(other)) {
+					throw new IllegalArgumentException(
+							"Occupations of block " + occupation.getBlock().getId() + " overlap");
+				}
+			}
+			others.add(occupation);
+		}
+		if (this.findConflict(occupations).isPresent()) {
+			return false;
+		}
+
+		List<Reservation> reserved = this.trains.computeIfAbsent(trainId, id -> new ArrayList<>());
+		for (Occupation occupation : occupations) {
+			Reservation reservation = new Reservation(trainId, occupation);
+			this.blocks.computeIfAbsent(occupation.getBlock(), block -> new TreeMap<>())
+					.put(occupation.getFromMillis(), reservation);
+			reserved.add(reservation);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Removes all reservations of a train.
+	 * 
+	 * @param trainId the train's id
+	 * @return number of removed reservations
+	 */
+	public synchronized int release(long trainId) {
+		List<Reservation> reserved = this.trains.remove(trainId);
+		if (reserved == null) {
+			return 0;
+		}
+
+		for (Reservation reservation : reserved) {
+			Occupation occupation = reservation.getOccupation();
+			TreeMap<Long, Reservation> block = this.blocks.get(occupation.getBlock());
+			block.remove(occupation.getFromMillis(), reservation);
+			if (block.isEmpty()) {
+				this.blocks.remove(occupation.getBlock());
+			}
+		}
+
+		return reserved.size();
+	}
+
+	/**
+	 * @param trainId the train's id
+	 * @return the reservations of a train
+	 */
+	public synchronized List<Reservation> getReservations(long trainId) {
+		return new ArrayList<>(this.trains.getOrDefault(trainId, new ArrayList<>()));
+	}
+
+	private Reservation conflict(Occupation occupation) {
+		TreeMap<Long, Reservation> block = this.blocks.get(occupation.getBlock());
+		if (block == null || occupation.getFromMillis() >= occupation.getToMillis()) {
+			return null;
+		}
+
+		Entry<Long, Reservation> last = block.lowerEntry(occupation.getToMillis());
+		if (last != null && last.getValue().getOccupation().getToMillis() > occupation.getFromMillis()) {
+			return last.getValue();
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,32 @@
+package at.gwt.trainsim.track;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * The fastest way through a {@link TrackNetwork} for a {@link TrainClass}, as
+ * found by a {@link Router}. Routes are cached and shared by the router, so
+ * they never change.
+ *
+ * @author gotthardwitsch
+ *
+ */
+@Value
+public class Route {
+	private final String from;
+	private final String to;
+	private final TrainClass trainClass;
+	private final List<Block> blocks;
+	private final long lengthInMeters;
+	private final double travelTimeInSeconds;
+
+	/**
+	 * @param startMillis the time the train's head enters the first block
+	 * @return the occupations to reserve for a train of the route's class
+	 */
+	public List<Occupation> occupations(long startMillis) {
+		return Occupation.along(this.blocks, this.trainClass.getLengthInMeters(),
+				this.trainClass.getSpeedInMetersPerSecond(), startMillis);
+	}
+}
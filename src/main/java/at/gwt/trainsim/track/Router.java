@@ -0,0 +1,246 @@
+package at.gwt.trainsim.track;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import at.gwt.trainsim.beans.Train;
+
+/**
+ * Finds the fastest routes through a {@link TrackNetwork} by A* search.
+ *
+ * The cost of a block is the time a train of a given {@link TrainClass} needs
+ * to run through it. Closed blocks and blocks the class cannot use are
+ * skipped. If the nodes have positions, the straight distance to the
+ * destination at the class's speed guides the search, otherwise it searches
+ * like Dijkstra's algorithm.
+ *
+ * Routes are cached by origin, destination and train class. The cache keeps
+ * the routes used most recently and is cleared as soon as the network's
+ * version changes. Instances are thread safe as long as the network is not
+ * changed while routes are searched.
+ *
+ * @author gotthardwitsch
+ *
+ */
+public final class Router {
+	public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+	private final TrackNetwork network;
+	private final Map<List<Object>, Optional<Route>> cache;
+	private long cachedVersion;
+	private long hits;
+	private long misses;
+
+	public Router(TrackNetwork network) {
+		this(network, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * @param network   the network to route through
+	 * @param cacheSize maximum number of cached routes, 0 disables the cache
+	 */
+	public Router(TrackNetwork network, int cacheSize) {
+		this.network = Objects.requireNonNull(network, "Network is required");
+		if (cacheSize < 0) {
+			throw new IllegalArgumentException("Cache size must not be negative");
+		}
+
+		this.cache = new LinkedHashMap<List<Object>, Optional<Route>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<List<Object>, Optional<Route>> eldest) {
+				return this.size() > cacheSize;
+			}
+		};
+		this.cachedVersion = network.getVersion();
+	}
+
+	/**
+	 * @param from  the origin
+	 * @param to    the destination
+	 * @param train the train in its current composition
+	 * @return the fastest route or an empty optional if the train cannot reach
+	 *         the destination
+	 */
+	public Optional<Route> route(String from, String to, Train train) {
+		return this.route(from, to, TrainClass.of(train));
+	}
+
+	/**
+	 * @param from       the origin
+	 * @param to         the destination
+	 * @param trainClass the class of the train
+	 * @return the fastest route or an empty optional if trains of the class
+	 *         cannot reach the destination
+	 */
+	public Optional<Route> route(String from, String to, TrainClass trainClass) {
+		List<Object> key = Arrays.asList(from, to, trainClass);
+		long version = this.network.getVersion();
+
+		synchronized (this.cache) {
+			if (version != this.cachedVersion) {
+				this.cache.clear();
+				this.cachedVersion = version;
+			}
+
+			Optional<Route> route = this.cache.get(key);
+			if (route != null) {
+				this.hits++;
+				return route;
+			}
+			this.misses++;
+		}
+
+		Optional<Route> route = this.search(from, to, trainClass);
+
+		synchronized (this.cache) {
+			if (version == this.cachedVersion) {
+				this.cache.put(key, route);
+			}
+		}
+
+		return route;
+	}
+
+	public long getCacheHits() {
+		synchronized (this.cache) {
+			return this.hits;
+		}
+	}
+
+	public long getCacheMisses() {
+		synchronized (this.cache) {
+			return this.misses;
+		}
+	}
+
+	public int getCacheSize() {
+		synchronized (this.cache) {
+			return this.cache.size();
+		}
+	}
+
+	private Optional<Route> search(String from, String to, TrainClass trainClass) {
+		TrackNetwork network = this.network;
+		int origin = network.indexOf(from);
+		int destination = network.indexOf(to);
+		double speed = trainClass.getSpeedInMetersPerSecond();
+
+		double[] time = new double[network.size()];
+		Arrays.fill(time, Double.POSITIVE_INFINITY);
+		int[] via = new int[network.size()];
+		BitSet done = new BitSet(network.size());
+		Heap open = new Heap();
+
+		time[origin] = 0d;
+		open.push(origin, network.distance(origin, destination) / speed);
+
+		while (!open.isEmpty()) {
+			int node = open.pop();
+			if (node == destination) {
+				return Optional.of(this.route(from, to, trainClass, via, origin, destination));
+			}
+			if (done.get(node)) {
+				continue;
+			}
+			done.set(node);
+
+			for (Block block : network.blocksAt(node)) {
+				if (network.isClosed(block.getId()) || !trainClass.canUse(block)) {
+					continue;
+				}
+
+				int next = network.opposite(block.getId(), node);
+				double arrival = time[node] + block.getLengthInMeters() / speed;
+				if (arrival < time[next]) {
+					time[next] = arrival;
+					via[next] = block.getId();
+					open.push(next, arrival + network.distance(next, destination) / speed);
+				}
+			}
+		}
+
+		return Optional.empty();
+	}
+
+	private Route route(String from, String to, TrainClass trainClass, int[] via, int origin, int destination) {
+		List<Block> blocks = new ArrayList<>();
+		long length = 0L;
+		for (int node = destination; node != origin; node = this.network.opposite(via[node], node)) {
+			Block block = this.network.getBlock(via[node]);
+			blocks.add(block);
+			length += block.getLengthInMeters();
+		}
+		Collections.reverse(blocks);
+
+		return new Route(from, to, trainClass, Collections.unmodifiableList(blocks), length,
+				blocks.isEmpty() ? 0d : trainClass.travelTime(length));
+	}
+
+	/**
+	 * A binary min heap of node indexes. A node may be pushed again with a lower
+	 * priority, the outdated entries are skipped when they are popped.
+	 */
+	private static final class Heap {
+		private int[] nodes = new int[64];
+		private double[] priorities = new double[64];
+		private int size;
+
+		private boolean isEmpty() {
+			return this.size == 0;
+		}
+
+		private void push(int node, double priority) {
+			if (this.size == this.nodes.length) {
+				this.nodes = Arrays.copyOf(this.nodes, this.size * 2);
+				this.priorities = Arrays.copyOf(this.priorities, this.size * 2);
+			}
+
+			int i = this.size++;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (this.priorities[parent] <= priority) {
+					break;
+				}
+				this.nodes[i] = this.nodes[parent];
+				this.priorities[i] = this.priorities[parent];
+				i = parent;
+			}
+			this.nodes[i] = node;
+			this.priorities[i] = priority;
+		}
+
+		private int pop() {
+			int top = this.nodes[0];
+			int node = this.nodes[--this.size];
+			double priority = this.priorities[this.size];
+
+			int i = 0;
+			int half = this.size >>> 1;
+			while (i < half) {
+				int child = 2 * i + 1;
+				if (child + 1 < this.size && this.priorities[child + 1] < this.priorities[child]) {
+					child++;
+				}
+				if (priority <= this.priorities[child]) {
+					break;
+				}
+				this.nodes[i] = this.nodes[child];
+				this.priorities[i] = this.priorities[child];
+				i = child;
+			}
+			this.nodes[i] = node;
+			this.priorities[i] = priority;
+
+			return top;
+		}
+	}
+}
@@ -0,0 +1,265 @@
+package at.gwt.trainsim.track;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A graph of nodes, like stations and switches, connected by {@link Block}s.
+ * A node where more than two blocks meet is a switch.
+ * 
+ * Every change increments the network's version, so results computed for an
+ * older version can be detected. Instances must not be changed while other
+ * threads read them.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public final class TrackNetwork {
+	private final Map<String, Integer> nodes = new LinkedHashMap<>();
+	private final List<List<Block>> adjacency = new ArrayList<>();
+	private final List<double[]> positions = new ArrayList<>();
+	private final List<Block> blocks = new ArrayList<>();
+	private final List<int[]> ends = new ArrayList<>();
+	private final BitSet closed = new BitSet();
+	private long version;
+
+	/**
+	 * Adds a node without any blocks. Nodes are also added implicitly by
+	 * {@link #addBlock(String, String, long, boolean)}.
+	 * 
+	 * @param node the node's name
+	 */
+	public void addNode(String node) {
+		Objects.requireNonNull(node, "Node is required");
+		if (!this.nodes.containsKey(node)) {
+			this.nodes.put(node, this.nodes.size());
+			this.adjacency.add(new ArrayList<>());
+			this.positions.add(null);
+			this.version++;
+		}
+	}
+
+	/**
+	 * Adds a node or moves an existing node to a position. Positions allow
+	 * routing to estimate the remaining distance. If positions are given, blocks
+	 * must not be shorter than the straight distance between their nodes.
+	 * 
+	 * @param node the node's name
+	 * @param x    east coordinate in meters
+	 * @param y    north coordinate in meters
+	 * @throws IllegalArgumentException if a block at the node would be shorter
+	 *                                  than the straight distance between its
+	 *                                  nodes
+	 */
+	public void addNode(String node, double x, double y) {
+		this.addNode(node);
+		int index = this.nodes.get(node);
+		double[] previous = this.positions.set(index, new double[] { x, y });
+		try {
+			for (Block block : this.adjacency.get(index)) {
+				this.checkLength(index, this.opposite(block.getId(), index), block.getLengthInMeters());
+			}
+		} catch (IllegalArgumentException e) {
+			this.positions.set(index, previous);
+			throw e;
+		}
+		this.version++;
+	}
+
+	/**
+	 * Connects two nodes by a new block.
+	 * 
+	 * @param from           one end of the block
+	 * @param to             the other end of the block
+	 * @param lengthInMeters the block's length
+	 * @param electrified    whether electric locomotives can use the block
+	 * @return the new block
+	 * @throws IllegalArgumentException if both nodes have positions and the block
+	 *                                  is shorter than the straight distance
+	 *                                  between them
+	 */
+	public Block addBlock(String from, String to, long lengthInMeters, boolean electrified) {
+		if (lengthInMeters <= 0) {
+			throw new IllegalArgumentException("Length of a block must be positive");
+		}
+		if (Objects.equals(from, to)) {
+			throw new IllegalArgumentException("A block must connect two different nodes");
+		}
+		if (this.nodes.containsKey(from) && this.nodes.containsKey(to)) {
+			this.checkLength(this.nodes.get(from), this.nodes.get(to), lengthInMeters);
+		}
+
+		this.addNode(from);
+		this.addNode(to);
+
+		Block block = new Block(this.blocks.size(), from, to, lengthInMeters, electrified);
+		this.blocks.add(block);
+		this.ends.add(new int[] { this.nodes.get(from), this.nodes.get(to) });
+		this.adjacency.get(this.nodes.get(from)).add(block);
+		this.adjacency.get(this.nodes.get(to)).add(block);
+		this.version++;
+
+		return block;
+	}
+
+	/**
+	 * Closes a block, for example for construction works. A closed block is kept,
+	 * but cannot be used by new routes.
+	 * 
+	 * @param block the block to close
+	 */
+	public void close(Block block) {
+		this.closed.set(this.checkBlock(block).getId());
+		this.version++;
+	}
+
+	/**
+	 * @param block the block to open again
+	 */
+	public void open(Block block) {
+		this.closed.clear(this.checkBlock(block).getId());
+		this.version++;
+	}
+
+	public boolean isClosed(Block block) {
+		return this.closed.get(this.checkBlock(block).getId());
+	}
+
+	/**
+	 * @return a number, which changes whenever this network changes
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	public Collection<String> getNodes() {
+		return Collections.unmodifiableSet(this.nodes.keySet());
+	}
+
+	public List<Block> getBlocks() {
+		return Collections.unmodifiableList(this.blocks);
+	}
+
+	/**
+	 * @param id the block's id
+	 * @return the block
+	 */
+	public Block getBlock(int id) {
+		return this.blocks.get(id);
+	}
+
+	/**
+	 * @param node a node
+	 * @return all blocks ending at the node, including closed ones
+	 */
+	public List<Block> getBlocks(String node) {
+		return Collections.unmodifiableList(this.adjacency.get(this.indexOf(node)));
+	}
+
+	/**
+	 * @param from one node
+	 * @param to   another node
+	 * @return the straight distance between both nodes, or 0 if any of them has
+	 *         no position
+	 */
+	public double getDistanceInMeters(String from, String to) {
+		return this.distance(this.indexOf(from), this.indexOf(to));
+	}
+
+	int size() {
+		return this.nodes.size();
+	}
+
+	int indexOf(String node) {
+		Integer index = this.nodes.get(node);
+		if (index == null) {
+			throw new IllegalArgumentException("Unknown node " + node);
+		}
+
+		return index;
+	}
+
+	List<Block> blocksAt(int node) {
+		return this.adjacency.get(node);
+	}
+
+	/**
+	 * @return the index of the block's other end
+	 */
+	int opposite(int block, int node) {
+		int[] ends = this.ends.get(block);
+		return ends[0] == node ? ends[1] : ends[0];
+	}
+
+	boolean isClosed(int block) {
+		return this.closed.get(block);
+	}
+
+	double distance(int from, int to) {
+		double[] a = this.positions.get(from);
+		double[] b = this.positions.get(to);
+
+		return a == null || b == null ? 0d : Math.hypot(a[0] - b[0], a[1] - b[1]);
+	}
+
+	/**
+	 * @param node a node
+	 * @return true if more than two blocks end at the node
+	 */
+	public boolean isSwitch(String node) {
+		return this.getBlocks(node).size() > 2;
+	}
+
+	/**
+	 * @param from one node
+	 * @param to   another node
+	 * @return the shortest block directly connecting both nodes
+	 */
+	public Optional<Block> findBlock(String from, String to) {
+		return this.getBlocks(from).stream().filter(block -> block.opposite(from).equals(to))
+				.min((a, b) -> Long.compare(a.getLengthInMeters(), b.getLengthInMeters()));
+	}
+
+	/**
+	 * @param nodes the nodes in the order they are passed
+	 * @return the blocks connecting the nodes
+	 */
+	public List<Block> path(String... nodes) {
+		List<Block> path = new ArrayList<>(nodes.length);
+		for (int i = 1; i < nodes.length; i++) {
+			String from = nodes[i - 1];
+			String to = nodes[i];
+			path.add(this.findBlock(from, to)
+					.orElseThrow(() -> new IllegalArgumentException("No block between " + from + " and " + to)));
+		}
+
+		return path;
+	}
+
+	/**
+	 * Routing estimates the remaining distance by the straight distance, which
+	 * must therefore never exceed the length of a path.
+	 */
+	private void checkLength(int from, int to, long lengthInMeters) {
+		double distance = this.distance(from, to);
+		if (lengthInMeters < distance) {
+			throw new IllegalArgumentException("A block of " + lengthInMeters + " m is shorter than the distance of "
+					+ (long) Math.ceil(distance) + " m between its nodes");
+		}
+	}
+
+	private Block checkBlock(Block block) {
+		if (block.getId() >= this.blocks.size() || this.blocks.get(block.getId()) != block) {
+			throw new IllegalArgumentException("Block " + block.getId() + " is not part of this network");
+		}
+
+		return block;
+	}
+}
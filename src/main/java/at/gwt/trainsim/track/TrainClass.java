@@ -0,0 +1,122 @@
+package at.gwt.trainsim.track;
+
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.TrainSnapshot;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Groups trains which run the same way through a {@link TrackNetwork}. Weight
+ * and length are rounded up to steps, so that many trains share a class and
+ * routes can be reused for them.
+ *
+ * A train of a class runs at a constant speed, which is the top speed of its
+ * slowest locomotive, reduced for heavy trains. Heavy trains also brake
+ * worse. Trains with electric locomotives only cannot leave the electrified
+ * blocks.
+ *
+ * @author gotthardwitsch
+ *
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class TrainClass {
+	public static final int WEIGHT_STEP_IN_TONNES = 100;
+	public static final int LENGTH_STEP_IN_METERS = 50;
+
+	/**
+	 * Trains up to this weight run at full speed and brake at full deceleration
+	 */
+	private static final double FULL_SPEED_WEIGHT_IN_TONNES = 1_000d;
+	private static final double MIN_SPEED_FACTOR = 0.5d;
+	private static final double DECELERATION = 0.7d;
+
+	private final boolean electricOnly;
+	private final int topSpeedInKilometersPerHour;
+	private final int weightInTonnes;
+	private final int lengthInMeters;
+
+	/**
+	 * @param electricOnly                whether the train needs electrified
+	 *                                    blocks
+	 * @param topSpeedInKilometersPerHour top speed of the slowest locomotive
+	 * @param weightInTonnes              weight of the train, rounded up to
+	 *                                    {@link #WEIGHT_STEP_IN_TONNES}
+	 * @param lengthInMeters              length of the train, rounded up to
+	 *                                    {@link #LENGTH_STEP_IN_METERS}
+	 */
+	public TrainClass(boolean electricOnly, int topSpeedInKilometersPerHour, double weightInTonnes,
+			long lengthInMeters) {
+		if (topSpeedInKilometersPerHour <= 0) {
+			throw new IllegalArgumentException("Top speed must be positive");
+		}
+
+		this.electricOnly = electricOnly;
+		this.topSpeedInKilometersPerHour = topSpeedInKilometersPerHour;
+		this.weightInTonnes = roundUp(weightInTonnes, WEIGHT_STEP_IN_TONNES);
+		this.lengthInMeters = roundUp(lengthInMeters, LENGTH_STEP_IN_METERS);
+	}
+
+	/**
+	 * @param train the train
+	 * @return the class of the train in its current composition
+	 */
+	public static TrainClass of(Train train) {
+		TrainSnapshot snapshot = train.getSnapshot();
+		boolean electricOnly = !snapshot.getLocomotives().isEmpty();
+		int topSpeed = Integer.MAX_VALUE;
+		for (Locomotive locomotive : snapshot.getLocomotives()) {
+			electricOnly &= locomotive.getTypeOfDrive() == Drive.ELECTRICITY;
+			topSpeed = Math.min(topSpeed, Drive.topSpeedInKilometersPerHour(locomotive.getTypeOfDrive()));
+		}
+		if (topSpeed == Integer.MAX_VALUE) {
+			topSpeed = Drive.topSpeedInKilometersPerHour(null);
+		}
+
+		return new TrainClass(electricOnly, topSpeed, snapshot.getWeightInKilogram() / 1_000d,
+				snapshot.getLengthInMeters());
+	}
+
+	/**
+	 * @param block a block
+	 * @return whether trains of this class can run through the block
+	 */
+	public boolean canUse(Block block) {
+		return !this.electricOnly || block.isElectrified();
+	}
+
+	public double getSpeedInMetersPerSecond() {
+		return this.topSpeedInKilometersPerHour / 3.6d * this.weightFactor();
+	}
+
+	public double getDecelerationInMetersPerSecondSquared() {
+		return DECELERATION * this.weightFactor();
+	}
+
+	public double getBrakingDistanceInMeters() {
+		double speed = this.getSpeedInMetersPerSecond();
+		return speed * speed / (2d * this.getDecelerationInMetersPerSecondSquared());
+	}
+
+	/**
+	 * @param lengthInMeters length of a route
+	 * @return seconds from passing the start at full speed until standing at the
+	 *         end of the route
+	 */
+	public double travelTime(long lengthInMeters) {
+		double speed = this.getSpeedInMetersPerSecond();
+		return lengthInMeters / speed + speed / (2d * this.getDecelerationInMetersPerSecondSquared());
+	}
+
+	private double weightFactor() {
+		return Math.max(MIN_SPEED_FACTOR, Math.min(1d, FULL_SPEED_WEIGHT_IN_TONNES / this.weightInTonnes));
+	}
+
+	private static int roundUp(double value, int step) {
+		return Math.max(step, (int) Math.ceil(value / step) * step);
+	}
+}
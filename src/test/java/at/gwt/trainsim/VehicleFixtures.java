@@ -0,0 +1,43 @@
+package at.gwt.trainsim;
+
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+/**
+ * Vehicles shared by the tests. As {@link at.gwt.trainsim.beans.Train.Service}
+ * is global, tests use serial numbers with a unique prefix, so their vehicles
+ * never collide with those of other tests.
+ * 
+ * @author gotthardwitsch
+ *
+ */
+public final class VehicleFixtures {
+
+	private VehicleFixtures() {
+		// utility class
+	}
+
+	/**
+	 * @param name the name of the test
+	 * @return a prefix for serial numbers, which is unique for every call
+	 */
+	public static String prefix(String name) {
+		return name + "-" + System.nanoTime() + "-";
+	}
+
+	/**
+	 * @param serialNumber the serial number
+	 * @return an electric locomotive pulling 300 t
+	 */
+	public static Locomotive locomotive(String serialNumber) {
+		return new Locomotive(new Weight(80_000), new Weight(300_000), new Length(20), Classification.of("Taurus"),
+				Manufacturer.of("Siemens"), new YearOfManufacturing(2005), new SerialNumber(serialNumber),
+				Drive.ELECTRICITY);
+	}
+}
@@ -0,0 +1,23 @@
+package at.gwt.trainsim.beans;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ManufacturerTest {
+
+	@Test
+	public void testOf() {
+		Manufacturer manufacturer = Manufacturer.of(new String("Siemens"));
+
+		Assert.assertSame(manufacturer, Manufacturer.of(new String("Siemens")));
+		Assert.assertEquals(new Manufacturer("Siemens"), manufacturer);
+		Assert.assertNotSame(manufacturer, Manufacturer.of("Bombardier"));
+		Assert.assertSame(Classification.of("Taurus"), Classification.of("Taurus"));
+		Assert.assertSame(RailroadCompany.of("OEBB"), RailroadCompany.of("OEBB"));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testOfNull() {
+		Manufacturer.of(null);
+	}
+}
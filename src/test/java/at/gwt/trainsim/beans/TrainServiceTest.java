@@ -0,0 +1,153 @@
+package at.gwt.trainsim.beans;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.VehicleFixtures;
+import at.gwt.trainsim.exception.AlreadyInUseException;
+
+public class TrainServiceTest {
+	private static final RailroadCompany COMPANY = new RailroadCompany("OEBB");
+	private static final Manufacturer MANUFACTURER = new Manufacturer("Siemens");
+
+	private static final int THREADS = 8;
+	private static final int WAGONS = 2_000;
+	private static final int LOCOMOTIVES = 200;
+
+	@Test
+	public void testConcurrentConsistBuilding() throws Exception {
+		String prefix = VehicleFixtures.prefix("Stress");
+
+		List<Wagon> wagons = new ArrayList<>();
+		for (int i = 0; i < WAGONS; i++) {
+			wagons.add(new FreightWagon(new Weight(15_000), new Length(20), 0, new Weight(50_000),
+					new Classification("Freight"), MANUFACTURER, new YearOfManufacturing(1990),
+					new SerialNumber(prefix + "Wagon" + i)));
+		}
+
+		List<Locomotive> locomotives = new ArrayList<>();
+		for (int i = 0; i < LOCOMOTIVES; i++) {
+			locomotives.add(newLocomotive(prefix + "Loc" + i));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Train>> futures = new ArrayList<>();
+
+		for (int t = 0; t < THREADS; t++) {
+			long seed = t;
+			Locomotive own = newLocomotive(prefix + "Own" + t);
+
+			futures.add(executor.submit(() -> {
+				List<Wagon> myWagons = new ArrayList<>(wagons);
+				List<Locomotive> myLocomotives = new ArrayList<>(locomotives);
+				Collections.shuffle(myWagons, new Random(seed));
+				Collections.shuffle(myLocomotives, new Random(seed));
+
+				Train train = Train.Service.newTrain(COMPANY, own);
+				start.await();
+
+				for (int i = 0; i < WAGONS; i++) {
+					Wagon wagon = myWagons.get(i);
+					tryAdd(() -> train.addWagon(wagon));
+
+					if (i < LOCOMOTIVES) {
+						Locomotive locomotive = myLocomotives.get(i);
+						tryAdd(() -> train.addLocomotive(locomotive));
+					}
+				}
+
+				return train;
+			}));
+		}
+
+		start.countDown();
+
+		List<Train> trains = new ArrayList<>();
+		for (Future<Train> future : futures) {
+			trains.add(future.get(1, TimeUnit.MINUTES));
+		}
+		executor.shutdown();
+
+		int wagonCount = 0;
+		int locomotiveCount = 0;
+		for (Train train : trains) {
+			wagonCount += train.getWagons().size();
+			locomotiveCount += train.getLocomotives().size() - 1;
+
+			for (Wagon wagon : train.getWagons()) {
+				Assert.assertSame(train, Train.Service.findTrain(wagon).get());
+			}
+			for (Locomotive locomotive : train.getLocomotives()) {
+				Assert.assertSame(train, Train.Service.findTrain(locomotive).get());
+			}
+
+			Assert.assertEquals(train.getWagons().size() * 20 + train.getLocomotives().size() * 30,
+					train.getLength().getValue());
+		}
+
+		Assert.assertEquals(WAGONS, wagonCount);
+		Assert.assertEquals(LOCOMOTIVES, locomotiveCount);
+
+		trains.forEach(Train.Service::decommission);
+	}
+
+	@Test
+	public void testConcurrentNewTrainWithSameLocomotive() throws Exception {
+		Locomotive locomotive = newLocomotive("Stress-" + System.nanoTime() + "-Shared");
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Train>> futures = new ArrayList<>();
+
+		for (int t = 0; t < THREADS; t++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				try {
+					return Train.Service.newTrain(COMPANY, locomotive);
+				} catch (AlreadyInUseException e) {
+					return null;
+				}
+			}));
+		}
+
+		start.countDown();
+
+		List<Train> trains = new ArrayList<>();
+		for (Future<Train> future : futures) {
+			Train train = future.get(1, TimeUnit.MINUTES);
+			if (train != null) {
+				trains.add(train);
+			}
+		}
+		executor.shutdown();
+
+		Assert.assertEquals(1, trains.size());
+		Assert.assertSame(trains.get(0), Train.Service.findTrain(locomotive).get());
+
+		Train.Service.decommission(trains.get(0));
+	}
+
+	private static Locomotive newLocomotive(String serialNumber) {
+		return new Locomotive(new Weight(40_000), new Weight(300_000), new Length(30), new Classification("Taurus"),
+				MANUFACTURER, new YearOfManufacturing(2005), new SerialNumber(serialNumber), Drive.ELECTRICITY);
+	}
+
+	private static void tryAdd(Runnable add) {
+		try {
+			add.run();
+		} catch (AlreadyInUseException e) {
+			// another train has been faster
+		}
+	}
+}
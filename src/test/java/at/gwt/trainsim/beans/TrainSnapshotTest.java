@@ -0,0 +1,267 @@
+package at.gwt.trainsim.beans;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.VehicleFixtures;
+
+public class TrainSnapshotTest {
+	private static final RailroadCompany COMPANY = new RailroadCompany("OEBB");
+	private static final int READERS = 4;
+
+	@Test
+	public void testSnapshot() {
+		String prefix = VehicleFixtures.prefix("Snapshot");
+		Locomotive loc = new Locomotive(new Weight(30_000), new Weight(150_000), new Length(30),
+				new Classification("Taurus"), new Manufacturer("Siemens"), new YearOfManufacturing(2005),
+				new SerialNumber(prefix + "L"), Drive.ELECTRICITY);
+		Train train = Train.Service.newTrain(COMPANY, loc);
+		try {
+			PassengerCar car1 = passengerCar(prefix + "P1");
+			PassengerCar car2 = passengerCar(prefix + "P2");
+			PassengerCar car3 = passengerCar(prefix + "P3");
+			train.addWagons(Arrays.asList(car1, car2, car3));
+
+			TrainSnapshot before = train.getSnapshot();
+			Assert.assertEquals(train.getId(), before.getTrainId());
+			Assert.assertEquals(Arrays.asList(car1, car2, car3), new ArrayList<>(before.getWagons()));
+			Assert.assertEquals(360, before.getMaxPassengers());
+			Assert.assertEquals(train.getWeightInKilogram(), before.getWeightInKilogram(), 0);
+
+			train.removeWagon(car2);
+			train.addPassengers(car3, 10);
+			TrainSnapshot after = train.getSnapshot();
+
+			Assert.assertTrue(after.getVersion() > before.getVersion());
+			Assert.assertEquals(Arrays.asList(car1, car3), new ArrayList<>(after.getWagons()));
+			Assert.assertEquals(Arrays.asList(car1, car3), new ArrayList<>(train.getWagons()));
+			Assert.assertEquals(10, after.getPassengers());
+			Assert.assertEquals(10, after.getPassengers(car3));
+			Assert.assertEquals(240, after.getMaxPassengers());
+			Assert.assertTrue(after.getWagons().contains(car3));
+			Assert.assertFalse(after.getWagons().contains(car2));
+			Assert.assertFalse(after.contains(car2));
+			Assert.assertTrue(after.getLocomotives().contains(loc));
+			Assert.assertFalse(after.getLocomotives().contains(car1));
+
+			Assert.assertEquals(Arrays.asList(car1, car2, car3), new ArrayList<>(before.getWagons()));
+			Assert.assertEquals(0, before.getPassengers());
+			Assert.assertEquals(0, before.getPassengers(car3));
+			Assert.assertTrue(before.getWagons().contains(car2));
+			Assert.assertEquals(360, before.getMaxPassengers());
+			Assert.assertFalse(before.isDecommissioned());
+		} finally {
+			Train.Service.decommission(train);
+		}
+
+		Assert.assertTrue(train.getSnapshot().isDecommissioned());
+		Assert.assertTrue(train.getSnapshot().getLocomotives().isEmpty());
+	}
+
+	@Test
+	public void testReadersWhileChanging() throws Exception {
+		String prefix = VehicleFixtures.prefix("SnapshotReaders");
+		List<PassengerCar> cars = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			cars.add(passengerCar(prefix + "P" + i));
+		}
+
+		Train train = Train.Service.newTrain(COMPANY, VehicleFixtures.locomotive(prefix + "L"));
+		ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		try {
+			List<Future<Integer>> readers = new ArrayList<>();
+			for (int t = 0; t < READERS; t++) {
+				readers.add(executor.submit(() -> {
+					int snapshots = 0;
+					long version = -1L;
+					while (writing.get()) {
+						// iterating the live collection must not fail while the train changes
+						for (Wagon wagon : train.getWagons()) {
+							Assert.assertNotNull(wagon);
+						}
+
+						TrainSnapshot snapshot = train.getSnapshot();
+						Assert.assertTrue(snapshot.getVersion() >= version);
+						version = snapshot.getVersion();
+						assertTotals(snapshot);
+						snapshots++;
+					}
+
+					return snapshots;
+				}));
+			}
+
+			Future<?> writer = executor.submit(() -> {
+				Random random = new Random(42);
+				try {
+					for (int i = 0; i < 20_000; i++) {
+						PassengerCar car = cars.get(random.nextInt(cars.size()));
+						if (!train.getSnapshot().contains(car)) {
+							train.addWagon(car);
+						} else if (random.nextInt(3) == 0) {
+							train.removeWagon(car);
+						} else {
+							train.setLoad(car, random.nextInt(121), random.nextInt(12_001));
+						}
+					}
+				} finally {
+					writing.set(false);
+				}
+			});
+
+			writer.get(1, TimeUnit.MINUTES);
+			for (Future<Integer> reader : readers) {
+				Assert.assertTrue(reader.get(1, TimeUnit.MINUTES) > 0);
+			}
+			assertTotals(train.getSnapshot());
+		} finally {
+			executor.shutdownNow();
+			Train.Service.decommission(train);
+		}
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testUnmodifiable() {
+		OrdinalTree.<String>empty().insert(0, "a").values().remove("a");
+	}
+
+	@Test
+	public void testOrdinalTree() {
+		Random random = new Random(42);
+		TreeMap<Long, Long> expected = new TreeMap<>();
+		OrdinalTree<Long> tree = OrdinalTree.empty();
+		List<OrdinalTree<Long>> versions = new ArrayList<>();
+		List<List<Long>> contents = new ArrayList<>();
+
+		for (int i = 0; i < 2_000; i++) {
+			long ordinal = random.nextInt(500);
+			if (expected.containsKey(ordinal)) {
+				expected.remove(ordinal);
+				tree = tree.remove(ordinal);
+			} else {
+				expected.put(ordinal, ordinal);
+				tree = tree.insert(ordinal, ordinal);
+			}
+
+			if (i % 100 == 0) {
+				versions.add(tree);
+				contents.add(new ArrayList<>(expected.values()));
+			}
+		}
+
+		Assert.assertEquals(expected.size(), tree.size());
+		Assert.assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(tree.values()));
+		for (int i = 0; i < versions.size(); i++) {
+			Assert.assertEquals(contents.get(i), new ArrayList<>(versions.get(i).values()));
+		}
+	}
+
+	@Test
+	public void testHashTrie() {
+		Random random = new Random(42);
+		Map<Key, Integer> expected = new HashMap<>();
+		HashTrie<Key, Integer> trie = HashTrie.empty();
+		List<HashTrie<Key, Integer>> versions = new ArrayList<>();
+		List<Map<Key, Integer>> contents = new ArrayList<>();
+
+		for (int i = 0; i < 5_000; i++) {
+			Key key = new Key(random.nextInt(1_000));
+			if (expected.containsKey(key)) {
+				expected.remove(key);
+				trie = trie.remove(key);
+			} else {
+				expected.put(key, i);
+				trie = trie.put(key, i);
+			}
+
+			if (i % 500 == 0) {
+				versions.add(trie);
+				contents.add(new HashMap<>(expected));
+			}
+		}
+
+		Assert.assertEquals(expected.size(), trie.size());
+		for (int i = 0; i < versions.size(); i++) {
+			for (int id = 0; id < 1_000; id++) {
+				Key key = new Key(id);
+				Assert.assertEquals(contents.get(i).get(key), versions.get(i).get(key));
+				Assert.assertEquals(contents.get(i).containsKey(key), versions.get(i).containsKey(key));
+			}
+		}
+		Assert.assertSame(trie, trie.remove(new Key(-1)));
+	}
+
+	/**
+	 * Checks that the totals of a snapshot match its own vehicles.
+	 */
+	private static void assertTotals(TrainSnapshot snapshot) {
+		double emptyWeight = 0d;
+		long maxPassengers = 0L;
+		long length = 0L;
+		long passengers = 0L;
+		long wagonPassengers = 0L;
+		double freight = 0d;
+		for (Locomotive locomotive : snapshot.getLocomotives()) {
+			emptyWeight += locomotive.getEmptyWeightInKilogram();
+			maxPassengers += locomotive.getMaxPassengers();
+			length += locomotive.getLengthInMeters();
+			passengers += snapshot.getPassengers(locomotive);
+		}
+		for (Wagon wagon : snapshot.getWagons()) {
+			Assert.assertTrue(snapshot.contains(wagon));
+			emptyWeight += wagon.getEmptyWeightInKilogram();
+			maxPassengers += wagon.getMaxPassengers();
+			length += wagon.getLengthInMeters();
+			passengers += snapshot.getPassengers(wagon);
+			wagonPassengers += snapshot.getPassengers(wagon);
+			freight += snapshot.getFreightInKilogram(wagon);
+		}
+
+		Assert.assertEquals(emptyWeight, snapshot.getEmptyWeightInKilogram(), 1e-6);
+		Assert.assertEquals(maxPassengers, snapshot.getMaxPassengers());
+		Assert.assertEquals(length, snapshot.getLengthInMeters());
+		Assert.assertEquals(passengers, snapshot.getPassengers());
+		Assert.assertEquals(wagonPassengers, snapshot.getWagonPassengers());
+		Assert.assertEquals(freight, snapshot.getFreightInKilogram(), 1e-6);
+	}
+
+	private static PassengerCar passengerCar(String serialNumber) {
+		return new PassengerCar(new Weight(20_000), new Length(50), 120, new Weight(12_000), null, null, null,
+				new SerialNumber(serialNumber));
+	}
+
+	/**
+	 * A key with only 300 distinct hash codes, so some keys collide.
+	 */
+	private static final class Key {
+		private final int id;
+
+		private Key(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.id % 300) * 0x9E3779B9;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).id == this.id;
+		}
+	}
+}
@@ -1,9 +1,14 @@
 package at.gwt.trainsim.beans;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import at.gwt.trainsim.VehicleFixtures;
 import at.gwt.trainsim.exception.AlreadyInUseException;
 
 public class TrainTest {
@@ -49,6 +54,12 @@ public class TrainTest {
 		Assert.assertEquals(new Weight(70_000), train.getEmpyWeight());
 		Assert.assertEquals(new Length(130), train.getLength());
 		Assert.assertEquals(new Weight(112_300), train.getWeight());
+		Assert.assertEquals(112_300, train.getWeightInKilogram(), 0);
+		Assert.assertEquals(70_000, train.getEmptyWeightInKilogram(), 0);
+		Assert.assertEquals(42_300, train.getMaxAdditionalLoadInKilogram(), 0);
+		Assert.assertEquals(24_000, train.getMaxAdditionalFreightInKilogram(), 0);
+		Assert.assertEquals(150_000, train.getTractiveForceInKilogram(), 0);
+		Assert.assertEquals(130, train.getLengthInMeters());
 
 		train.removeWagon(passengerCar2);
 		Assert.assertEquals(1, train.getWagons().size());
@@ -151,4 +162,251 @@ public class TrainTest {
 
 	}
 
+	@Test
+	public void testFindTrain() {
+		Train train = Train.Service.newTrain(COMPANY, this.loc);
+
+		PassengerCar passengerCar = new PassengerCar(new Weight(20_000), new Length(50), 120, new Weight(12_000), null,
+				MANUFACTURER, new YearOfManufacturing(2000), new SerialNumber("6"));
+
+		Assert.assertFalse(Train.Service.findTrain(passengerCar).isPresent());
+
+		train.addWagon(passengerCar);
+		Assert.assertSame(train, Train.Service.findTrain(passengerCar).get());
+		Assert.assertSame(train, Train.Service.findTrain(this.loc).get());
+
+		train.removeWagon(passengerCar);
+		Assert.assertFalse(Train.Service.findTrain(passengerCar).isPresent());
+	}
+
+	@Test
+	public void testMoveWagonToAnotherTrain() {
+		Train train = Train.Service.newTrain(COMPANY, this.loc);
+
+		FreightWagon freightWagon = new FreightWagon(new Weight(15_000), new Length(120), 0, new Weight(80_000),
+				new Classification("Loads wood"), new Manufacturer("SteelWagon"), new YearOfManufacturing(1990),
+				new SerialNumber("Wood2"));
+		train.addWagon(freightWagon);
+		train.removeWagon(freightWagon);
+
+		Train otherTrain = Train.Service.newTrain(COMPANY,
+				new Locomotive(new Weight(40_000), new Weight(300_000), new Length(60), new Classification(""),
+						MANUFACTURER, new YearOfManufacturing(2020), new SerialNumber("Brand New Train #3"),
+						Drive.ELECTRICITY));
+		otherTrain.addWagon(freightWagon);
+
+		Assert.assertSame(otherTrain, Train.Service.findTrain(freightWagon).get());
+	}
+
+	@Test
+	public void testAggregatesAfterRemoval() {
+		Train train = Train.Service.newTrain(COMPANY, this.loc);
+
+		PassengerCar passengerCar = new PassengerCar(new Weight(20_000), new Length(50), 120, new Weight(12_000), null,
+				MANUFACTURER, new YearOfManufacturing(2000), new SerialNumber("7"));
+		Locomotive loc2 = new Locomotive(new Weight(40_000), new Weight(300_000), new Length(60),
+				new Classification(""), MANUFACTURER, new YearOfManufacturing(2020),
+				new SerialNumber("Brand New Train #4"), Drive.ELECTRICITY);
+
+		train.addWagon(passengerCar);
+		train.addLocomotive(loc2);
+		Assert.assertEquals(new Weight(450_000), train.getTractiveForce());
+		Assert.assertEquals(new Length(140), train.getLength());
+
+		train.removeWagon(passengerCar);
+		train.removeLocomotive(loc2);
+
+		Assert.assertEquals(new Weight(30_000), train.getEmpyWeight());
+		Assert.assertEquals(new Weight(150_000), train.getTractiveForce());
+		Assert.assertEquals(new Weight(0), train.getMaxAdditionalFreight());
+		Assert.assertEquals(new Length(30), train.getLength());
+		Assert.assertEquals(4, train.getMaxPassengers());
+		Assert.assertEquals(1, train.getRequiredGuards());
+	}
+
+	@Test
+	public void testStableIdentity() {
+		Train train = Train.Service.newTrain(COMPANY, this.loc);
+
+		Set<Train> trains = new HashSet<>();
+		trains.add(train);
+
+		train.addWagon(new PassengerCar(new Weight(20_000), new Length(50), 120, new Weight(12_000), null,
+				MANUFACTURER, new YearOfManufacturing(2000), new SerialNumber("8")));
+
+		Assert.assertTrue(trains.contains(train));
+		Assert.assertSame(train, Train.Service.getTrain(train.getId()).get());
+		Assert.assertTrue(Train.Service.getTrains().contains(train));
+	}
+
+	@Test
+	public void testDecommission() {
+		Train train = Train.Service.newTrain(COMPANY, this.loc);
+
+		PassengerCar passengerCar = new PassengerCar(new Weight(20_000), new Length(50), 120, new Weight(12_000), null,
+				MANUFACTURER, new YearOfManufacturing(2000), new SerialNumber("9"));
+		train.addWagon(passengerCar);
+
+		Assert.assertTrue(Train.Service.decommission(train));
+		Assert.assertFalse(Train.Service.decommission(train));
+		Assert.assertTrue(train.isDecommissioned());
+		Assert.assertFalse(Train.Service.getTrain(train.getId()).isPresent());
+		Assert.assertFalse(Train.Service.findTrain(this.loc).isPresent());
+		Assert.assertFalse(Train.Service.findTrain(passengerCar).isPresent());
+
+		Train newTrain = Train.Service.newTrain(COMPANY, this.loc);
+		newTrain.addWagon(passengerCar);
+		Assert.assertNotEquals(train, newTrain);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAddWagonToDecommissionedTrain() {
+		Train train = Train.Service.newTrain(COMPANY, this.loc);
+		Train.Service.decommission(train);
+
+		train.addWagon(new PassengerCar(new Weight(20_000), new Length(50), 120, new Weight(12_000), null,
+				MANUFACTURER, new YearOfManufacturing(2000), new SerialNumber("10")));
+	}
+
+	@Test
+	public void testAddWagons() {
+		Train train = Train.Service.newTrain(COMPANY, this.loc);
+
+		FreightWagon wagon1 = new FreightWagon(new Weight(15_000), new Length(120), 0, new Weight(80_000),
+				new Classification("Loads wood"), new Manufacturer("SteelWagon"), new YearOfManufacturing(1990),
+				new SerialNumber("Batch1"));
+		FreightWagon wagon2 = new FreightWagon(new Weight(15_000), new Length(120), 0, new Weight(80_000),
+				new Classification("Loads wood"), new Manufacturer("SteelWagon"), new YearOfManufacturing(1990),
+				new SerialNumber("Batch2"));
+
+		Assert.assertTrue(train.addWagons(Arrays.asList(wagon1, wagon2)));
+		Assert.assertEquals(2, train.getWagons().size());
+		Assert.assertEquals(new Weight(160_000), train.getMaxAdditionalFreight());
+
+		Assert.assertTrue(train.removeWagons(Arrays.asList(wagon1, wagon2)));
+		Assert.assertTrue(train.getWagons().isEmpty());
+		Assert.assertEquals(new Weight(0), train.getMaxAdditionalFreight());
+		Assert.assertFalse(Train.Service.findTrain(wagon1).isPresent());
+	}
+
+	@Test
+	public void testAddWagonsIsAtomic() {
+		Train train = Train.Service.newTrain(COMPANY, this.loc);
+
+		FreightWagon used = new FreightWagon(new Weight(15_000), new Length(120), 0, new Weight(80_000),
+				new Classification("Loads wood"), new Manufacturer("SteelWagon"), new YearOfManufacturing(1990),
+				new SerialNumber("Batch3"));
+		FreightWagon unused = new FreightWagon(new Weight(15_000), new Length(120), 0, new Weight(80_000),
+				new Classification("Loads wood"), new Manufacturer("SteelWagon"), new YearOfManufacturing(1990),
+				new SerialNumber("Batch4"));
+		train.addWagon(used);
+
+		try {
+			train.addWagons(Arrays.asList(unused, used));
+			Assert.fail("Wagon is already in use");
+		} catch (AlreadyInUseException e) {
+			// expected
+		}
+
+		try {
+			train.addWagons(Arrays.asList(unused, unused));
+			Assert.fail("Wagon is contained twice");
+		} catch (AlreadyInUseException e) {
+			// expected
+		}
+
+		try {
+			train.addWagons(Arrays.asList(unused, null));
+			Assert.fail("Wagon is null");
+		} catch (NullPointerException e) {
+			// expected
+		}
+
+		try {
+			train.addWagons(Arrays.asList(unused, new FreightWagon(new Weight(15_000), new Length(120), 0,
+					new Weight(80_000), null, null, null, null)));
+			Assert.fail("Serial number is null");
+		} catch (NullPointerException e) {
+			// expected
+		}
+
+		Assert.assertEquals(1, train.getWagons().size());
+		Assert.assertFalse(Train.Service.findTrain(unused).isPresent());
+	}
+
+	@Test
+	public void testCurrentLoad() {
+		String prefix = VehicleFixtures.prefix("Load");
+		Train train = Train.Service.newTrain(COMPANY, this.loc);
+		PassengerCar passengerCar = new PassengerCar(new Weight(20_000), new Length(50), 120, new Weight(12_000), null,
+				MANUFACTURER, new YearOfManufacturing(2000), new SerialNumber(prefix + "P"));
+		FreightWagon freightWagon = new FreightWagon(new Weight(20_000), new Length(15), 0, new Weight(150_000), null,
+				MANUFACTURER, null, new SerialNumber(prefix + "F"));
+		train.addWagons(Arrays.asList(passengerCar, freightWagon));
+
+		try {
+			Assert.assertEquals(0, train.getLoadInKilogram(), 0);
+			Assert.assertEquals(70_000, train.getCurrentWeightInKilogram(), 0);
+			Assert.assertEquals(0, train.getCurrentRequiredGuards());
+
+			Assert.assertEquals(60, train.addPassengers(passengerCar, 60));
+			Assert.assertEquals(51, train.addPassengers(passengerCar, -9));
+			Assert.assertEquals(2, train.addPassengers(this.loc, 2));
+			Assert.assertEquals(40_000, train.addFreight(freightWagon, 40_000), 0);
+
+			Assert.assertEquals(53, train.getPassengers());
+			Assert.assertEquals(51, train.getPassengers(passengerCar));
+			Assert.assertEquals(40_000, train.getFreightInKilogram(), 0);
+			Assert.assertEquals(new Weight(43_975), train.getLoad());
+			Assert.assertEquals(new Weight(113_975), train.getCurrentWeight());
+			Assert.assertEquals(2, train.getCurrentRequiredGuards());
+			Assert.assertTrue(train.isDrivableWithCurrentLoad());
+			Assert.assertFalse(train.isDrivable());
+
+			// the maximum load is not affected
+			Assert.assertEquals(241_300, train.getWeightInKilogram(), 0);
+
+			try {
+				train.addPassengers(freightWagon, 1);
+				Assert.fail();
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+			try {
+				train.setLoad(passengerCar, 121, 0);
+				Assert.fail();
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+			Assert.assertEquals(51, train.getPassengers(passengerCar));
+
+			train.removeWagon(freightWagon);
+			Assert.assertEquals(0, train.getFreightInKilogram(), 0);
+			try {
+				train.getFreightInKilogram(freightWagon);
+				Assert.fail();
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+
+			train.setLoad(passengerCar, 0, 0);
+			Assert.assertEquals(2, train.getPassengers());
+			Assert.assertEquals(150, train.getLoadInKilogram(), 0);
+		} finally {
+			Train.Service.decommission(train);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testRemoveAllLocomotives() {
+		Train train = Train.Service.newTrain(COMPANY, this.loc);
+
+		Locomotive loc2 = new Locomotive(new Weight(40_000), new Weight(300_000), new Length(60),
+				new Classification(""), MANUFACTURER, new YearOfManufacturing(2020),
+				new SerialNumber("Brand New Train #5"), Drive.ELECTRICITY);
+		train.addLocomotives(Arrays.asList(loc2));
+
+		train.removeLocomotives(Arrays.asList(this.loc, loc2));
+	}
+
 }
@@ -0,0 +1,108 @@
+package at.gwt.trainsim.events;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.VehicleFixtures;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.events.ConsistEvent.Type;
+
+public class ConsistEventBusTest {
+
+	@Test
+	public void testEventsAreDeliveredInOrder() {
+		String prefix = VehicleFixtures.prefix("Events");
+		List<Type> types = new ArrayList<>();
+
+		try (ConsistEventBus bus = ConsistEventBus.create()) {
+			Subscription subscription = bus.subscribe("test", 16, events -> {
+				for (ConsistEvent event : events) {
+					if (event.getTrain().getCompany().getName().equals(prefix)) {
+						types.add(event.getType());
+					}
+				}
+			});
+
+			Train train = Train.Service.newTrain(RailroadCompany.of(prefix), VehicleFixtures.locomotive(prefix + "L"));
+			PassengerCar passengerCar = passengerCar(prefix + "P");
+			train.addWagon(passengerCar);
+			train.addPassengers(passengerCar, 10);
+			train.removeWagon(passengerCar);
+			train.setCompany(RailroadCompany.of(prefix));
+			Train.Service.decommission(train);
+
+			subscription.close();
+			Assert.assertEquals(0, subscription.getDropped());
+			Assert.assertEquals(subscription.getPublished(), subscription.getDelivered());
+		}
+
+		Assert.assertEquals(Arrays.asList(Type.TRAIN_CREATED, Type.WAGON_ADDED, Type.LOAD_CHANGED,
+				Type.WAGON_REMOVED, Type.COMPANY_CHANGED, Type.TRAIN_DECOMMISSIONED), types);
+	}
+
+	@Test
+	public void testSlowSubscriberDoesNotBlockPublishers() throws InterruptedException {
+		String prefix = VehicleFixtures.prefix("SlowEvents");
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch overflow = new CountDownLatch(1);
+		AtomicLong reported = new AtomicLong();
+
+		try (ConsistEventBus bus = ConsistEventBus.create()) {
+			Subscription subscription = bus.subscribe("slow", 4, new Subscriber() {
+
+				@Override
+				public void onEvents(List<ConsistEvent> events) {
+					blocked.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+
+				@Override
+				public void onOverflow(long dropped) {
+					reported.addAndGet(dropped);
+					overflow.countDown();
+				}
+			});
+			Assert.assertEquals(4, subscription.getCapacity());
+
+			Train train = Train.Service.newTrain(RailroadCompany.of(prefix), VehicleFixtures.locomotive(prefix + "L"));
+			Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+			try {
+				for (int i = 0; i < 10; i++) {
+					train.addWagon(passengerCar(prefix + i));
+				}
+			} finally {
+				Train.Service.decommission(train);
+				release.countDown();
+			}
+
+			// the train was created, 3 wagons fit into the buffer
+			Assert.assertTrue(overflow.await(10, TimeUnit.SECONDS));
+			Assert.assertEquals(4, subscription.getPublished());
+			subscription.close();
+			Assert.assertEquals(subscription.getDropped(), reported.get());
+			Assert.assertTrue(subscription.getDropped() >= 7);
+		}
+	}
+
+	private static PassengerCar passengerCar(String serialNumber) {
+		return new PassengerCar(new Weight(40_000), new Length(26), 80, new Weight(1_000), null, null, null,
+				new SerialNumber(serialNumber));
+	}
+}
@@ -0,0 +1,72 @@
+package at.gwt.trainsim.fleet;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.VehicleFixtures;
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.FreightWagon;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+public class FleetReportTest {
+	private static final RailroadCompany OEBB = new RailroadCompany("OEBB");
+	private static final RailroadCompany WESTBAHN = new RailroadCompany("Westbahn");
+	private static final Manufacturer MANUFACTURER = new Manufacturer("Siemens");
+
+	@Test
+	public void testReportPerCompany() {
+		String prefix = VehicleFixtures.prefix("Report");
+
+		Train train1 = Train.Service.newTrain(OEBB, this.newLocomotive(prefix + "L1", 100_000));
+		train1.addWagon(new PassengerCar(new Weight(20_000), new Length(25), 120, new Weight(0), null, MANUFACTURER,
+				null, new SerialNumber(prefix + "P1")));
+		Train train2 = Train.Service.newTrain(OEBB, this.newLocomotive(prefix + "L2", 10_000));
+		train2.addWagon(new FreightWagon(new Weight(15_000), new Length(20), 0, new Weight(50_000), null,
+				MANUFACTURER, null, new SerialNumber(prefix + "F1")));
+		Train train3 = Train.Service.newTrain(WESTBAHN, this.newLocomotive(prefix + "L3", 100_000));
+		List<Train> trains = Arrays.asList(train1, train2, train3);
+
+		try {
+			for (boolean parallel : new boolean[] { false, true }) {
+				FleetReport report = FleetReport.create(trains, parallel);
+
+				Assert.assertEquals(3, report.getTrains().size());
+				Assert.assertEquals(2, report.getCompanies().size());
+
+				CompanyReport oebb = report.getCompany(OEBB).get();
+				Assert.assertEquals(2, oebb.getTrains());
+				Assert.assertEquals(1, oebb.getUndrivableTrains());
+				Assert.assertEquals(3, oebb.getRequiredGuards());
+				Assert.assertEquals(40_000 + 20_000 + 120 * 75 + 40_000 + 15_000 + 50_000, oebb.getWeightInKilogram(),
+						0d);
+				Assert.assertEquals(30 + 25 + 30 + 20, oebb.getLengthInMeters());
+
+				CompanyReport total = report.getTotal();
+				Assert.assertNull(total.getCompany());
+				Assert.assertEquals(3, total.getTrains());
+				Assert.assertEquals(2, total.getDrivableTrains());
+				Assert.assertEquals(oebb.getLengthInMeters() + 30, total.getLengthInMeters());
+			}
+		} finally {
+			trains.forEach(Train.Service::decommission);
+		}
+	}
+
+	private Locomotive newLocomotive(String serialNumber, double tractiveForce) {
+		return new Locomotive(new Weight(40_000), new Weight(tractiveForce), new Length(30),
+				new Classification("Taurus"), MANUFACTURER, new YearOfManufacturing(2005),
+				new SerialNumber(serialNumber), Drive.ELECTRICITY);
+	}
+}
@@ -0,0 +1,110 @@
+package at.gwt.trainsim.fleet;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.VehicleFixtures;
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.ConsistListener;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.FreightWagon;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Wagon;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+public class FleetRepositoryTest {
+	private static final Manufacturer SIEMENS = Manufacturer.of("Siemens");
+	private static final Manufacturer BOMBARDIER = Manufacturer.of("Bombardier");
+
+	@Test
+	public void testQueries() {
+		String prefix = VehicleFixtures.prefix("Repository");
+
+		Locomotive electric2005 = newLocomotive(prefix + "L1", SIEMENS, 2005, Drive.ELECTRICITY);
+		Locomotive electric1995 = newLocomotive(prefix + "L2", SIEMENS, 1995, Drive.ELECTRICITY);
+		Locomotive diesel2010 = newLocomotive(prefix + "L3", SIEMENS, 2010, Drive.DIESEL);
+		Locomotive electricBombardier = newLocomotive(prefix + "L4", BOMBARDIER, 2012, Drive.ELECTRICITY);
+		FreightWagon wagon = new FreightWagon(new Weight(15_000), new Length(20), 0, new Weight(50_000),
+				Classification.of("Freight"), SIEMENS, new YearOfManufacturing(2008), new SerialNumber(prefix + "W1"));
+
+		try (FleetRepository repository = FleetRepository.create()) {
+			repository.addAll(Arrays.asList(electric2005, electric1995, diesel2010, electricBombardier, wagon));
+
+			Assert.assertEquals(5, repository.size());
+			Assert.assertEquals(Collections.singletonList(electric2005), repository.query().drive(Drive.ELECTRICITY)
+					.manufacturer(SIEMENS).builtAfter(2000).free().list());
+			Assert.assertEquals(4, repository.query().locomotives().count());
+			Assert.assertEquals(Collections.singletonList(wagon), repository.query().wagons().list());
+			Assert.assertEquals(3, repository.query().manufacturer(SIEMENS).builtBetween(2005, 2010).count());
+			Assert.assertEquals(1, repository.query().builtBefore(2000).count());
+			Assert.assertEquals(0, repository.query().classification(Classification.of("Sleeper")).count());
+
+			Train train = Train.Service.newTrain(RailroadCompany.of("OEBB"), electric2005);
+			train.addWagon(wagon);
+			Assert.assertEquals(Arrays.asList(electric2005, wagon), repository.query().assigned().list());
+			Assert.assertEquals(0, repository.query().drive(Drive.ELECTRICITY).manufacturer(SIEMENS)
+					.builtAfter(2000).free().count());
+
+			train.addLocomotive(electric1995);
+			train.removeLocomotive(electric2005);
+			Assert.assertEquals(Arrays.asList(electric2005), repository.query().drive(Drive.ELECTRICITY)
+					.manufacturer(SIEMENS).free().list());
+
+			Train.Service.decommission(train);
+			Assert.assertEquals(0, repository.query().assigned().count());
+
+			Assert.assertEquals(0, repository.query().builtAfter(Integer.MAX_VALUE).count());
+			Assert.assertEquals(0, repository.query().builtBefore(Integer.MIN_VALUE).count());
+
+			// a vehicle without a year never matches a year criterion, not even the widest
+			repository.add(new FreightWagon(new Weight(15_000), new Length(20), 0, new Weight(50_000), null, null,
+					null, new SerialNumber(prefix + "W2")));
+			Assert.assertEquals(6, repository.query().count());
+			Assert.assertEquals(5, repository.query().builtBetween(Integer.MIN_VALUE, Integer.MAX_VALUE).count());
+		}
+	}
+
+	@Test
+	public void testAddWhileRemoved() {
+		String prefix = VehicleFixtures.prefix("Repository");
+		FreightWagon wagon = new FreightWagon(new Weight(15_000), new Length(20), 0, new Weight(50_000),
+				Classification.of("Freight"), SIEMENS, new YearOfManufacturing(2008), new SerialNumber(prefix + "W1"));
+
+		try (FleetRepository repository = FleetRepository.create()) {
+			// adds the wagon after the repository has been notified, but before the wagon is released
+			ConsistListener adder = new ConsistListener() {
+				@Override
+				public void wagonRemoved(Train train, Wagon removed) {
+					repository.add(removed);
+				}
+			};
+			Train.Service.addListener(adder);
+
+			Train train = Train.Service.newTrain(RailroadCompany.of("OEBB"),
+					newLocomotive(prefix + "L1", SIEMENS, 2005, Drive.ELECTRICITY));
+			try {
+				train.addWagon(wagon);
+				train.removeWagon(wagon);
+
+				Assert.assertEquals(Collections.singletonList(wagon), repository.query().free().list());
+			} finally {
+				Train.Service.removeListener(adder);
+				Train.Service.decommission(train);
+			}
+		}
+	}
+
+	private static Locomotive newLocomotive(String serialNumber, Manufacturer manufacturer, int year, Drive drive) {
+		return new Locomotive(new Weight(40_000), new Weight(300_000), new Length(30), Classification.of("Taurus"),
+				manufacturer, new YearOfManufacturing(year), new SerialNumber(serialNumber), drive);
+	}
+}
@@ -0,0 +1,103 @@
+package at.gwt.trainsim.fleet;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.FreightWagon;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.SleepingCar;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+public class FleetStoreTest {
+	private static final Manufacturer MANUFACTURER = new Manufacturer("Siemens");
+
+	@Test
+	public void testFleetStore() {
+		FleetStore store = new FleetStore(1);
+
+		Locomotive loc = new Locomotive(new Weight(30_000), new Weight(150_000), new Length(30), 4, new Weight(0),
+				new Classification("Taurus"), MANUFACTURER, new YearOfManufacturing(2005), new SerialNumber("L1"),
+				Drive.ELECTRICITY);
+		PassengerCar passengerCar = new PassengerCar(new Weight(20_000), new Length(50), 120, new Weight(12_000), null,
+				MANUFACTURER, new YearOfManufacturing(2000), new SerialNumber("P1"));
+		SleepingCar sleepingCar = new SleepingCar(new Weight(30_000), new Length(70), 60, new Weight(20_000),
+				new Classification("Comfortable Beds"), new Manufacturer("Heavens Bedrooms"),
+				new YearOfManufacturing(2005), new SerialNumber("S1"));
+
+		Assert.assertEquals(0, store.add(loc));
+		Assert.assertEquals(1, store.add(passengerCar));
+		Assert.assertEquals(2, store.add(sleepingCar));
+		Assert.assertEquals(3, store.size());
+
+		Assert.assertEquals(VehicleType.LOCOMOTIVE, store.getType(0));
+		Assert.assertEquals(Drive.ELECTRICITY, store.getTypeOfDrive(0));
+		Assert.assertNull(store.getTypeOfDrive(1));
+		Assert.assertEquals(150_000, store.getTractiveForceInKilogram(0), 0);
+		Assert.assertEquals(50, store.getLengthInMeters(1));
+		Assert.assertEquals(60, store.getMaxPassengers(2));
+		Assert.assertEquals("Siemens", store.getManufacturer(1));
+		Assert.assertNull(store.getClassification(1));
+		Assert.assertEquals(2005, store.getYearOfManufacturing(2));
+		Assert.assertEquals("S1", store.getSerialNumber(2));
+
+		Assert.assertEquals(loc, store.getVehicle(0));
+		Assert.assertEquals(passengerCar, store.getVehicle(1));
+		Assert.assertEquals(sleepingCar, store.getVehicle(2));
+
+		Assert.assertEquals(80_000, store.getTotalEmptyWeightInKilogram(), 0);
+		Assert.assertEquals(184, store.getTotalMaxPassengers());
+	}
+
+	@Test
+	public void testTractiveForceByDrive() {
+		FleetStore store = new FleetStore();
+
+		for (int i = 0; i < 10; i++) {
+			store.add(new Locomotive(new Weight(30_000), new Weight(100_000), new Length(30),
+					new Classification("Taurus"), MANUFACTURER, new YearOfManufacturing(2005),
+					new SerialNumber("E" + i), Drive.ELECTRICITY));
+			store.add(new Locomotive(new Weight(30_000), new Weight(50_000), new Length(30),
+					new Classification("Hercules"), MANUFACTURER, new YearOfManufacturing(2005),
+					new SerialNumber("D" + i), Drive.DIESEL));
+			store.add(new FreightWagon(new Weight(15_000), new Length(120), 0, new Weight(80_000),
+					new Classification("Loads wood"), new Manufacturer("SteelWagon"), new YearOfManufacturing(1990),
+					new SerialNumber("W" + i)));
+		}
+
+		Map<Drive, Weight> tractiveForce = store.getTractiveForceByDrive();
+		Assert.assertEquals(new Weight(1_000_000), tractiveForce.get(Drive.ELECTRICITY));
+		Assert.assertEquals(new Weight(500_000), tractiveForce.get(Drive.DIESEL));
+		Assert.assertEquals(new Weight(0), tractiveForce.get(Drive.STEAM));
+	}
+
+	@Test
+	public void testView() {
+		FleetStore store = new FleetStore();
+		store.add(new FreightWagon(new Weight(15_000), new Length(120), 0, new Weight(80_000),
+				new Classification("Loads wood"), new Manufacturer("SteelWagon"), new YearOfManufacturing(1990),
+				new SerialNumber("W1")));
+		store.add(new FreightWagon(new Weight(16_000), new Length(100), 0, new Weight(60_000),
+				new Classification("Loads coal"), new Manufacturer("SteelWagon"), new YearOfManufacturing(1992),
+				new SerialNumber("W2")));
+
+		VehicleView view = store.view();
+		Assert.assertEquals("W1", view.moveTo(0).getSerialNumber());
+		Assert.assertEquals(VehicleType.FREIGHT_WAGON, view.getType());
+		Assert.assertEquals(60_000, view.moveTo(1).getMaxAdditionalLoadInKilogram(), 0);
+		Assert.assertEquals("Loads coal", view.getClassification());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testInvalidIndex() {
+		new FleetStore().getEmptyWeightInKilogram(0);
+	}
+}
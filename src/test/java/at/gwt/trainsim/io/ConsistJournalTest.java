@@ -0,0 +1,274 @@
+package at.gwt.trainsim.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import at.gwt.trainsim.VehicleFixtures;
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.FreightWagon;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Wagon;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+import at.gwt.trainsim.io.ConsistJournal.FsyncPolicy;
+
+public class ConsistJournalTest {
+	private static final RailroadCompany COMPANY = new RailroadCompany("OEBB");
+	private static final Manufacturer MANUFACTURER = new Manufacturer("Siemens");
+
+	private String prefix;
+	private Path journalPath;
+	private Path snapshotPath;
+
+	@Before
+	public void setUp() throws IOException {
+		this.prefix = VehicleFixtures.prefix("Journal");
+
+		Path directory = Files.createTempDirectory("journal");
+		this.journalPath = directory.resolve("consists.journal");
+		this.snapshotPath = directory.resolve("consists.snapshot");
+	}
+
+	@Test
+	public void testReplayAfterRestart() throws IOException {
+		Wagon wagon1 = this.newWagon("W1");
+		Wagon wagon2 = this.newWagon("W2");
+		Wagon wagon3 = this.newWagon("W3");
+
+		ConsistJournal journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.EVERY_BATCH, 0);
+		Train train1 = Train.Service.newTrain(COMPANY, this.newLocomotive("L1"));
+		train1.addWagons(Arrays.asList(wagon1, wagon2));
+		train1.addLocomotive(this.newLocomotive("L2"));
+		Train train2 = Train.Service.newTrain(COMPANY, this.newLocomotive("L3"));
+		train1.removeWagon(wagon2);
+		train2.addWagon(wagon2);
+		train2.addWagon(wagon3);
+		journal.flush();
+
+		Assert.assertTrue(Files.size(this.journalPath) > 0);
+		journal.close();
+
+		// simulates a restart
+		this.forget(train1, train2);
+
+		journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.EVERY_BATCH, 0);
+		try {
+			Assert.assertEquals(8, journal.getReplayedRecords());
+			Assert.assertEquals(0, journal.getSkippedRecords());
+			Assert.assertEquals(0, Files.size(this.journalPath));
+
+			Train restored1 = Train.Service.getTrain(train1.getId()).get();
+			Train restored2 = Train.Service.getTrain(train2.getId()).get();
+			Assert.assertEquals(2, restored1.getLocomotives().size());
+			Assert.assertEquals(Arrays.asList(wagon1.getSerialNumber()), restored1.getWagons().stream()
+					.map(Wagon::getSerialNumber).collect(Collectors.toList()));
+			Assert.assertEquals(2, restored2.getWagons().size());
+			Assert.assertEquals(40_000 + 2 * (15_000 + 50_000), restored2.getWeightInKilogram(), 0d);
+		} finally {
+			journal.close();
+			this.forget(Train.Service.getTrain(train1.getId()).get(), Train.Service.getTrain(train2.getId()).get());
+		}
+	}
+
+	@Test
+	public void testTornTailIsDiscarded() throws IOException {
+		ConsistJournal journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.NEVER, 0);
+		Train train = Train.Service.newTrain(COMPANY, this.newLocomotive("L1"));
+		train.addWagon(this.newWagon("W1"));
+		journal.flush();
+		journal.close();
+		this.forget(train);
+
+		// a record which was only partially written before a crash
+		Files.write(this.journalPath, new byte[] { 0, 0, 0, 100, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+		journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.NEVER, 0);
+		try {
+			Assert.assertEquals(2, journal.getReplayedRecords());
+			Assert.assertEquals(1, Train.Service.getTrain(train.getId()).get().getWagons().size());
+		} finally {
+			journal.close();
+			this.forget(Train.Service.getTrain(train.getId()).get());
+		}
+	}
+
+	@Test
+	public void testCompaction() throws IOException {
+		ConsistJournal journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.PERIODIC, 0);
+		Train train = Train.Service.newTrain(COMPANY, this.newLocomotive("L1"));
+		Train decommissioned = Train.Service.newTrain(COMPANY, this.newLocomotive("L2"));
+		train.addWagon(this.newWagon("W1"));
+		Train.Service.decommission(decommissioned);
+		journal.compact();
+
+		Assert.assertEquals(0, Files.size(this.journalPath));
+		Assert.assertEquals(1, FleetSnapshot.open(this.snapshotPath).getTrainCount());
+
+		train.addWagon(this.newWagon("W2"));
+		journal.close();
+		this.forget(train);
+
+		journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.PERIODIC, 0);
+		try {
+			Assert.assertEquals(1, journal.getReplayedRecords());
+			Assert.assertEquals(2, Train.Service.getTrain(train.getId()).get().getWagons().size());
+			Assert.assertFalse(Train.Service.getTrain(decommissioned.getId()).isPresent());
+		} finally {
+			journal.close();
+			this.forget(Train.Service.getTrain(train.getId()).get());
+		}
+	}
+
+	@Test
+	public void testNamesWithoutLimit() throws IOException {
+		char[] serialNumber = new char[70_000];
+		Arrays.fill(serialNumber, '\u00d6');
+
+		ConsistJournal journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.NEVER, 0);
+		Train train = Train.Service.newTrain(new RailroadCompany(null), this.newLocomotive(new String(serialNumber)));
+		journal.flush();
+		journal.close();
+		this.forget(train);
+
+		journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.NEVER, 0);
+		try {
+			Train restored = Train.Service.getTrain(train.getId()).get();
+			Assert.assertNull(restored.getCompany().getName());
+			Assert.assertEquals(this.prefix + new String(serialNumber),
+					restored.getLocomotives().iterator().next().getSerialNumber().getNumber());
+		} finally {
+			journal.close();
+			this.forget(Train.Service.getTrain(train.getId()).get());
+		}
+	}
+
+	@Test(timeout = 10_000)
+	public void testFailureDoesNotBlock() throws IOException {
+		ConsistJournal journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.NEVER, 0);
+		Train train = Train.Service.newTrain(COMPANY, this.newLocomotive("L1"));
+		try {
+			// an unknown kind of wagon cannot be encoded
+			train.addWagon(new Wagon(new Weight(15_000), new Length(20), 0, new Weight(50_000), null, null, null,
+					new SerialNumber(this.prefix + "W1")) {
+			});
+			for (int i = 0; i < ConsistJournal.QUEUE_CAPACITY + 1; i++) {
+				train.addWagon(this.newWagon("W" + (i + 2)));
+			}
+
+			try {
+				journal.flush();
+				Assert.fail("Journal has failed");
+			} catch (IOException e) {
+				// expected
+			}
+		} finally {
+			this.forget(train);
+			try {
+				journal.close();
+			} catch (IOException e) {
+				// the failure is reported again
+			}
+		}
+	}
+
+	@Test
+	public void testLoadsAreJournaled() throws IOException {
+		Wagon wagon1 = this.newWagon("W1");
+		Wagon wagon2 = this.newWagon("W2");
+
+		ConsistJournal journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.NEVER, 0);
+		Train train = Train.Service.newTrain(COMPANY, this.newLocomotive("L1"));
+		train.addWagons(Arrays.asList(wagon1, wagon2));
+		train.addFreight(wagon1, 20_000);
+		train.addFreight(wagon1, 5_000);
+		train.addFreight(wagon2, 10_000);
+		train.removeWagon(wagon2);
+		journal.flush();
+		journal.close();
+		this.forget(train);
+
+		journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.NEVER, 0);
+		journal.close();
+		Train restored = Train.Service.getTrain(train.getId()).get();
+		Assert.assertEquals(25_000, restored.getFreightInKilogram(wagon1), 0d);
+		Assert.assertEquals(25_000, restored.getFreightInKilogram(), 0d);
+		this.forget(restored);
+
+		// the second restart restores the loads from the compacted snapshot
+		Assert.assertEquals(0, Files.size(this.journalPath));
+		journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.NEVER, 0);
+		try {
+			Assert.assertEquals(0, journal.getReplayedRecords());
+			Assert.assertEquals(25_000,
+					Train.Service.getTrain(train.getId()).get().getFreightInKilogram(wagon1), 0d);
+		} finally {
+			journal.close();
+			this.forget(Train.Service.getTrain(train.getId()).get());
+		}
+	}
+
+	@Test
+	public void testCompanyChangesAreJournaled() throws IOException {
+		RailroadCompany company = RailroadCompany.of(this.prefix + "Company");
+
+		ConsistJournal journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.NEVER, 0);
+		Train train = Train.Service.newTrain(COMPANY, this.newLocomotive("L1"));
+		train.setCompany(company);
+		journal.flush();
+		journal.close();
+		this.forget(train);
+
+		journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.NEVER, 0);
+		try {
+			Assert.assertEquals(2, journal.getReplayedRecords());
+			Assert.assertEquals(company, Train.Service.getTrain(train.getId()).get().getCompany());
+		} finally {
+			journal.close();
+			this.forget(Train.Service.getTrain(train.getId()).get());
+		}
+
+		// the compacted snapshot keeps the new company
+		journal = ConsistJournal.open(this.journalPath, this.snapshotPath, FsyncPolicy.NEVER, 0);
+		try {
+			Assert.assertEquals(company, Train.Service.getTrain(train.getId()).get().getCompany());
+		} finally {
+			journal.close();
+			this.forget(Train.Service.getTrain(train.getId()).get());
+		}
+	}
+
+	/**
+	 * Removes trains from the service without journaling it.
+	 */
+	private void forget(Train... trains) {
+		for (Train train : trains) {
+			Train.Service.decommission(train);
+		}
+	}
+
+	private Locomotive newLocomotive(String serialNumber) {
+		return new Locomotive(new Weight(40_000), new Weight(300_000), new Length(30), new Classification("Taurus"),
+				MANUFACTURER, new YearOfManufacturing(2005), new SerialNumber(this.prefix + serialNumber),
+				Drive.ELECTRICITY);
+	}
+
+	private Wagon newWagon(String serialNumber) {
+		return new FreightWagon(new Weight(15_000), new Length(20), 0, new Weight(50_000),
+				new Classification("Freight"), MANUFACTURER, new YearOfManufacturing(1990),
+				new SerialNumber(this.prefix + serialNumber));
+	}
+}
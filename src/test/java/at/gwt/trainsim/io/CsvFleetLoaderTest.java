@@ -0,0 +1,72 @@
+package at.gwt.trainsim.io;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.VehicleFixtures;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.RailVehicle;
+import at.gwt.trainsim.beans.SleepingCar;
+import at.gwt.trainsim.beans.Train;
+
+public class CsvFleetLoaderTest {
+	private static final String HEADER = "type,serialNumber,classification,manufacturer,yearOfManufacturing,"
+			+ "emptyWeight,length,maxPassengers,maxAdditionalLoad,tractiveForce,typeOfDrive,company,train";
+
+	@Test
+	public void testLoad() throws IOException {
+		String prefix = VehicleFixtures.prefix("Csv");
+		String export = String.join("\n", HEADER,
+				"sleeping_car," + prefix + "S1,Comfortable Beds,Heavens Bedrooms,2005,30000,70,60,20000,,,,T1",
+				"locomotive," + prefix + "L1,Taurus,Siemens,2005,30000,30,4,0,150000,electricity,OEBB,T1",
+				"passenger_car," + prefix + "P1,,\"Siemens, Vienna\",2000,20000,50,120,12000,,,,T1",
+				"passenger_car," + prefix + "P2,,Siemens,2000,-20000,50,120,12000,,,,T1",
+				"",
+				"unknown," + prefix + "X1,,Siemens,2000,20000,50,120,12000,,,,T1",
+				"freight_wagon," + prefix + "F1,Loads wood,SteelWagon,1990,15000,120,0,80000,,,,",
+				"freight_wagon," + prefix + "F2,Loads wood,SteelWagon,1990,15000,120,0,80000,,,,T2",
+				"passenger_car," + prefix + "P3,,Siemens,2000,20000,50,1.5,12000,,,,");
+
+		List<RailVehicle> vehicles = new ArrayList<>();
+		List<MalformedRow> malformedRows = new ArrayList<>();
+
+		LoadReport report = new CsvFleetLoader(vehicles::add, malformedRows::add, 16).load(new StringReader(export));
+
+		Assert.assertEquals(new LoadReport(8, 4, 1, 4), report);
+		Assert.assertEquals(Arrays.asList(5L, 7L, 10L, 9L),
+				Arrays.asList(malformedRows.get(0).getLineNumber(), malformedRows.get(1).getLineNumber(),
+						malformedRows.get(2).getLineNumber(), malformedRows.get(3).getLineNumber()));
+
+		Locomotive locomotive = (Locomotive) vehicles.get(0);
+		Assert.assertTrue(vehicles.get(1) instanceof SleepingCar);
+		Assert.assertEquals(Drive.ELECTRICITY, locomotive.getTypeOfDrive());
+		Assert.assertEquals("Siemens, Vienna", vehicles.get(2).getManufacturer().getName());
+
+		Train train = Train.Service.findTrain(locomotive).get();
+		Assert.assertEquals("OEBB", train.getCompany().getName());
+		Assert.assertEquals(2, train.getWagons().size());
+		Assert.assertFalse(Train.Service.findTrain(vehicles.get(3)).isPresent());
+
+		Train.Service.decommission(train);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingColumn() throws IOException {
+		new CsvFleetLoader().load(new StringReader("type,serialNumber,emptyWeight"));
+	}
+
+	@Test
+	public void testSplit() {
+		List<String> fields = new ArrayList<>();
+		CsvFleetLoader.split("a, \"b,\"\"c\"\"\" ,,d", fields, new StringBuilder());
+
+		Assert.assertEquals(Arrays.asList("a", "b,\"c\"", "", "d"), fields);
+	}
+}
@@ -0,0 +1,153 @@
+package at.gwt.trainsim.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.VehicleFixtures;
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.FreightWagon;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+public class FleetSnapshotTest {
+	private static final RailroadCompany COMPANY = new RailroadCompany("OEBB");
+	private static final Manufacturer MANUFACTURER = new Manufacturer("Siemens");
+
+	@Test
+	public void testWriteAndRestore() throws IOException {
+		String prefix = VehicleFixtures.prefix("Snapshot");
+
+		Locomotive loc1 = new Locomotive(new Weight(30_000), new Weight(150_000), new Length(30), 4, new Weight(0),
+				new Classification("Taurus"), MANUFACTURER, new YearOfManufacturing(2005),
+				new SerialNumber(prefix + "L1"), Drive.ELECTRICITY);
+		Locomotive loc2 = new Locomotive(new Weight(20_000), new Weight(80_000), new Length(40),
+				new Classification("Old-Timer"), MANUFACTURER, null, new SerialNumber(prefix + "L2"), Drive.STEAM);
+		PassengerCar passengerCar = new PassengerCar(new Weight(20_000), new Length(50), 120, new Weight(12_000), null,
+				MANUFACTURER, new YearOfManufacturing(2000), new SerialNumber(prefix + "P1"));
+		FreightWagon freightWagon = new FreightWagon(new Weight(15_000), new Length(120), 0, new Weight(80_000),
+				new Classification("Loads wood"), new Manufacturer("Stahlwagen \u00d6sterreich"),
+				new YearOfManufacturing(1990), new SerialNumber(prefix + "F1"));
+		FreightWagon freeWagon = new FreightWagon(new Weight(15_000), new Length(120), 0, new Weight(80_000),
+				new Classification("Loads wood"), new Manufacturer("Stahlwagen \u00d6sterreich"),
+				new YearOfManufacturing(1990), new SerialNumber(prefix + "F2"));
+
+		Train train1 = Train.Service.newTrain(COMPANY, loc1);
+		train1.addWagons(Arrays.asList(passengerCar, freightWagon));
+		train1.addPassengers(loc1, 2);
+		train1.addPassengers(passengerCar, 100);
+		train1.addFreight(freightWagon, 30_000);
+		Train train2 = Train.Service.newTrain(new RailroadCompany("Westbahn"), loc2);
+
+		Path path = Files.createTempFile("fleet", ".snapshot");
+		try {
+			FleetSnapshot.write(path, Collections.singletonList(freeWagon), Arrays.asList(train2, train1));
+
+			Train.Service.decommission(train1);
+			Train.Service.decommission(train2);
+
+			FleetSnapshot snapshot = FleetSnapshot.open(path);
+			Assert.assertEquals(5, snapshot.getVehicleCount());
+			Assert.assertEquals(2, snapshot.getTrainCount());
+			Assert.assertEquals(freeWagon, snapshot.getVehicle(0));
+
+			Train restored2 = snapshot.restoreTrain(train2.getId()).get();
+			Assert.assertEquals(train2.getId(), restored2.getId());
+			Assert.assertEquals("Westbahn", restored2.getCompany().getName());
+			Assert.assertEquals(Collections.singletonList(loc2), Arrays.asList(restored2.getLocomotives().toArray()));
+			Assert.assertFalse(snapshot.restoreTrain(-1).isPresent());
+
+			Train.Service.decommission(restored2);
+
+			List<Train> restored = snapshot.restoreTrains();
+			Assert.assertEquals(2, restored.size());
+
+			Train restored1 = restored.get(0);
+			Assert.assertEquals(train1.getId(), restored1.getId());
+			Assert.assertEquals(Arrays.asList(passengerCar, freightWagon),
+					Arrays.asList(restored1.getWagons().toArray()));
+			Assert.assertEquals(new Weight(166_300), restored1.getWeight());
+			Assert.assertEquals(2, restored1.getPassengers(loc1));
+			Assert.assertEquals(100, restored1.getPassengers(passengerCar));
+			Assert.assertEquals(30_000, restored1.getFreightInKilogram(freightWagon), 0d);
+			Assert.assertEquals(102, restored1.getPassengers());
+			Assert.assertSame(restored1, Train.Service.findTrain(freightWagon).get());
+
+			Train newTrain = Train.Service.newTrain(COMPANY,
+					new Locomotive(new Weight(40_000), new Weight(300_000), new Length(60), new Classification(""),
+							MANUFACTURER, new YearOfManufacturing(2020), new SerialNumber(prefix + "L3"),
+							Drive.ELECTRICITY));
+			Assert.assertTrue(newTrain.getId() > restored.get(1).getId());
+
+			restored.forEach(Train.Service::decommission);
+			Train.Service.decommission(newTrain);
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void testRestoreTrains() throws IOException {
+		String prefix = VehicleFixtures.prefix("Snapshot");
+
+		Locomotive loc1 = new Locomotive(new Weight(30_000), new Weight(150_000), new Length(30),
+				new Classification("Taurus"), MANUFACTURER, null, new SerialNumber(prefix + "L1"), Drive.ELECTRICITY);
+		Locomotive loc2 = new Locomotive(new Weight(30_000), new Weight(150_000), new Length(30),
+				new Classification("Taurus"), MANUFACTURER, null, new SerialNumber(prefix + "L2"), Drive.ELECTRICITY);
+		Train train1 = Train.Service.newTrain(new RailroadCompany(null), loc1);
+		Train train2 = Train.Service.newTrain(COMPANY, loc2);
+
+		Path path = Files.createTempFile("fleet", ".snapshot");
+		try {
+			FleetSnapshot.write(path, Collections.emptyList(), Arrays.asList(train1, train2));
+			Train.Service.decommission(train1);
+			FleetSnapshot snapshot = FleetSnapshot.open(path);
+
+			// the second train still exists, so nothing is restored
+			try {
+				snapshot.restoreTrains();
+				Assert.fail("Train already exists");
+			} catch (IllegalStateException e) {
+				// expected
+			}
+			Assert.assertFalse(Train.Service.getTrain(train1.getId()).isPresent());
+			Assert.assertFalse(Train.Service.findTrain(loc1).isPresent());
+
+			Train.Service.decommission(train2);
+			List<Train> restored = snapshot.restoreTrains();
+			Assert.assertEquals(2, restored.size());
+			Assert.assertNull(restored.get(0).getCompany().getName());
+
+			restored.forEach(Train.Service::decommission);
+		} finally {
+			Train.Service.decommission(train1);
+			Train.Service.decommission(train2);
+			Files.delete(path);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOpenInvalidFile() throws IOException {
+		Path path = Files.createTempFile("fleet", ".snapshot");
+		try {
+			Files.write(path, new byte[64]);
+			FleetSnapshot.open(path);
+		} finally {
+			Files.delete(path);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package at.gwt.trainsim.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.VehicleFixtures;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.exception.AlreadyInUseException;
+
+public class TrainMetricsTest {
+
+	@Test
+	public void testHistogram() {
+		Histogram histogram = new Histogram();
+		for (long value = 1; value <= 10_000; value++) {
+			histogram.record(value);
+		}
+
+		Assert.assertEquals(10_000, histogram.getCount());
+		Assert.assertEquals(5_000, histogram.getMean(), 5_000 * 0.03);
+		Assert.assertEquals(5_000, histogram.getPercentile(50), 5_000 * 0.04);
+		Assert.assertEquals(9_900, histogram.getPercentile(99), 9_900 * 0.04);
+		Assert.assertEquals(10_000, histogram.getMax(), 10_000 * 0.04);
+		Assert.assertEquals(1, histogram.getPercentile(0));
+
+		for (long value : new long[] { 0, 31, 32, 33, 1_000, 1L << 40, Long.MAX_VALUE }) {
+			int index = Histogram.index(value);
+			Assert.assertTrue(Histogram.lowest(index) <= value);
+			Assert.assertTrue(Histogram.highest(index) >= value);
+		}
+
+		histogram.reset();
+		Assert.assertEquals(0, histogram.getCount());
+	}
+
+	@Test
+	public void testTrainMetrics() throws Exception {
+		String prefix = VehicleFixtures.prefix("Metrics");
+		TrainMetrics metrics = TrainMetrics.getInstance();
+		// metrics may have been enabled by the system property
+		boolean enabled = Metrics.isEnabled();
+		Metrics.setEnabled(false);
+		metrics.reset();
+
+		Train train = Train.Service.newTrain(RailroadCompany.of(prefix), VehicleFixtures.locomotive(prefix + "L0"));
+		try {
+			Assert.assertEquals(0, TrainMetrics.NEW_TRAIN.getHistogram().getCount());
+
+			Metrics.setEnabled(true);
+			train.addWagon(new PassengerCar(new Weight(40_000), new Length(26), 80, new Weight(1_000), null, null, null,
+					new SerialNumber(prefix + "P")));
+			train.addLocomotive(VehicleFixtures.locomotive(prefix + "L1"));
+			train.getWeightInKilogram();
+			train.isDrivable();
+			Metrics.setEnabled(false);
+			train.getRequiredGuards();
+
+			Assert.assertEquals(1, TrainMetrics.ADD_WAGON.getHistogram().getCount());
+			Assert.assertEquals(1, TrainMetrics.ADD_LOCOMOTIVE.getHistogram().getCount());
+			Assert.assertEquals(2, TrainMetrics.CLAIM.getHistogram().getCount());
+			Assert.assertEquals(2, metrics.getAggregateReads());
+			Assert.assertEquals(Long.valueOf(1), metrics.getTrainsPerCompany().get(prefix));
+
+			TrainMetrics.register();
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(TrainMetrics.OBJECT_NAME);
+			Assert.assertEquals(2L, server.getAttribute(name, "AggregateReads"));
+			Assert.assertTrue((Integer) server.getAttribute(name, "Trains") >= 1);
+			Assert.assertEquals(4, ((Object[]) server.getAttribute(name, "Timers")).length);
+			Assert.assertTrue(server.getAttribute(name, "TrainsPerCompany") instanceof TabularData);
+		} finally {
+			Metrics.setEnabled(enabled);
+			Train.Service.decommission(train);
+		}
+	}
+
+	@Test
+	public void testFailedCallsAndUnnamedCompanies() {
+		String prefix = VehicleFixtures.prefix("Metrics");
+		TrainMetrics metrics = TrainMetrics.getInstance();
+		boolean enabled = Metrics.isEnabled();
+		Metrics.setEnabled(true);
+		metrics.reset();
+
+		Locomotive locomotive = VehicleFixtures.locomotive(prefix + "L0");
+		Train train = Train.Service.newTrain(new RailroadCompany(null), locomotive);
+		try {
+			try {
+				Train.Service.newTrain(RailroadCompany.of(prefix), locomotive);
+				Assert.fail("Locomotive is in use");
+			} catch (AlreadyInUseException e) {
+				// expected
+			}
+			Assert.assertEquals(2, TrainMetrics.NEW_TRAIN.getHistogram().getCount());
+
+			train.getPassengers();
+			train.getFreightInKilogram();
+			Assert.assertEquals(2, metrics.getAggregateReads());
+			Assert.assertTrue(metrics.getTrainsPerCompany().get(TrainMetrics.UNNAMED_COMPANY) >= 1);
+
+			Train.Service.decommission(train);
+			try {
+				train.addWagon(new PassengerCar(new Weight(40_000), new Length(26), 80, new Weight(1_000), null, null,
+						null, new SerialNumber(prefix + "P")));
+				Assert.fail("Train has been decommissioned");
+			} catch (IllegalStateException e) {
+				// expected
+			}
+			Assert.assertEquals(1, TrainMetrics.ADD_WAGON.getHistogram().getCount());
+		} finally {
+			Metrics.setEnabled(enabled);
+			Train.Service.decommission(train);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package at.gwt.trainsim.planning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.FreightWagon;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+public class LocomotiveOptimizerTest {
+	private static final Manufacturer MANUFACTURER = Manufacturer.of("Siemens");
+
+	private int serialNumber;
+
+	@Test
+	public void testCostFunctions() {
+		Locomotive strong = this.newLocomotive(100_000, 300_000, 0, Drive.ELECTRICITY);
+		Locomotive light1 = this.newLocomotive(30_000, 150_000, 0, Drive.STEAM);
+		Locomotive light2 = this.newLocomotive(30_000, 150_000, 0, Drive.STEAM);
+		Locomotive diesel = this.newLocomotive(90_000, 260_000, 0, Drive.DIESEL);
+		List<Locomotive> candidates = Arrays.asList(strong, light1, light2, diesel);
+
+		Assert.assertEquals(1, new LocomotiveOptimizer(LocomotiveCost.COUNT).optimize(250_000, candidates).get()
+				.getLocomotives().size());
+
+		LocomotivePlan lightest = new LocomotiveOptimizer(LocomotiveCost.EMPTY_WEIGHT).optimize(250_000, candidates)
+				.get();
+		Assert.assertEquals(Arrays.asList(light1, light2), lightest.getLocomotives());
+		Assert.assertEquals(60_000, lightest.getCost(), 0d);
+		Assert.assertEquals(50_000, lightest.getReserveInKilogram(), 0d);
+		Assert.assertTrue(lightest.isOptimal());
+
+		Assert.assertEquals(Collections.singletonList(diesel),
+				new LocomotiveOptimizer(LocomotiveCost.preferring(Drive.DIESEL, Drive.ELECTRICITY))
+						.optimize(250_000, candidates).get().getLocomotives());
+	}
+
+	@Test
+	public void testTractiveForceMustExceedLoad() {
+		Locomotive locomotive = this.newLocomotive(80_000, 300_000, 0, Drive.ELECTRICITY);
+		Locomotive withPassengers = this.newLocomotive(80_000, 310_000, 200, Drive.ELECTRICITY);
+		LocomotiveOptimizer optimizer = new LocomotiveOptimizer(LocomotiveCost.COUNT);
+
+		Assert.assertEquals(Collections.singletonList(locomotive),
+				optimizer.optimize(299_999, Arrays.asList(locomotive, withPassengers)).get().getLocomotives());
+		Assert.assertEquals(2,
+				optimizer.optimize(300_000, Arrays.asList(locomotive, withPassengers)).get().getLocomotives().size());
+		Assert.assertFalse(optimizer.optimize(600_000, Arrays.asList(locomotive, withPassengers)).isPresent());
+		Assert.assertFalse(optimizer.optimize(0, Collections.emptyList()).isPresent());
+	}
+
+	@Test
+	public void testMatchesExhaustiveSearch() {
+		Random random = new Random(42);
+		LocomotiveOptimizer optimizer = new LocomotiveOptimizer(LocomotiveCost.EMPTY_WEIGHT);
+
+		for (int round = 0; round < 50; round++) {
+			List<Locomotive> candidates = new ArrayList<>();
+			for (int i = 0; i < 12; i++) {
+				candidates.add(this.newLocomotive(20_000 + random.nextInt(8) * 10_000,
+						50_000 + random.nextInt(10) * 25_000, random.nextInt(3) * 100, Drive.ELECTRICITY));
+			}
+			double load = random.nextInt(1_500_000);
+
+			double best = Double.MAX_VALUE;
+			for (int subset = 1; subset < 1 << candidates.size(); subset++) {
+				double net = 0d;
+				double cost = 0d;
+				for (int i = 0; i < candidates.size(); i++) {
+					if ((subset & 1 << i) != 0) {
+						net += LocomotiveOptimizer.netTractiveForce(candidates.get(i));
+						cost += candidates.get(i).getEmptyWeightInKilogram();
+					}
+				}
+				if (net > load) {
+					best = Math.min(best, cost);
+				}
+			}
+
+			if (best == Double.MAX_VALUE) {
+				Assert.assertFalse(optimizer.optimize(load, candidates).isPresent());
+			} else {
+				Assert.assertEquals(best, optimizer.optimize(load, candidates).get().getCost(), 0d);
+			}
+		}
+	}
+
+	@Test
+	public void testCurrentLoadOfWagons() {
+		Locomotive locomotive = this.newLocomotive(80_000, 300_000, 200, Drive.ELECTRICITY);
+		PassengerCar passengerCar = new PassengerCar(new Weight(20_000), new Length(50), 120, new Weight(12_000), null,
+				MANUFACTURER, new YearOfManufacturing(2000), new SerialNumber("Optimizer-" + this.serialNumber++));
+		FreightWagon freightWagon = new FreightWagon(new Weight(15_000), new Length(120), 0, new Weight(80_000),
+				null, MANUFACTURER, new YearOfManufacturing(1990),
+				new SerialNumber("Optimizer-" + this.serialNumber++));
+		Train train = Train.Service.newTrain(RailroadCompany.of("OEBB"), locomotive);
+
+		try {
+			train.addWagon(passengerCar);
+			train.addWagon(freightWagon);
+			train.addPassengers(locomotive, 100);
+			train.addPassengers(passengerCar, 50);
+			train.addFreight(freightWagon, 10_000);
+
+			// passengers on the train's own locomotive do not count
+			Locomotive candidate = this.newLocomotive(80_000, 100_000, 0, Drive.ELECTRICITY);
+			LocomotivePlan plan = new LocomotiveOptimizer(LocomotiveCost.COUNT)
+					.optimizeForCurrentLoad(train, Collections.singletonList(candidate)).get();
+			Assert.assertEquals(100_000 - 50 * Train.WEIGHT_PER_PASSENGER_IN_KILOGRAM - 10_000,
+					plan.getReserveInKilogram(), 1e-6);
+
+			train.removeWagon(passengerCar);
+			Assert.assertEquals(90_000, new LocomotiveOptimizer(LocomotiveCost.COUNT)
+					.optimizeForCurrentLoad(train, Collections.singletonList(candidate)).get().getReserveInKilogram(),
+					1e-6);
+		} finally {
+			Train.Service.decommission(train);
+		}
+	}
+
+	private Locomotive newLocomotive(double emptyWeight, double tractiveForce, long passengers, Drive drive) {
+		return new Locomotive(new Weight(emptyWeight), new Weight(tractiveForce), new Length(20), passengers,
+				new Weight(0), Classification.of("Taurus"), MANUFACTURER, new YearOfManufacturing(2005),
+				new SerialNumber("Optimizer-" + this.serialNumber++), drive);
+	}
+}
@@ -0,0 +1,88 @@
+package at.gwt.trainsim.planning;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.beans.DiningCar;
+import at.gwt.trainsim.beans.FreightWagon;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.SleepingCar;
+import at.gwt.trainsim.beans.Wagon;
+import at.gwt.trainsim.beans.Weight;
+
+public class WagonPlannerTest {
+	private int serialNumber;
+
+	@Test
+	public void testPlanMeetsDemandAtLowCost() {
+		List<Wagon> pool = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			pool.add(new PassengerCar(new Weight(40_000), new Length(26), 80, new Weight(0), null, null, null,
+					this.nextSerialNumber()));
+			pool.add(new SleepingCar(new Weight(50_000), new Length(27), 40, new Weight(0), null, null, null,
+					this.nextSerialNumber()));
+			pool.add(new DiningCar(new Weight(45_000), new Length(26), 30, new Weight(0), null, null, null,
+					this.nextSerialNumber()));
+			pool.add(new FreightWagon(new Weight(20_000), new Length(15), 0, new Weight(60_000), null, null, null,
+					this.nextSerialNumber()));
+			pool.add(new FreightWagon(new Weight(25_000), new Length(20), 0, new Weight(90_000), null, null, null,
+					this.nextSerialNumber()));
+		}
+
+		WagonPlanner planner = new WagonPlanner(WagonCost.LENGTH, pool);
+		WagonPlan plan = planner.plan(new WagonDemand(300, 150_000)).get();
+
+		Assert.assertTrue(plan.getPassengers() >= 300);
+		Assert.assertTrue(plan.getFreightInKilogram() >= 150_000);
+		// four passenger cars and one wagon of each freight kind are the shortest choice
+		Assert.assertEquals(4 * 26 + 15 + 20, plan.getLengthInMeters());
+		Assert.assertEquals(plan.getLengthInMeters(), plan.getCost(), 0d);
+		Assert.assertEquals(6, plan.getWagons().size());
+		Assert.assertEquals(44, planner.getAvailableWagons());
+	}
+
+	@Test
+	public void testWagonsAreReservedAcrossPlans() {
+		List<Wagon> pool = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			pool.add(new PassengerCar(new Weight(40_000), new Length(26), 80, new Weight(0), null, null, null,
+					this.nextSerialNumber()));
+		}
+
+		WagonPlanner planner = new WagonPlanner(WagonCost.COUNT, pool);
+		Set<Wagon> used = new HashSet<>(planner.plan(new WagonDemand(160, 0)).get().getWagons());
+		used.addAll(planner.plan(new WagonDemand(150, 0)).get().getWagons());
+
+		Assert.assertEquals(4, used.size());
+		Assert.assertFalse(planner.plan(new WagonDemand(100, 0)).isPresent());
+		Assert.assertEquals(1, planner.getAvailableWagons());
+	}
+
+	@Test
+	public void testTrainStaysDrivable() {
+		List<Wagon> pool = new ArrayList<>();
+		pool.add(new FreightWagon(new Weight(20_000), new Length(15), 0, new Weight(200_000), null, null, null,
+				this.nextSerialNumber()));
+		pool.add(new FreightWagon(new Weight(20_000), new Length(15), 0, new Weight(60_000), null, null, null,
+				this.nextSerialNumber()));
+		pool.add(new FreightWagon(new Weight(20_000), new Length(15), 0, new Weight(60_000), null, null, null,
+				this.nextSerialNumber()));
+
+		WagonPlanner planner = new WagonPlanner(WagonCost.COUNT, pool);
+		Assert.assertFalse(planner.plan(new WagonDemand(0, 150_000, 100_000)).isPresent());
+
+		WagonPlan plan = planner.plan(new WagonDemand(0, 100_000, 150_000)).get();
+		Assert.assertEquals(120_000, plan.getFreightInKilogram(), 0d);
+	}
+
+	private SerialNumber nextSerialNumber() {
+		return new SerialNumber("Planner-" + this.serialNumber++);
+	}
+}
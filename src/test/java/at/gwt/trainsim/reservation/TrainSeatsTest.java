@@ -0,0 +1,134 @@
+package at.gwt.trainsim.reservation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.PassengerCar;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.SleepingCar;
+import at.gwt.trainsim.beans.Weight;
+
+public class TrainSeatsTest {
+
+	@Test
+	public void testSegments() {
+		SeatMap seatMap = new SeatMap(passengerCar("S1", 4), 64);
+
+		Assert.assertTrue(seatMap.claim(0, 0, 3));
+		Assert.assertFalse(seatMap.claim(0, 2, 5));
+		Assert.assertTrue(seatMap.claim(0, 3, 64));
+		Assert.assertFalse(seatMap.isFree(0, 63, 64));
+		Assert.assertEquals(3, seatMap.countFree(0, 64));
+
+		seatMap.release(0, 0, 3);
+		Assert.assertTrue(seatMap.isFree(0, 0, 3));
+		Assert.assertFalse(seatMap.isFree(0, 0, 4));
+
+		try {
+			seatMap.claim(1, 3, 3);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testAdjacentSeats() {
+		SeatMap seatMap = new SeatMap(passengerCar("S2", 6), 4);
+		Assert.assertTrue(seatMap.claim(2, 1, 2));
+
+		// seats 0 and 1 or 3 to 5 are left for the second segment
+		int first = seatMap.claimAdjacent(3, 0, 4);
+		Assert.assertEquals(3, first);
+		Assert.assertEquals(-1, seatMap.claimAdjacent(3, 1, 2));
+		Assert.assertEquals(0, seatMap.claimAdjacent(2, 1, 2));
+
+		// seats 0 to 2 are free again after the second segment
+		Assert.assertEquals(-1, seatMap.claimAdjacent(1, 0, 4));
+		Assert.assertEquals(3, seatMap.countFree(2, 4));
+		Assert.assertEquals(0, seatMap.claimAdjacent(3, 2, 4));
+	}
+
+	@Test
+	public void testConcurrentBookings() throws Exception {
+		TrainSeats seats = new TrainSeats(1L, Arrays.asList(passengerCar("S3", 80), sleepingCar("S4", 40)), 8);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			List<Future<List<SeatBooking>>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(() -> {
+					List<SeatBooking> bookings = new ArrayList<>();
+					for (int i = 0; i < 1_000; i++) {
+						int from = ThreadLocalRandom.current().nextInt(8);
+						int to = from + 1 + ThreadLocalRandom.current().nextInt(8 - from);
+						seats.book(1 + ThreadLocalRandom.current().nextInt(3), from, to).ifPresent(bookings::add);
+					}
+					return bookings;
+				}));
+			}
+
+			List<SeatBooking> bookings = new ArrayList<>();
+			for (Future<List<SeatBooking>> future : futures) {
+				bookings.addAll(future.get());
+			}
+
+			// no seat may be booked twice for a segment
+			int[][] booked = new int[120][8];
+			for (SeatBooking booking : bookings) {
+				int offset = booking.getSeatMap() == seats.getSeatMaps().get(0) ? 0 : 80;
+				for (int seat = booking.getFirstSeat(); seat < booking.getFirstSeat() + booking.getSeats(); seat++) {
+					for (int segment = booking.getFromSegment(); segment < booking.getToSegment(); segment++) {
+						Assert.assertEquals(0, booked[offset + seat][segment]++);
+					}
+				}
+				seats.cancel(booking);
+			}
+			Assert.assertEquals(120, seats.countFree(0, 8));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testCancelOnce() {
+		TrainSeats seats = new TrainSeats(1L, Arrays.asList(passengerCar("S5", 2)), 2);
+		SeatBooking booking = seats.book(2, 0, 2).get();
+		Assert.assertTrue(seats.cancel(booking));
+		Assert.assertTrue(booking.isCancelled());
+
+		// cancelling again must not release the seats booked in the meantime
+		SeatBooking other = seats.book(2, 0, 2).get();
+		Assert.assertFalse(seats.cancel(booking));
+		Assert.assertEquals(0, seats.countFree(0, 2));
+		Assert.assertFalse(other.isCancelled());
+
+		TrainSeats otherTrain = new TrainSeats(2L, Arrays.asList(passengerCar("S6", 2)), 2);
+		try {
+			otherTrain.cancel(other);
+			Assert.fail("Booking belongs to another train");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		Assert.assertFalse(other.isCancelled());
+	}
+
+	private static PassengerCar passengerCar(String serialNumber, int seats) {
+		return new PassengerCar(new Weight(40_000), new Length(26), seats, new Weight(1_000), null, null, null,
+				new SerialNumber(serialNumber));
+	}
+
+	private static SleepingCar sleepingCar(String serialNumber, int seats) {
+		return new SleepingCar(new Weight(50_000), new Length(26), seats, new Weight(1_000), null, null, null,
+				new SerialNumber(serialNumber));
+	}
+}
@@ -0,0 +1,109 @@
+package at.gwt.trainsim.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.VehicleFixtures;
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.FreightWagon;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+public class SimulationTest {
+
+	@Test
+	public void testTrainAcceleratesAndArrives() {
+		String prefix = VehicleFixtures.prefix("Simulation");
+		Train train = Train.Service.newTrain(RailroadCompany.of("OEBB"),
+				new Locomotive(new Weight(80_000), new Weight(30_000), new Length(20), Classification.of("Taurus"),
+						Manufacturer.of("Siemens"), new YearOfManufacturing(2005), new SerialNumber(prefix + "L1"),
+						Drive.ELECTRICITY));
+		train.addWagon(new FreightWagon(new Weight(20_000), new Length(15), 0, new Weight(60_000), null, null, null,
+				new SerialNumber(prefix + "W1")));
+
+		try {
+			Simulation simulation = new Simulation(10_000, 0.5);
+			int index = simulation.add(train);
+
+			simulation.run(20);
+			Assert.assertEquals(10d, simulation.getTimeInSeconds(), 0d);
+			double speed = simulation.getSpeedInMetersPerSecond(index);
+			Assert.assertTrue(speed > 0d);
+			Assert.assertTrue(simulation.getPositionInMeters(index) > 0d);
+
+			simulation.run(20);
+			Assert.assertTrue(simulation.getSpeedInMetersPerSecond(index) > speed);
+
+			simulation.run(10_000);
+			Assert.assertTrue(simulation.hasArrived(index));
+			Assert.assertEquals(10_000d, simulation.getPositionInMeters(index), 0d);
+			Assert.assertEquals(0d, simulation.getSpeedInMetersPerSecond(index), 0d);
+		} finally {
+			Train.Service.decommission(train);
+		}
+	}
+
+	@Test
+	public void testSpeedIsLimitedByDrive() {
+		Simulation simulation = new Simulation(1_000_000, 1);
+		int steam = simulation.add(100_000, 50_000, Drive.STEAM);
+		int electric = simulation.add(100_000, 50_000, Drive.ELECTRICITY);
+
+		simulation.run(3_000);
+
+		Assert.assertTrue(simulation.getSpeedInMetersPerSecond(steam) < Simulation.topSpeed(Drive.STEAM));
+		Assert.assertTrue(simulation.getSpeedInMetersPerSecond(electric) > Simulation.topSpeed(Drive.STEAM));
+	}
+
+	@Test
+	public void testParallelStepIsDeterministic() {
+		Simulation serial = newSimulation(7L);
+		Simulation parallel = newSimulation(7L);
+		Simulation otherSeed = newSimulation(8L);
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			serial.run(200);
+			parallel.run(200, pool);
+			otherSeed.run(200, pool);
+		} finally {
+			pool.shutdown();
+		}
+
+		boolean differs = false;
+		for (int i = 0; i < serial.size(); i++) {
+			Assert.assertEquals(serial.getPositionInMeters(i), parallel.getPositionInMeters(i), 0d);
+			Assert.assertEquals(serial.getSpeedInMetersPerSecond(i), parallel.getSpeedInMetersPerSecond(i), 0d);
+			differs |= serial.getPositionInMeters(i) != otherSeed.getPositionInMeters(i);
+		}
+		Assert.assertTrue(differs);
+	}
+
+	@Test
+	public void testTooWeakTrainDoesNotMove() {
+		Simulation simulation = new Simulation(1_000, 1);
+		int index = simulation.add(1_000_000, 1_000, Drive.DIESEL);
+
+		simulation.run(100);
+
+		Assert.assertEquals(0d, simulation.getPositionInMeters(index), 0d);
+	}
+
+	private static Simulation newSimulation(long seed) {
+		Simulation simulation = new Simulation(5_000, 0.5, 16, seed);
+		for (int i = 0; i < 3 * Simulation.CHUNK_SIZE; i++) {
+			simulation.add(100_000 + i, 30_000 + i % 1_000, Drive.values()[i % Drive.values().length]);
+		}
+
+		return simulation;
+	}
+}
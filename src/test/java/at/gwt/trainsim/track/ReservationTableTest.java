@@ -0,0 +1,76 @@
+package at.gwt.trainsim.track;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReservationTableTest {
+
+	@Test
+	public void testConflicts() {
+		TrackNetwork network = new TrackNetwork();
+		network.addBlock("Wien", "St. Poelten", 60_000, true);
+		network.addBlock("St. Poelten", "Linz", 120_000, true);
+		network.addBlock("St. Poelten", "Krems", 30_000, false);
+		Assert.assertTrue(network.isSwitch("St. Poelten"));
+
+		List<Block> westbound = network.path("Wien", "St. Poelten", "Linz");
+		List<Occupation> first = Occupation.along(westbound, 400, 40, 0);
+		Assert.assertEquals(0, first.get(0).getFromMillis());
+		Assert.assertEquals(1_510_000, first.get(0).getToMillis());
+		Assert.assertEquals(1_500_000, first.get(1).getFromMillis());
+
+		ReservationTable table = new ReservationTable();
+		Assert.assertTrue(table.reserve(1, first));
+
+		// the same path five minutes later conflicts in the first block
+		List<Occupation> second = Occupation.along(westbound, 400, 40, 300_000);
+		Assert.assertFalse(table.isFree(second));
+		Assert.assertEquals(1, table.findConflict(second).get().getTrainId());
+		Assert.assertFalse(table.reserve(2, second));
+
+		// after the first train has left the first block
+		List<Occupation> later = Occupation.along(westbound, 400, 40, 1_510_000);
+		Assert.assertFalse(table.isFree(later));
+		Assert.assertTrue(table.isFree(later.subList(0, 1)));
+
+		List<Occupation> toKrems = Occupation.along(network.path("St. Poelten", "Krems"), 200, 20, 1_000_000);
+		Assert.assertTrue(table.reserve(3, toKrems));
+		Assert.assertFalse(table.isFree(Collections.singletonList(new Occupation(network.getBlock(2), 0, 1_000_001))));
+		Assert.assertTrue(table.isFree(Collections.singletonList(new Occupation(network.getBlock(2), 0, 1_000_000))));
+
+		Assert.assertEquals(2, table.release(1));
+		Assert.assertTrue(table.reserve(2, second));
+		Assert.assertEquals(2, table.getReservations(2).size());
+	}
+
+	@Test
+	public void testOverlappingOccupations() {
+		TrackNetwork network = new TrackNetwork();
+		network.addBlock("Wien", "St. Poelten", 60_000, true);
+		Block block = network.getBlock(0);
+
+		ReservationTable table = new ReservationTable();
+		try {
+			table.reserve(1, Arrays.asList(new Occupation(block, 0, 1_000), new Occupation(block, 0, 2_000)));
+			Assert.fail("Occupations with the same start overlap");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			table.reserve(1, Arrays.asList(new Occupation(block, 0, 1_000), new Occupation(block, 999, 2_000)));
+			Assert.fail("Occupations overlap");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		Assert.assertTrue(table.getReservations(1).isEmpty());
+
+		Assert.assertTrue(
+				table.reserve(1, Arrays.asList(new Occupation(block, 0, 1_000), new Occupation(block, 1_000, 2_000))));
+		Assert.assertEquals(2, table.getReservations(1).size());
+		Assert.assertEquals(new Occupation(block, 0, 1_000), table.getReservations(1).get(0).getOccupation());
+	}
+}
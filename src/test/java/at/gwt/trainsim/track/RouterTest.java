@@ -0,0 +1,163 @@
+package at.gwt.trainsim.track;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.gwt.trainsim.VehicleFixtures;
+import at.gwt.trainsim.beans.Classification;
+import at.gwt.trainsim.beans.Drive;
+import at.gwt.trainsim.beans.Length;
+import at.gwt.trainsim.beans.Locomotive;
+import at.gwt.trainsim.beans.Manufacturer;
+import at.gwt.trainsim.beans.RailroadCompany;
+import at.gwt.trainsim.beans.SerialNumber;
+import at.gwt.trainsim.beans.Train;
+import at.gwt.trainsim.beans.Weight;
+import at.gwt.trainsim.beans.YearOfManufacturing;
+
+public class RouterTest {
+
+	@Test
+	public void testElectricTrainsStayOnElectrifiedBlocks() {
+		TrackNetwork network = new TrackNetwork();
+		network.addBlock("Wien", "St. Poelten", 60_000, true);
+		network.addBlock("St. Poelten", "Linz", 120_000, true);
+		network.addBlock("Wien", "Krems", 70_000, false);
+		network.addBlock("Krems", "Linz", 90_000, false);
+
+		String prefix = VehicleFixtures.prefix("Router");
+		Train electric = Train.Service.newTrain(RailroadCompany.of("OEBB"),
+				locomotive(prefix + "E", Drive.ELECTRICITY));
+		Train diesel = Train.Service.newTrain(RailroadCompany.of("OEBB"), locomotive(prefix + "D", Drive.DIESEL));
+
+		try {
+			Router router = new Router(network);
+			Route dieselRoute = router.route("Wien", "Linz", diesel).get();
+			Assert.assertEquals(network.path("Wien", "Krems", "Linz"), dieselRoute.getBlocks());
+			Assert.assertEquals(160_000, dieselRoute.getLengthInMeters());
+
+			Route electricRoute = router.route("Wien", "Linz", electric).get();
+			Assert.assertEquals(network.path("Wien", "St. Poelten", "Linz"), electricRoute.getBlocks());
+			Assert.assertTrue(electricRoute.getTravelTimeInSeconds() < dieselRoute.getTravelTimeInSeconds());
+			Assert.assertFalse(router.route("Wien", "Krems", electric).isPresent());
+			Assert.assertEquals(2, electricRoute.occupations(0).size());
+
+			// closing a block clears the cache
+			network.close(network.getBlock(3));
+			Assert.assertEquals(network.path("Wien", "St. Poelten", "Linz"),
+					router.route("Wien", "Linz", diesel).get().getBlocks());
+			Assert.assertEquals(1, router.getCacheSize());
+		} finally {
+			Train.Service.decommission(electric);
+			Train.Service.decommission(diesel);
+		}
+	}
+
+	@Test
+	public void testCacheEvictsLeastRecentlyUsed() {
+		TrackNetwork network = new TrackNetwork();
+		network.addBlock("A", "B", 1_000, true);
+		network.addBlock("B", "C", 1_000, true);
+		TrainClass trainClass = new TrainClass(false, 140, 500, 200);
+
+		Router router = new Router(network, 2);
+		Route route = router.route("A", "C", trainClass).get();
+		router.route("A", "B", trainClass);
+		Assert.assertSame(route, router.route("A", "C", trainClass).get());
+		router.route("B", "C", trainClass);
+
+		Assert.assertEquals(2, router.getCacheSize());
+		Assert.assertEquals(1, router.getCacheHits());
+		Assert.assertSame(route, router.route("A", "C", trainClass).get());
+		router.route("A", "B", trainClass);
+		Assert.assertEquals(4, router.getCacheMisses());
+
+		Route same = router.route("A", "A", trainClass).get();
+		Assert.assertTrue(same.getBlocks().isEmpty());
+		Assert.assertEquals(0d, same.getTravelTimeInSeconds(), 0d);
+	}
+
+	@Test
+	public void testPositionsDoNotChangeResults() {
+		Random random = new Random(3);
+		TrackNetwork plain = new TrackNetwork();
+		TrackNetwork positioned = new TrackNetwork();
+		int grid = 20;
+		for (int x = 0; x < grid; x++) {
+			for (int y = 0; y < grid; y++) {
+				positioned.addNode(x + "/" + y, x * 1_000, y * 1_000);
+			}
+		}
+		for (int x = 0; x < grid; x++) {
+			for (int y = 0; y < grid; y++) {
+				boolean electrified = random.nextInt(4) > 0;
+				long length = 1_000 + random.nextInt(1_000);
+				if (x + 1 < grid) {
+					plain.addBlock(x + "/" + y, (x + 1) + "/" + y, length, electrified);
+					positioned.addBlock(x + "/" + y, (x + 1) + "/" + y, length, electrified);
+				}
+				if (y + 1 < grid) {
+					plain.addBlock(x + "/" + y, x + "/" + (y + 1), length, electrified);
+					positioned.addBlock(x + "/" + y, x + "/" + (y + 1), length, electrified);
+				}
+			}
+		}
+
+		Router dijkstra = new Router(plain, 0);
+		Router aStar = new Router(positioned, 0);
+		for (int i = 0; i < 200; i++) {
+			String from = random.nextInt(grid) + "/" + random.nextInt(grid);
+			String to = random.nextInt(grid) + "/" + random.nextInt(grid);
+			TrainClass trainClass = new TrainClass(random.nextBoolean(), 140, 500, 200);
+
+			Assert.assertEquals(dijkstra.route(from, to, trainClass).map(Route::getLengthInMeters),
+					aStar.route(from, to, trainClass).map(Route::getLengthInMeters));
+		}
+		Assert.assertEquals(0, aStar.getCacheSize());
+	}
+
+	@Test
+	public void testBlocksAreNotShorterThanDistance() {
+		TrackNetwork network = new TrackNetwork();
+		network.addNode("A", 0, 0);
+		network.addNode("B", 3_000, 4_000);
+		network.addBlock("A", "B", 5_000, true);
+		try {
+			network.addBlock("A", "B", 4_999, true);
+			Assert.fail("Block is shorter than the distance");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		network.addBlock("A", "C", 1_000, true);
+		try {
+			network.addNode("C", 0, 1_001);
+			Assert.fail("Block is shorter than the distance");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		Assert.assertEquals(0d, network.getDistanceInMeters("A", "C"), 0d);
+		network.addNode("C", 0, 1_000);
+		Assert.assertEquals(2, network.getBlocks().size());
+	}
+
+	@Test
+	public void testHeavyTrainsAreSlower() {
+		TrainClass light = new TrainClass(false, 140, 450, 180);
+		TrainClass heavy = new TrainClass(false, 140, 2_000, 600);
+
+		Assert.assertEquals(500, light.getWeightInTonnes());
+		Assert.assertEquals(200, light.getLengthInMeters());
+		Assert.assertEquals(light, new TrainClass(false, 140, 480, 200));
+		Assert.assertTrue(heavy.getSpeedInMetersPerSecond() < light.getSpeedInMetersPerSecond());
+		Assert.assertTrue(heavy.getBrakingDistanceInMeters() > 0d);
+		Assert.assertTrue(heavy.travelTime(10_000) > light.travelTime(10_000));
+	}
+
+	private static Locomotive locomotive(String serialNumber, Drive drive) {
+		return new Locomotive(new Weight(80_000), new Weight(30_000), new Length(20), Classification.of("Taurus"),
+				Manufacturer.of("Siemens"), new YearOfManufacturing(2005), new SerialNumber(serialNumber), drive);
+	}
+}